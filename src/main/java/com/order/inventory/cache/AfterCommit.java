@@ -0,0 +1,41 @@
+package com.order.inventory.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs in-memory bookkeeping only once the surrounding transaction has committed
+ * (immediately when there is none), so caches never reflect rolled-back writes.
+ */
+public final class AfterCommit {
+
+    private AfterCommit() { }
+
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /** Like {@link #run(Runnable)}, but runs {@code onRollback} instead when the transaction does not commit. */
+    public static void run(Runnable onCommit, Runnable onRollback) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) onCommit.run();
+                    else onRollback.run();
+                }
+            });
+        } else {
+            onCommit.run();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.order.inventory.cache;
+
+import com.order.inventory.repository.CustomerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of email -> customer id, including negative entries for unknown
+ * emails (short TTL). Invalidations are applied after commit by CustomerService writes.
+ * Keys are trimmed and lowercased and the DB is queried with the same key; the
+ * email column's case-insensitive collation makes that equal to the raw lookup.
+ * A reverse customer id -> keys map makes {@link #invalidateCustomer} O(emails of it).
+ */
+@Component
+public class CustomerIdCache {
+
+    private record Entry(Integer customerId, long expiresAtMs) { }
+
+    private final CustomerRepository customerRepo;
+    private final int maxEntries;
+    private final long negativeTtlMs;
+
+    private final Map<String, Entry> entries;
+    private final Map<Integer, Set<String>> keysByCustomer = new HashMap<>();   // guarded by entries
+    // Bumped by every invalidation; a load that raced with one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CustomerIdCache(CustomerRepository customerRepo,
+                           @Value("${customers.email-cache.max-entries:100000}") int maxEntries,
+                           @Value("${customers.email-cache.negative-ttl-ms:30000}") long negativeTtlMs) {
+        this.customerRepo = customerRepo;
+        this.maxEntries = maxEntries;
+        this.negativeTtlMs = negativeTtlMs;
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= CustomerIdCache.this.maxEntries) return false;
+                evictions.incrementAndGet();
+                unlink(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Customer id for the email, or empty when no customer has it. */
+    public Optional<Integer> resolve(String email) {
+        String key = normalize(email);
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry e = entries.get(key);
+            if (e != null) {
+                if (e.customerId() != null) {
+                    hits.incrementAndGet();
+                    return Optional.of(e.customerId());
+                }
+                if (e.expiresAtMs() > now) {
+                    negativeHits.incrementAndGet();
+                    return Optional.empty();
+                }
+                remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        long gen = generation.get();
+        Integer id = customerRepo.findIdByEmailAddress(key).orElse(null);
+        synchronized (entries) {
+            if (generation.get() == gen) {
+                remove(key);
+                Entry e = new Entry(id, id != null ? Long.MAX_VALUE : now + negativeTtlMs);
+                entries.put(key, e);
+                if (id != null) keysByCustomer.computeIfAbsent(id, k -> new HashSet<>()).add(key);
+            }
+        }
+        return Optional.ofNullable(id);
+    }
+
+    public void invalidateEmail(String email) {
+        String key = normalize(email);
+        AfterCommit.run(() -> {
+            synchronized (entries) {
+                generation.incrementAndGet();
+                remove(key);
+            }
+        });
+    }
+
+    public void invalidateCustomer(Integer customerId) {
+        AfterCommit.run(() -> {
+            synchronized (entries) {
+                generation.incrementAndGet();
+                Set<String> keys = keysByCustomer.remove(customerId);
+                if (keys != null) keys.forEach(entries::remove);
+            }
+        });
+    }
+
+    // Callers hold the entries lock
+    private void remove(String key) {
+        Entry e = entries.remove(key);
+        if (e != null) unlink(key, e);
+    }
+
+    private void unlink(String key, Entry e) {
+        if (e.customerId() == null) return;
+        Set<String> keys = keysByCustomer.get(e.customerId());
+        if (keys != null && keys.remove(key) && keys.isEmpty()) keysByCustomer.remove(e.customerId());
+    }
+
+    public Map<String, Number> stats() {
+        long h = hits.get(), nh = negativeHits.get(), m = misses.get();
+        long lookups = h + nh + m;
+        Map<String, Number> out = new LinkedHashMap<>();
+        out.put("hits", h);
+        out.put("negativeHits", nh);
+        out.put("misses", m);
+        out.put("evictions", evictions.get());
+        synchronized (entries) {
+            out.put("size", entries.size());
+        }
+        out.put("hitRate", lookups == 0 ? 0.0 : (double) (h + nh) / lookups);
+        return out;
+    }
+}
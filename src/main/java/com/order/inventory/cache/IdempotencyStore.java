@@ -0,0 +1,174 @@
+package com.order.inventory.cache;
+
+import com.order.inventory.exception.BadRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for create endpoints. Responses are kept in a bounded,
+ * TTL-evicted in-memory map; concurrent requests with the same key wait on the first
+ * one's execution instead of running their own. Failures are not cached, so a retry
+ * after an error runs again.
+ * <p>
+ * With {@code idempotency.jdbc.enabled=true} responses are also written to the
+ * {@code idempotency_keys} table so a retry landing on another instance (or after a
+ * restart) still gets the original response. That tier is best effort: it is written
+ * after the create commits, and two instances racing on the same key are not collapsed.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final class Entry {
+        final String requestHash;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        volatile long expiresAtMs = Long.MAX_VALUE;   // set once the result is known
+
+        Entry(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbc;   // null when the DB tier is disabled
+    private final long ttlMs;
+    private final Map<String, Entry> entries;
+
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            JdbcTemplate jdbc,
+                            @Value("${idempotency.jdbc.enabled:false}") boolean jdbcEnabled,
+                            @Value("${idempotency.max-entries:50000}") int maxEntries,
+                            @Value("${idempotency.ttl-ms:86400000}") long ttlMs) {
+        this.objectMapper = objectMapper;
+        this.jdbc = jdbcEnabled ? jdbc : null;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(1024) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Runs {@code action} once per (scope, key) within the TTL and returns its result to
+     * every request carrying that key. Without a key the action simply runs.
+     */
+    public <T> T execute(String scope, String key, Object request, Class<T> type, Supplier<T> action) {
+        if (key == null) return action.get();
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH)
+            throw new BadRequestException("Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+
+        String hash = fingerprint(request);
+        String id = scope + ':' + key;
+        long now = System.currentTimeMillis();
+        Entry entry;
+        boolean owner = false;
+        synchronized (entries) {
+            entry = entries.get(id);
+            if (entry != null && entry.expiresAtMs <= now) {
+                entries.remove(id);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(hash);
+                entries.put(id, entry);
+                owner = true;
+            }
+        }
+        if (!entry.requestHash.equals(hash))
+            throw new BadRequestException("Idempotency-Key was already used with a different request");
+        if (!owner) return type.cast(await(entry));
+
+        try {
+            T result = stored(scope, key, hash, type);
+            if (result == null) {
+                result = action.get();
+                persist(scope, key, hash, result);
+            }
+            entry.expiresAtMs = System.currentTimeMillis() + ttlMs;
+            entry.result.complete(result);
+            return result;
+        } catch (RuntimeException ex) {
+            synchronized (entries) {
+                entries.remove(id, entry);
+            }
+            entry.result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            entries.values().removeIf(e -> e.expiresAtMs <= now);
+        }
+        if (jdbc != null) {
+            jdbc.update("DELETE FROM idempotency_keys WHERE created_at < ?",
+                    Timestamp.from(Instant.ofEpochMilli(now - ttlMs)));
+        }
+    }
+
+    private static Object await(Entry entry) {
+        try {
+            return entry.result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            throw ex;
+        }
+    }
+
+    private <T> T stored(String scope, String key, String hash, Class<T> type) {
+        if (jdbc == null) return null;
+        List<String[]> rows = jdbc.query(
+                "SELECT request_hash, response_json FROM idempotency_keys WHERE scope = ? AND idem_key = ? AND created_at >= ?",
+                (rs, n) -> new String[]{rs.getString(1), rs.getString(2)},
+                scope, key, Timestamp.from(Instant.now().minusMillis(ttlMs)));
+        if (rows.isEmpty()) return null;
+        if (!rows.get(0)[0].equals(hash))
+            throw new BadRequestException("Idempotency-Key was already used with a different request");
+        return objectMapper.readValue(rows.get(0)[1], type);
+    }
+
+    private void persist(String scope, String key, String hash, Object result) {
+        if (jdbc == null) return;
+        try {
+            jdbc.update("INSERT INTO idempotency_keys (scope, idem_key, request_hash, response_json, created_at) VALUES (?, ?, ?, ?, ?)",
+                    scope, key, hash, objectMapper.writeValueAsString(result), Timestamp.from(Instant.now()));
+        } catch (DuplicateKeyException ex) {
+            // another instance stored it first
+        } catch (DataAccessException ex) {
+            log.warn("Could not persist idempotency key {}:{}: {}", scope, key, ex.getMessage());
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.order.inventory.cache;
+
+import com.order.inventory.event.InventoryChangedEvent;
+import com.order.inventory.event.ProductChangedEvent;
+import com.order.inventory.repository.InventoryRepository;
+import com.order.inventory.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Inverted index for /api/v1/inventory/category/{category}: case-folded brand or colour
+ * -> product ids -> inventory ids, with each category's inventory ids kept sorted.
+ * Product writes arrive as {@link ProductChangedEvent}s after commit. Inventory rows are
+ * only created by the CSV import, whose {@link InventoryChangedEvent}s carry absolute
+ * quantities; the inventory ids of those products are re-read. Relative stock updates
+ * never add or remove rows and are ignored. The periodic rebuild catches anything else.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryCategoryIndex {
+
+    private static final class State {
+        final Map<String, Set<Integer>> productsByCategory = new HashMap<>();
+        final Map<Integer, List<String>> categoriesByProduct = new HashMap<>();
+        final Map<Integer, int[]> inventoryByProduct = new HashMap<>();
+        final Map<String, int[]> sortedByCategory = new HashMap<>();   // dropped on change, re-sorted on next read
+    }
+
+    private final ProductRepository productRepo;
+    private final InventoryRepository inventoryRepo;
+
+    private State state;                           // guarded by this
+    private List<Consumer<State>> replay;          // changes seen while a rebuild is loading, guarded by this
+
+    public static String normalize(String category) {
+        return category == null ? "" : category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Inventory ids whose product has this brand or colour (case-insensitive), ascending; shared, do not modify. */
+    public int[] inventoryIds(String category) {
+        String key = normalize(category);
+        synchronized (this) {
+            if (state == null) {
+                // first use: load under the lock so concurrent callers wait for one load
+                state = load();
+            }
+            Set<Integer> products = state.productsByCategory.get(key);
+            if (products == null) return new int[0];
+            return state.sortedByCategory.computeIfAbsent(key, k -> sorted(state, products));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent e) {
+        update(st -> apply(st, e));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent e) {
+        Set<Integer> productIds = new TreeSet<>();
+        for (InventoryChangedEvent.StockChange c : e.changes()) {
+            if (c.quantity() != null) productIds.add(c.productId());
+        }
+        if (productIds.isEmpty()) return;
+        // Read outside the lock; a later event or the rebuild corrects an out-of-order read
+        Map<Integer, List<Integer>> inventory = new HashMap<>();
+        for (Object[] r : inventoryRepo.findIdsAndProductIdsByProductIds(productIds)) {
+            inventory.computeIfAbsent((Integer) r[1], k -> new ArrayList<>()).add((Integer) r[0]);
+        }
+        update(st -> inventory.forEach((productId, ids) -> {
+            st.inventoryByProduct.put(productId, ids.stream().mapToInt(Integer::intValue).toArray());
+            st.categoriesByProduct.getOrDefault(productId, List.of()).forEach(st.sortedByCategory::remove);
+        }));
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.category-index.rebuild-ms:600000}")
+    public void rebuild() {
+        synchronized (this) {
+            replay = new ArrayList<>();
+        }
+        State fresh = load();
+        synchronized (this) {
+            replay.forEach(change -> change.accept(fresh));
+            replay = null;
+            state = fresh;
+        }
+    }
+
+    private synchronized void update(Consumer<State> change) {
+        if (state != null) change.accept(state);
+        if (replay != null) replay.add(change);
+    }
+
+    private static int[] sorted(State st, Set<Integer> products) {
+        int n = 0;
+        for (Integer p : products) n += st.inventoryByProduct.getOrDefault(p, new int[0]).length;
+        int[] out = new int[n];
+        int pos = 0;
+        for (Integer p : products) {
+            int[] ids = st.inventoryByProduct.get(p);
+            if (ids == null) continue;
+            System.arraycopy(ids, 0, out, pos, ids.length);
+            pos += ids.length;
+        }
+        Arrays.sort(out);
+        return out;
+    }
+
+    private State load() {
+        State st = new State();
+        Map<Integer, List<Integer>> inventory = new HashMap<>();
+        for (Object[] r : inventoryRepo.findAllIdsAndProductIds()) {
+            inventory.computeIfAbsent((Integer) r[1], k -> new ArrayList<>()).add((Integer) r[0]);
+        }
+        inventory.forEach((productId, ids) ->
+                st.inventoryByProduct.put(productId, ids.stream().mapToInt(Integer::intValue).toArray()));
+        for (Object[] r : productRepo.findAllIdsBrandsAndColours()) {
+            index(st, (Integer) r[0], (String) r[1], (String) r[2]);
+        }
+        st.productsByCategory.forEach((key, products) -> st.sortedByCategory.put(key, sorted(st, products)));
+        return st;
+    }
+
+    private static void apply(State st, ProductChangedEvent e) {
+        List<String> old = st.categoriesByProduct.remove(e.productId());
+        if (old != null) {
+            for (String key : old) {
+                st.sortedByCategory.remove(key);
+                Set<Integer> products = st.productsByCategory.get(key);
+                products.remove(e.productId());
+                if (products.isEmpty()) st.productsByCategory.remove(key);
+            }
+        }
+        if (e.deleted()) {
+            st.inventoryByProduct.remove(e.productId());
+        } else {
+            index(st, e.productId(), e.product().getBrand(), e.product().getColour());
+        }
+    }
+
+    private static void index(State st, Integer productId, String brand, String colour) {
+        Set<String> keys = new HashSet<>();
+        if (brand != null && !brand.isBlank()) keys.add(normalize(brand));
+        if (colour != null && !colour.isBlank()) keys.add(normalize(colour));
+        if (keys.isEmpty()) return;
+        st.categoriesByProduct.put(productId, List.copyOf(keys));
+        for (String key : keys) st.sortedByCategory.remove(key);
+        for (String key : keys) st.productsByCategory.computeIfAbsent(key, k -> new HashSet<>()).add(productId);
+    }
+}
@@ -0,0 +1,73 @@
+package com.order.inventory.cache;
+
+import com.order.inventory.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Order count per UTC day, kept in a sorted map so a date range resolves to its
+ * non-empty days without touching MySQL. Maintained like {@link OrderStatusCounters}:
+ * writers report timestamps after commit and a periodic rebuild corrects drift.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderDayIndex {
+
+    private final OrderRepository orderRepo;
+
+    private volatile ConcurrentSkipListMap<LocalDate, AtomicLong> days = new ConcurrentSkipListMap<>();
+    private volatile boolean loaded;
+
+    public static LocalDate dayOf(Instant tms) {
+        return LocalDate.ofInstant(tms, ZoneOffset.UTC);
+    }
+
+    /** Non-empty days in [start, end] (inclusive), ascending, with their counts. */
+    public Map<LocalDate, Long> countsBetween(LocalDate start, LocalDate end) {
+        if (!loaded) rebuild();
+        Map<LocalDate, Long> out = new LinkedHashMap<>();
+        for (Map.Entry<LocalDate, AtomicLong> e : days.subMap(start, true, end, true).entrySet()) {
+            long n = e.getValue().get();
+            if (n > 0) out.put(e.getKey(), n);
+        }
+        return out;
+    }
+
+    public void recordCreated(Instant tms) {
+        recordMoved(null, tms);
+    }
+
+    /** {@code from == null} means a new order, {@code to == null} a deleted one. */
+    public void recordMoved(Instant from, Instant to) {
+        LocalDate fromDay = from != null ? dayOf(from) : null;
+        LocalDate toDay = to != null ? dayOf(to) : null;
+        if (fromDay != null && fromDay.equals(toDay)) return;
+        AfterCommit.run(() -> {
+            NavigableMap<LocalDate, AtomicLong> current = days;
+            if (fromDay != null) current.computeIfAbsent(fromDay, d -> new AtomicLong()).decrementAndGet();
+            if (toDay != null) current.computeIfAbsent(toDay, d -> new AtomicLong()).incrementAndGet();
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${orders.day-index.rebuild-ms:900000}")
+    public void rebuild() {
+        ConcurrentSkipListMap<LocalDate, AtomicLong> fresh = new ConcurrentSkipListMap<>();
+        for (Object[] r : orderRepo.countOrdersByDay()) {
+            LocalDate day = r[0] instanceof Date d ? d.toLocalDate() : (LocalDate) r[0];
+            fresh.put(day, new AtomicLong(((Number) r[1]).longValue()));
+        }
+        days = fresh;
+        loaded = true;
+    }
+}
@@ -0,0 +1,70 @@
+package com.order.inventory.cache;
+
+import com.order.inventory.entity.OrderStatus;
+import com.order.inventory.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory order count per {@link OrderStatus}, indexed by ordinal.
+ * Writers report transitions; deltas are applied only after their transaction commits,
+ * so a rollback never skews the numbers. A periodic reconciliation against the DB
+ * corrects anything not reported here (e.g. manual SQL, other instances).
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderStatusCounters {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final OrderRepository orderRepo;
+
+    private final AtomicLongArray counts = new AtomicLongArray(STATUSES.length);
+    private volatile boolean loaded;
+
+    /** Status -> count for every status with at least one order (same shape as the GROUP BY). */
+    public Map<String, Long> snapshot() {
+        if (!loaded) reconcile();
+        Map<String, Long> out = new LinkedHashMap<>();
+        for (OrderStatus st : STATUSES) {
+            long n = counts.get(st.ordinal());
+            if (n > 0) out.put(st.name(), n);
+        }
+        return out;
+    }
+
+    public void recordCreated(OrderStatus status) {
+        recordTransition(null, status);
+    }
+
+    /** {@code from == null} means a new order, {@code to == null} a deleted one; same-status transitions are ignored. */
+    public void recordTransition(OrderStatus from, OrderStatus to) {
+        if (from == to) return;
+        AfterCommit.run(() -> apply(from, to));
+    }
+
+    /**
+     * Replaces the counters with a fresh GROUP BY. Transitions that commit while the
+     * query runs may be counted twice or not at all until the next run.
+     */
+    @Scheduled(fixedDelayString = "${orders.status-counters.reconcile-ms:300000}")
+    public void reconcile() {
+        long[] fresh = new long[STATUSES.length];
+        for (Object[] r : orderRepo.countOrdersByStatus()) {
+            OrderStatus st = r[0] instanceof OrderStatus s ? s : OrderStatus.valueOf(String.valueOf(r[0]));
+            fresh[st.ordinal()] = ((Number) r[1]).longValue();
+        }
+        for (int i = 0; i < fresh.length; i++) counts.set(i, fresh[i]);
+        loaded = true;
+    }
+
+    private void apply(OrderStatus from, OrderStatus to) {
+        if (from != null) counts.decrementAndGet(from.ordinal());
+        if (to != null) counts.incrementAndGet(to.ordinal());
+    }
+}
@@ -0,0 +1,199 @@
+package com.order.inventory.cache;
+
+import com.order.inventory.dto.ProductDTO;
+import com.order.inventory.event.ProductChangedEvent;
+import com.order.inventory.mapper.ProductMapper;
+import com.order.inventory.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable snapshot of the whole catalog as DTOs, with one pre-sorted position array per
+ * sortable field, so a sorted (optionally descending, optionally paged) listing is a slice
+ * of an array. Ordering matches the DB's: nulls first, strings case-insensitive, ties by id.
+ * <p>
+ * Each product write is applied to a copy of the snapshot, which is then swapped in, so
+ * reads never fall back to the DB once the first load is done: O(n) array copies per write
+ * instead of a reload and seven sorts. The periodic rebuild replays writes seen while it
+ * loads, as in {@link ProductPriceIndex}. The DTOs are shared between requests and must not be modified.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductCatalog {
+
+    private static final Map<String, Function<ProductDTO, Comparable<?>>> FIELDS = Map.of(
+            "id", ProductDTO::getId,
+            "productName", ProductDTO::getName,
+            "unitPrice", ProductDTO::getUnitPrice,
+            "brand", ProductDTO::getBrand,
+            "colour", ProductDTO::getColour,
+            "size", ProductDTO::getSize,
+            "rating", ProductDTO::getRating);
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Comparator<Comparable> VALUES = Comparator.nullsFirst((a, b) -> a instanceof String s
+            ? String.CASE_INSENSITIVE_ORDER.compare(s, (String) b)
+            : a.compareTo(b));
+
+    private final ProductRepository repo;
+    private final ProductMapper mapper;
+
+    private volatile View view;
+    private List<ProductChangedEvent> replay;   // guarded by this
+
+    /** A consistent catalog; all lists it returns are read-only views. */
+    public static final class View {
+        private final ProductDTO[] products;        // by id
+        private final Map<String, int[]> orders;    // field -> positions in ascending order
+
+        private View(ProductDTO[] products, Map<String, int[]> orders) {
+            this.products = products;
+            this.orders = orders;
+        }
+
+        public int size() {
+            return products.length;
+        }
+
+        /** Products {@code from} (inclusive) to {@code to} (exclusive) in the field's order, clamped to the catalog. */
+        public List<ProductDTO> slice(String field, boolean descending, int from, int to) {
+            int[] order = orders.get(field);
+            if (order == null) throw new IllegalArgumentException("Not a sortable field: " + field);
+            int n = order.length;
+            int start = Math.min(Math.max(from, 0), n), length = Math.min(Math.max(to, 0), n) - start;
+            return new AbstractList<>() {
+                @Override
+                public ProductDTO get(int i) {
+                    int rank = start + i;
+                    return products[order[descending ? n - 1 - rank : rank]];
+                }
+
+                @Override
+                public int size() {
+                    return Math.max(0, length);
+                }
+            };
+        }
+
+        /** This catalog with one product replaced, added or (null) removed; this view is left untouched. */
+        private View with(int id, ProductDTO product) {
+            int lo = 0, hi = products.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (products[mid].getId() < id) lo = mid + 1;
+                else hi = mid;
+            }
+            int k = lo;
+            boolean present = k < products.length && products[k].getId() == id;
+            if (!present && product == null) return this;
+
+            ProductDTO[] next;
+            if (!present) {
+                next = new ProductDTO[products.length + 1];
+                System.arraycopy(products, 0, next, 0, k);
+                System.arraycopy(products, k, next, k + 1, products.length - k);
+                next[k] = product;
+            } else if (product == null) {
+                next = new ProductDTO[products.length - 1];
+                System.arraycopy(products, 0, next, 0, k);
+                System.arraycopy(products, k + 1, next, k, next.length - k);
+            } else {
+                next = products.clone();
+                next[k] = product;
+            }
+            Map<String, int[]> nextOrders = new HashMap<>();
+            FIELDS.forEach((field, getter) -> {
+                int[] order = orders.get(field);
+                if (!present) nextOrders.put(field, insert(shifted(order, k), next, getter, k));
+                else if (product == null) nextOrders.put(field, without(order, k, -1));
+                else nextOrders.put(field, insert(without(order, k, 0), next, getter, k));
+            });
+            return new View(next, nextOrders);
+        }
+    }
+
+    /** The current snapshot, or null before the first load. */
+    public View view() {
+        return view;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent e) {
+        View v = view;
+        if (v != null) view = v.with(e.productId(), e.deleted() ? null : e.product());
+        if (replay != null) replay.add(e);
+    }
+
+    @Scheduled(fixedDelayString = "${products.catalog.rebuild-ms:600000}")
+    public void refresh() {
+        synchronized (this) {
+            replay = new ArrayList<>();
+        }
+        ProductDTO[] products = repo.findAll(Sort.by("id")).stream().map(mapper::toDto).toArray(ProductDTO[]::new);
+        Map<String, int[]> orders = new HashMap<>();
+        FIELDS.forEach((field, getter) -> orders.put(field, order(products, getter)));
+        synchronized (this) {
+            View fresh = new View(products, orders);
+            for (ProductChangedEvent e : replay) fresh = fresh.with(e.productId(), e.deleted() ? null : e.product());
+            view = fresh;
+            replay = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(ProductDTO[] products, Function<ProductDTO, Comparable<?>> getter, int i, int j) {
+        int c = VALUES.compare(getter.apply(products[i]), getter.apply(products[j]));
+        return c != 0 ? c : Integer.compare(i, j);   // positions are in id order
+    }
+
+    private static int[] order(ProductDTO[] products, Function<ProductDTO, Comparable<?>> getter) {
+        Integer[] boxed = new Integer[products.length];
+        for (int i = 0; i < boxed.length; i++) boxed[i] = i;
+        Arrays.sort(boxed, (i, j) -> compare(products, getter, i, j));
+        return Arrays.stream(boxed).mapToInt(Integer::intValue).toArray();
+    }
+
+    /** Positions at or after {@code k} moved up by one, making room for a product inserted at k. */
+    private static int[] shifted(int[] order, int k) {
+        int[] out = new int[order.length];
+        for (int i = 0; i < order.length; i++) out[i] = order[i] >= k ? order[i] + 1 : order[i];
+        return out;
+    }
+
+    /** {@code order} without position {@code k}; positions after it move by {@code shift}. */
+    private static int[] without(int[] order, int k, int shift) {
+        int[] out = new int[order.length - 1];
+        int j = 0;
+        for (int pos : order) {
+            if (pos != k) out[j++] = pos > k ? pos + shift : pos;
+        }
+        return out;
+    }
+
+    /** {@code order} with position {@code k} inserted at its rank. */
+    private static int[] insert(int[] order, ProductDTO[] products, Function<ProductDTO, Comparable<?>> getter, int k) {
+        int lo = 0, hi = order.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(products, getter, order[mid], k) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        int[] out = new int[order.length + 1];
+        System.arraycopy(order, 0, out, 0, lo);
+        out[lo] = k;
+        System.arraycopy(order, lo, out, lo + 1, order.length - lo);
+        return out;
+    }
+}
@@ -0,0 +1,289 @@
+package com.order.inventory.cache;
+
+import com.order.inventory.dto.ProductDTO;
+import com.order.inventory.event.ProductChangedEvent;
+import com.order.inventory.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Facet counts for product search, computed in one pass over columnar arrays instead of
+ * a GROUP BY per dimension. Brand, colour and size are dictionary-coded (case-insensitive,
+ * labelled with the first spelling seen), rating is kept as is and price in cents.
+ * <p>
+ * Counts are disjunctive: the count shown for a value of one dimension applies every
+ * filter except that dimension's own, so selecting brand "acme" still lists the other
+ * brands with the number of products each would add. A product failing no filter counts
+ * in every dimension, one failing exactly one filter counts only in that dimension.
+ * <p>
+ * Writes go to an overlay replayed across rebuilds, as in {@link ProductNameIndex}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductFacetIndex {
+
+    public static final String BRAND = "brand", COLOUR = "colour", SIZE = "size", RATING = "rating", PRICE = "price";
+    private static final String[] DIMENSIONS = {BRAND, COLOUR, SIZE, RATING, PRICE};
+    private static final int D_BRAND = 0, D_COLOUR = 1, D_SIZE = 2, D_RATING = 3, D_PRICE = 4;
+
+    static final long[] PRICE_BOUNDS_CENTS = {2_500, 5_000, 10_000, 25_000, 50_000};
+    static final String[] PRICE_LABELS = {"0-25", "25-50", "50-100", "100-250", "250-500", "500+"};
+    private static final int MAX_RATING_SLOTS = 101;
+
+    private static final Row DELETED = new Row(null, null, null, null, -1);
+
+    /** Normalized filters; null or empty means the dimension is not filtered. */
+    public record Filter(Set<String> brands, Set<String> colours, Set<String> sizes,
+                         Integer minRating, BigDecimal minPrice, BigDecimal maxPrice) {
+
+        public static Filter of(Collection<String> brands, Collection<String> colours, Collection<String> sizes,
+                                Integer minRating, BigDecimal minPrice, BigDecimal maxPrice) {
+            return new Filter(keys(brands), keys(colours), keys(sizes), minRating, minPrice, maxPrice);
+        }
+
+        private static Set<String> keys(Collection<String> values) {
+            if (values == null || values.isEmpty()) return null;
+            Set<String> out = new HashSet<>();
+            for (String v : values) out.add(ProductNameIndex.normalize(v));
+            return out;
+        }
+    }
+
+    public record Counts(long total, Map<String, Map<String, Long>> facets) { }
+
+    private record Row(String brand, String colour, String size, Integer rating, long cents) { }
+
+    /** Dictionary-coded string column; code -1 is null. */
+    private record Column(int[] codes, String[] labels, Map<String, Integer> byKey) { }
+
+    private record Base(int[] ids, Column brand, Column colour, Column size, int[] rating, long[] cents) { }
+
+    private final ProductRepository productRepo;
+
+    private volatile Base base;
+    private final Map<Integer, Row> overlay = new ConcurrentHashMap<>();
+    private List<ProductChangedEvent> replay;   // guarded by this
+    private final Object rebuilding = new Object();   // one rebuild at a time; writers only wait on this
+
+    public Counts counts(Filter f) {
+        Base b = base;
+        if (b == null) {
+            // first use: concurrent callers and the scheduled run share one load
+            synchronized (rebuilding) {
+                if (base == null) rebuild();
+            }
+            b = base;
+        }
+        long minCents = f.minPrice() == null ? Long.MIN_VALUE : cents(f.minPrice());
+        long maxCents = f.maxPrice() == null ? Long.MAX_VALUE : cents(f.maxPrice());
+        boolean priceFiltered = f.minPrice() != null || f.maxPrice() != null;
+        BitSet brands = allowed(b.brand, f.brands()), colours = allowed(b.colour, f.colours()), sizes = allowed(b.size, f.sizes());
+
+        Tally t = new Tally(b);
+        for (int pos = 0; pos < b.ids.length; pos++) {
+            if (overlay.containsKey(b.ids[pos])) continue;
+            int brand = b.brand.codes[pos], colour = b.colour.codes[pos], size = b.size.codes[pos];
+            int rating = b.rating[pos];
+            long cents = b.cents[pos];
+            int fails = 0;
+            if (brands != null && (brand < 0 || !brands.get(brand))) fails |= 1 << D_BRAND;
+            if (colours != null && (colour < 0 || !colours.get(colour))) fails |= 1 << D_COLOUR;
+            if (sizes != null && (size < 0 || !sizes.get(size))) fails |= 1 << D_SIZE;
+            if (f.minRating() != null && (rating == Integer.MIN_VALUE || rating < f.minRating())) fails |= 1 << D_RATING;
+            if (priceFiltered && (cents < 0 || cents < minCents || cents > maxCents)) fails |= 1 << D_PRICE;
+            if (fails == 0) t.total++;
+            else if ((fails & (fails - 1)) != 0) continue;
+            if ((fails & ~(1 << D_BRAND)) == 0) t.add(D_BRAND, brand, null);
+            if ((fails & ~(1 << D_COLOUR)) == 0) t.add(D_COLOUR, colour, null);
+            if ((fails & ~(1 << D_SIZE)) == 0) t.add(D_SIZE, size, null);
+            if ((fails & ~(1 << D_RATING)) == 0) t.addRating(rating);
+            if ((fails & ~(1 << D_PRICE)) == 0) t.add(D_PRICE, bucket(cents), null);
+        }
+        for (Row r : overlay.values()) {
+            if (r == DELETED) continue;
+            int fails = 0;
+            if (f.brands() != null && (r.brand == null || !f.brands().contains(r.brand))) fails |= 1 << D_BRAND;
+            if (f.colours() != null && (r.colour == null || !f.colours().contains(r.colour))) fails |= 1 << D_COLOUR;
+            if (f.sizes() != null && (r.size == null || !f.sizes().contains(r.size))) fails |= 1 << D_SIZE;
+            if (f.minRating() != null && (r.rating == null || r.rating < f.minRating())) fails |= 1 << D_RATING;
+            if (priceFiltered && (r.cents < 0 || r.cents < minCents || r.cents > maxCents)) fails |= 1 << D_PRICE;
+            if (fails == 0) t.total++;
+            else if ((fails & (fails - 1)) != 0) continue;
+            if ((fails & ~(1 << D_BRAND)) == 0) t.addKey(D_BRAND, b.brand, r.brand);
+            if ((fails & ~(1 << D_COLOUR)) == 0) t.addKey(D_COLOUR, b.colour, r.colour);
+            if ((fails & ~(1 << D_SIZE)) == 0) t.addKey(D_SIZE, b.size, r.size);
+            if ((fails & ~(1 << D_RATING)) == 0) t.addRating(r.rating == null ? Integer.MIN_VALUE : r.rating);
+            if ((fails & ~(1 << D_PRICE)) == 0) t.add(D_PRICE, bucket(r.cents), null);
+        }
+        return new Counts(t.total, t.facets());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent e) {
+        apply(e);
+        if (replay != null) replay.add(e);
+    }
+
+    @Scheduled(fixedDelayString = "${products.facet-index.rebuild-ms:600000}")
+    public void rebuild() {
+        synchronized (rebuilding) {
+            synchronized (this) {
+                replay = new ArrayList<>();
+            }
+            Base fresh = load();
+            synchronized (this) {
+                overlay.clear();
+                base = fresh;
+                replay.forEach(this::apply);
+                replay = null;
+            }
+        }
+    }
+
+    private void apply(ProductChangedEvent e) {
+        if (e.deleted()) {
+            overlay.put(e.productId(), DELETED);
+            return;
+        }
+        ProductDTO p = e.product();
+        overlay.put(e.productId(), new Row(key(p.getBrand()), key(p.getColour()), key(p.getSize()),
+                p.getRating(), p.getUnitPrice() == null ? -1 : cents(p.getUnitPrice())));
+    }
+
+    private Base load() {
+        List<Object[]> rows = productRepo.findAllFacetRows();
+        int n = rows.size();
+        int[] ids = new int[n], rating = new int[n];
+        long[] cents = new long[n];
+        ColumnBuilder brand = new ColumnBuilder(n), colour = new ColumnBuilder(n), size = new ColumnBuilder(n);
+        for (int pos = 0; pos < n; pos++) {
+            Object[] r = rows.get(pos);
+            ids[pos] = (Integer) r[0];
+            brand.add(pos, (String) r[1]);
+            colour.add(pos, (String) r[2]);
+            size.add(pos, (String) r[3]);
+            rating[pos] = r[4] == null ? Integer.MIN_VALUE : (Integer) r[4];
+            cents[pos] = r[5] == null ? -1 : cents((BigDecimal) r[5]);
+        }
+        return new Base(ids, brand.build(), colour.build(), size.build(), rating, cents);
+    }
+
+    private static BitSet allowed(Column c, Set<String> keys) {
+        if (keys == null) return null;
+        BitSet set = new BitSet(c.labels.length);
+        for (String k : keys) {
+            Integer code = c.byKey.get(k);
+            if (code != null) set.set(code);
+        }
+        return set;
+    }
+
+    static int bucket(long cents) {
+        if (cents < 0) return -1;
+        int i = 0;
+        while (i < PRICE_BOUNDS_CENTS.length && cents >= PRICE_BOUNDS_CENTS[i]) i++;
+        return i;
+    }
+
+    private static long cents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static String key(String value) {
+        return value == null || value.isBlank() ? null : ProductNameIndex.normalize(value);
+    }
+
+    /** Per-request counters: an array per dimension indexed by code, plus labels not in the base. */
+    private static final class Tally {
+        final long[][] counts = new long[DIMENSIONS.length][];
+        final List<Map<String, Long>> extra = new ArrayList<>();
+        final Base base;
+        long total;
+
+        Tally(Base b) {
+            base = b;
+            counts[D_BRAND] = new long[b.brand.labels.length];
+            counts[D_COLOUR] = new long[b.colour.labels.length];
+            counts[D_SIZE] = new long[b.size.labels.length];
+            counts[D_RATING] = new long[MAX_RATING_SLOTS];
+            counts[D_PRICE] = new long[PRICE_LABELS.length];
+            for (int d = 0; d < DIMENSIONS.length; d++) extra.add(new HashMap<>());
+        }
+
+        void add(int dim, int code, String label) {
+            if (code >= 0) counts[dim][code]++;
+            else if (label != null) extra.get(dim).merge(label, 1L, Long::sum);
+        }
+
+        void addKey(int dim, Column c, String key) {
+            if (key == null) return;
+            Integer code = c.byKey.get(key);
+            add(dim, code == null ? -1 : code, key);
+        }
+
+        void addRating(int rating) {
+            if (rating == Integer.MIN_VALUE) return;
+            if (rating >= 0 && rating < MAX_RATING_SLOTS) counts[D_RATING][rating]++;
+            else add(D_RATING, -1, String.valueOf(rating));
+        }
+
+        /** Non-zero counts; string dimensions by count descending, rating and price in value order. */
+        Map<String, Map<String, Long>> facets() {
+            Map<String, Map<String, Long>> out = new LinkedHashMap<>();
+            out.put(BRAND, byCount(counts[D_BRAND], base.brand.labels, extra.get(D_BRAND)));
+            out.put(COLOUR, byCount(counts[D_COLOUR], base.colour.labels, extra.get(D_COLOUR)));
+            out.put(SIZE, byCount(counts[D_SIZE], base.size.labels, extra.get(D_SIZE)));
+            Map<Integer, Long> ratings = new TreeMap<>();
+            for (int r = 0; r < MAX_RATING_SLOTS; r++) if (counts[D_RATING][r] > 0) ratings.put(r, counts[D_RATING][r]);
+            extra.get(D_RATING).forEach((label, n) -> ratings.merge(Integer.valueOf(label), n, Long::sum));
+            Map<String, Long> rating = new LinkedHashMap<>();
+            ratings.forEach((r, n) -> rating.put(String.valueOf(r), n));
+            out.put(RATING, rating);
+            Map<String, Long> price = new LinkedHashMap<>();
+            for (int i = 0; i < PRICE_LABELS.length; i++) if (counts[D_PRICE][i] > 0) price.put(PRICE_LABELS[i], counts[D_PRICE][i]);
+            out.put(PRICE, price);
+            return out;
+        }
+
+        private static Map<String, Long> byCount(long[] counts, String[] labels, Map<String, Long> extra) {
+            Map<String, Long> merged = new HashMap<>(extra);
+            for (int code = 0; code < counts.length; code++) {
+                if (counts[code] > 0) merged.merge(labels[code], counts[code], Long::sum);
+            }
+            List<Map.Entry<String, Long>> entries = new ArrayList<>(merged.entrySet());
+            entries.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+            Map<String, Long> out = new LinkedHashMap<>();
+            for (Map.Entry<String, Long> e : entries) out.put(e.getKey(), e.getValue());
+            return out;
+        }
+    }
+
+    private static final class ColumnBuilder {
+        final int[] codes;
+        final List<String> labels = new ArrayList<>();
+        final Map<String, Integer> byKey = new HashMap<>();
+
+        ColumnBuilder(int n) {
+            codes = new int[n];
+        }
+
+        void add(int pos, String value) {
+            String k = key(value);
+            codes[pos] = k == null ? -1 : byKey.computeIfAbsent(k, x -> {
+                labels.add(value.strip());
+                return labels.size() - 1;
+            });
+        }
+
+        Column build() {
+            return new Column(codes, labels.toArray(new String[0]), byKey);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.order.inventory.cache;
+
+import com.order.inventory.event.ProductChangedEvent;
+import com.order.inventory.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Case-insensitive substring search over product names. The base is an immutable trigram
+ * index (trigram -> sorted positions into parallel id/name arrays): a query intersects
+ * the posting lists of its trigrams, smallest first, and checks the surviving names with
+ * {@code contains}. Queries shorter than three characters scan the name array.
+ * <p>
+ * Product writes go to a small overlay (id -> new name, or deleted) that every query
+ * consults, so the base is only rebuilt on the scheduled pass; changes that arrive while
+ * a rebuild is loading are replayed into the new overlay. Until the first build finishes
+ * {@link #isReady()} is false and callers fall back to SQL.
+ * <p>
+ * Results are ranked: exact match, then prefix, then match at a word start, then anywhere;
+ * within a rank shorter names first, then by id.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductNameIndex {
+
+    private static final String DELETED = new String("<deleted>");   // identity sentinel
+
+    private record Base(int[] ids, String[] names, Map<Long, int[]> postings) { }
+
+    private final ProductRepository productRepo;
+
+    private volatile Base base;
+    private final Map<Integer, String> overlay = new ConcurrentHashMap<>();
+    private List<ProductChangedEvent> replay;   // events seen while a rebuild is loading, guarded by this
+
+    public boolean isReady() {
+        return base != null;
+    }
+
+    public static String normalize(String s) {
+        return s == null ? "" : s.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /** Ids of products whose name contains {@code query} (case-insensitive), ranked. */
+    public List<Integer> search(String query) {
+        Base b = base;
+        if (b == null) throw new IllegalStateException("Product name index is not built yet");
+        String q = normalize(query);
+        List<Match> matches = new ArrayList<>();
+        if (!q.isEmpty()) {
+            for (int pos : candidates(b, q)) {
+                int id = b.ids[pos];
+                if (overlay.containsKey(id)) continue;   // superseded by a later write
+                String name = b.names[pos];
+                if (name.contains(q)) matches.add(new Match(id, name, rank(name, q)));
+            }
+            overlay.forEach((id, name) -> {
+                if (name != DELETED && name.contains(q)) matches.add(new Match(id, name, rank(name, q)));
+            });
+        }
+        matches.sort(Comparator.comparingInt(Match::rank)
+                .thenComparingInt(m -> m.name().length())
+                .thenComparingInt(Match::id));
+        List<Integer> ids = new ArrayList<>(matches.size());
+        for (Match m : matches) ids.add(m.id());
+        return ids;
+    }
+
+    private record Match(int id, String name, int rank) { }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent e) {
+        apply(e);
+        if (replay != null) replay.add(e);
+    }
+
+    @Scheduled(fixedDelayString = "${products.name-index.rebuild-ms:600000}")
+    public void rebuild() {
+        synchronized (this) {
+            replay = new ArrayList<>();
+        }
+        Base fresh = load();
+        synchronized (this) {
+            overlay.clear();
+            base = fresh;
+            replay.forEach(this::apply);
+            replay = null;
+        }
+    }
+
+    private void apply(ProductChangedEvent e) {
+        overlay.put(e.productId(), e.deleted() ? DELETED : normalize(e.product().getName()));
+    }
+
+    private Base load() {
+        List<Object[]> rows = productRepo.findAllIdsAndNames();
+        rows.sort(Comparator.comparingInt(r -> (Integer) r[0]));
+        int n = rows.size();
+        int[] ids = new int[n];
+        String[] names = new String[n];
+        Map<Long, IntBuffer> building = new HashMap<>();
+        for (int pos = 0; pos < n; pos++) {
+            ids[pos] = (Integer) rows.get(pos)[0];
+            names[pos] = normalize((String) rows.get(pos)[1]);
+            for (long t : trigrams(names[pos])) building.computeIfAbsent(t, k -> new IntBuffer()).add(pos);
+        }
+        Map<Long, int[]> postings = new HashMap<>(building.size() * 2);
+        building.forEach((t, buf) -> postings.put(t, buf.toArray()));
+        return new Base(ids, names, postings);
+    }
+
+    /** Positions that may match: all of them for short queries, else the trigram intersection. */
+    private static int[] candidates(Base b, String q) {
+        if (q.length() < 3) {
+            int[] all = new int[b.ids.length];
+            for (int i = 0; i < all.length; i++) all[i] = i;
+            return all;
+        }
+        List<int[]> lists = new ArrayList<>();
+        for (long t : trigrams(q)) {
+            int[] p = b.postings.get(t);
+            if (p == null) return new int[0];
+            lists.add(p);
+        }
+        lists.sort(Comparator.comparingInt(a -> a.length));
+        int[] acc = lists.get(0);
+        for (int i = 1; i < lists.size() && acc.length > 0; i++) acc = intersect(acc, lists.get(i));
+        return acc;
+    }
+
+    /** Sorted intersection; gallops through {@code large} since {@code small} is usually much shorter. */
+    static int[] intersect(int[] small, int[] large) {
+        int[] out = new int[small.length];
+        int n = 0, lo = 0;
+        for (int v : small) {
+            int step = 1, hi = lo;
+            while (hi < large.length && large[hi] < v) {
+                lo = hi;
+                hi += step;
+                step <<= 1;
+            }
+            int at = Arrays.binarySearch(large, lo, Math.min(hi + 1, large.length), v);
+            if (at >= 0) {
+                out[n++] = v;
+                lo = at + 1;
+            } else {
+                lo = -at - 1;
+            }
+            if (lo >= large.length) break;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** Distinct trigrams of an already normalized string, each packed into a long. */
+    static Set<Long> trigrams(String s) {
+        Set<Long> out = new HashSet<>();
+        for (int i = 0; i + 3 <= s.length(); i++)
+            out.add(((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2));
+        return out;
+    }
+
+    private static int rank(String name, String q) {
+        if (name.equals(q)) return 0;
+        if (name.startsWith(q)) return 1;
+        for (int i = name.indexOf(q); i > 0; i = name.indexOf(q, i + 1)) {
+            if (!Character.isLetterOrDigit(name.charAt(i - 1))) return 2;
+        }
+        return 3;
+    }
+
+    /** Growable int array for posting lists while loading. */
+    private static final class IntBuffer {
+        int[] data = new int[4];
+        int size;
+
+        void add(int v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.order.inventory.cache;
+
+import com.order.inventory.event.ProductChangedEvent;
+import com.order.inventory.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit prices in cents as a sorted {@code long[]} with the product ids alongside (ordered
+ * by price, then id), so a price range is two binary searches: counting allocates nothing
+ * and a page copies only its ids. A second pair of arrays sorted by id finds a product's
+ * current price when it changes.
+ * <p>
+ * Product writes are applied straight away by copy-on-write of the arrays: an O(n) copy
+ * per write, which a rarely changing catalog affords, and reads never lock. A scheduled full rebuild
+ * resynchronizes with the table; writes seen during it are replayed onto the result.
+ * Products without a price are not indexed.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductPriceIndex {
+
+    private record Index(long[] cents, int[] ids, int[] byId, long[] centsById) { }
+
+    private static final BigDecimal MAX_CENTS = BigDecimal.valueOf(Long.MAX_VALUE);
+    private static final BigDecimal MIN_CENTS = BigDecimal.valueOf(Long.MIN_VALUE);
+
+    private final ProductRepository productRepo;
+
+    private volatile Index index;
+    private List<ProductChangedEvent> replay;   // guarded by this
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /** Products priced within [min, max]. */
+    public int count(BigDecimal min, BigDecimal max) {
+        Index a = ready();
+        return Math.max(0, upper(a, max) - lower(a, min));
+    }
+
+    /** Up to {@code limit} ids after skipping {@code offset}, cheapest first, ties by id. */
+    public int[] ids(BigDecimal min, BigDecimal max, int offset, int limit) {
+        Index a = ready();
+        int lo = lower(a, min), hi = upper(a, max);
+        long from = (long) lo + offset;
+        if (from >= hi) return new int[0];
+        return Arrays.copyOfRange(a.ids, (int) from, (int) Math.min(hi, from + limit));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent e) {
+        if (index != null) apply(e);
+        if (replay != null) replay.add(e);
+    }
+
+    @Scheduled(fixedDelayString = "${products.price-index.rebuild-ms:600000}")
+    public void rebuild() {
+        synchronized (this) {
+            replay = new ArrayList<>();
+        }
+        Index fresh = load();
+        synchronized (this) {
+            index = fresh;
+            replay.forEach(this::apply);
+            replay = null;
+        }
+    }
+
+    static long cents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private Index ready() {
+        Index a = index;
+        if (a == null) throw new IllegalStateException("Product price index is not built yet");
+        return a;
+    }
+
+    /** First position priced at or above {@code min} (a fraction of a cent rounds up). */
+    private static int lower(Index a, BigDecimal min) {
+        return firstAtLeast(a.cents, bound(min, RoundingMode.CEILING));
+    }
+
+    /** First position priced above {@code max}. */
+    private static int upper(Index a, BigDecimal max) {
+        long bound = bound(max, RoundingMode.FLOOR);
+        return bound == Long.MAX_VALUE ? a.cents.length : firstAtLeast(a.cents, bound + 1);
+    }
+
+    private static long bound(BigDecimal price, RoundingMode mode) {
+        BigDecimal c = price.movePointRight(2).setScale(0, mode);
+        if (c.compareTo(MAX_CENTS) >= 0) return Long.MAX_VALUE;
+        if (c.compareTo(MIN_CENTS) <= 0) return Long.MIN_VALUE;
+        return c.longValue();
+    }
+
+    private static int firstAtLeast(long[] cents, long c) {
+        int lo = 0, hi = cents.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cents[mid] < c) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Where (c, id) is or would be in the price-ordered arrays. */
+    private static int position(long[] cents, int[] ids, long c, int id) {
+        int lo = 0, hi = cents.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cents[mid] < c || (cents[mid] == c && ids[mid] < id)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private void apply(ProductChangedEvent e) {
+        Index a = index;
+        int id = e.productId();
+        Long price = e.deleted() || e.product().getUnitPrice() == null ? null : cents(e.product().getUnitPrice());
+        int at = Arrays.binarySearch(a.byId, id);
+        if (at >= 0 && price != null && a.centsById[at] == price) return;
+
+        long[] cents = a.cents;
+        int[] ids = a.ids;
+        if (at >= 0) {   // drop the old price
+            int pos = position(cents, ids, a.centsById[at], id);
+            cents = remove(cents, pos);
+            ids = remove(ids, pos);
+        }
+        int[] byId = a.byId;
+        long[] centsById = a.centsById;
+        if (price == null) {
+            if (at >= 0) {
+                byId = remove(byId, at);
+                centsById = remove(centsById, at);
+            }
+        } else {
+            int pos = position(cents, ids, price, id);
+            cents = insert(cents, pos, price);
+            ids = insert(ids, pos, id);
+            if (at >= 0) {
+                centsById = centsById.clone();
+                centsById[at] = price;
+            } else {
+                int ins = -at - 1;
+                byId = insert(byId, ins, id);
+                centsById = insert(centsById, ins, price);
+            }
+        }
+        index = new Index(cents, ids, byId, centsById);
+    }
+
+    private Index load() {
+        List<Object[]> rows = productRepo.findAllIdsAndPrices();
+        rows.removeIf(r -> r[1] == null);
+        int n = rows.size();
+        long[] cents = new long[n];
+        int[] ids = new int[n];
+        rows.sort((x, y) -> Integer.compare((Integer) x[0], (Integer) y[0]));
+        int[] byId = new int[n];
+        long[] centsById = new long[n];
+        for (int i = 0; i < n; i++) {
+            byId[i] = (Integer) rows.get(i)[0];
+            centsById[i] = cents((BigDecimal) rows.get(i)[1]);
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (x, y) -> Long.compare(centsById[x], centsById[y]));   // stable: ties stay in id order
+        for (int i = 0; i < n; i++) {
+            cents[i] = centsById[order[i]];
+            ids[i] = byId[order[i]];
+        }
+        return new Index(cents, ids, byId, centsById);
+    }
+
+    private static long[] insert(long[] a, int pos, long v) {
+        long[] out = new long[a.length + 1];
+        System.arraycopy(a, 0, out, 0, pos);
+        out[pos] = v;
+        System.arraycopy(a, pos, out, pos + 1, a.length - pos);
+        return out;
+    }
+
+    private static int[] insert(int[] a, int pos, int v) {
+        int[] out = new int[a.length + 1];
+        System.arraycopy(a, 0, out, 0, pos);
+        out[pos] = v;
+        System.arraycopy(a, pos, out, pos + 1, a.length - pos);
+        return out;
+    }
+
+    private static long[] remove(long[] a, int pos) {
+        long[] out = new long[a.length - 1];
+        System.arraycopy(a, 0, out, 0, pos);
+        System.arraycopy(a, pos + 1, out, pos, a.length - pos - 1);
+        return out;
+    }
+
+    private static int[] remove(int[] a, int pos) {
+        int[] out = new int[a.length - 1];
+        System.arraycopy(a, 0, out, 0, pos);
+        System.arraycopy(a, pos + 1, out, pos, a.length - pos - 1);
+        return out;
+    }
+}
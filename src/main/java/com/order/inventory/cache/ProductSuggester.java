@@ -0,0 +1,137 @@
+package com.order.inventory.cache;
+
+import com.order.inventory.dto.ProductDTO;
+import com.order.inventory.event.ProductChangedEvent;
+import com.order.inventory.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Autocomplete over product names. Every word start of every normalized name is a key;
+ * keys are grouped by the product's rating, and each group is a sorted array, so the
+ * keys beginning with a prefix are one contiguous range found by binary search. A query
+ * walks the groups from the best rating down and stops after {@code limit} distinct
+ * products, which costs a binary search per rating plus the results, whatever the
+ * catalog size. Within a rating, suggestions are ordered by the matching text.
+ * <p>
+ * A key is not a copied string but a (product, offset) pair into the shared array of
+ * normalized names, compared in place, so each word start costs two ints.
+ * <p>
+ * The structure is immutable. Product writes only mark it dirty and the scheduled
+ * refresh rebuilds it off the request path and swaps it in, so suggestions may lag
+ * writes by up to {@code products.suggest.refresh-ms}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductSuggester {
+
+    // Key i is keys[products[i]] from offsets[i] on; sorted by that text, then product
+    private record Group(int[] products, int[] offsets) { }
+
+    private record Snapshot(int[] ids, String[] names, String[] keys, Integer[] ratings, Group[] groups) { }   // groups best rating first
+
+    private final ProductRepository productRepo;
+
+    private volatile Snapshot snapshot;
+    private volatile boolean dirty = true;
+
+    /** Up to {@code limit} products with a word starting with {@code prefix}, best rated first. */
+    public List<ProductDTO.Suggestion> suggest(String prefix, int limit) {
+        String p = ProductNameIndex.normalize(prefix);
+        Snapshot s = snapshot;
+        if (s == null) {
+            refresh();
+            s = snapshot;
+        }
+        List<ProductDTO.Suggestion> out = new ArrayList<>(Math.min(limit, 16));
+        if (p.isEmpty() || limit <= 0) return out;
+        Set<Integer> taken = new HashSet<>();
+        for (Group g : s.groups) {
+            int n = g.products.length;
+            for (int i = firstAtLeast(s.keys, g, p); i < n && s.keys[g.products[i]].startsWith(p, g.offsets[i]); i++) {
+                int k = g.products[i];
+                if (!taken.add(k)) continue;   // another word of the same name
+                out.add(new ProductDTO.Suggestion(s.ids[k], s.names[k], s.ratings[k]));
+                if (out.size() == limit) return out;
+            }
+        }
+        return out;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent e) {
+        dirty = true;
+    }
+
+    @Scheduled(fixedDelayString = "${products.suggest.refresh-ms:1000}")
+    public synchronized void refresh() {
+        if (!dirty && snapshot != null) return;
+        dirty = false;   // before loading, so a write during the load triggers another pass
+        snapshot = load();
+    }
+
+    private Snapshot load() {
+        List<Object[]> rows = productRepo.findAllIdsNamesAndRatings();
+        int n = rows.size();
+        int[] ids = new int[n];
+        String[] names = new String[n], keys = new String[n];
+        Integer[] ratings = new Integer[n];
+        // (product << 32 | offset) of every word start, per rating
+        Map<Integer, List<Long>> byRating = new TreeMap<>(Comparator.nullsLast(Comparator.reverseOrder()));
+        for (int k = 0; k < n; k++) {
+            Object[] r = rows.get(k);
+            ids[k] = (Integer) r[0];
+            names[k] = (String) r[1];
+            ratings[k] = (Integer) r[2];
+            if (names[k] == null) continue;
+            String name = ProductNameIndex.normalize(names[k]);
+            keys[k] = name;
+            for (int at = 0; at < name.length(); at++) {
+                boolean wordStart = Character.isLetterOrDigit(name.charAt(at))
+                        && (at == 0 || !Character.isLetterOrDigit(name.charAt(at - 1)));
+                if (!wordStart) continue;
+                byRating.computeIfAbsent(ratings[k], x -> new ArrayList<>()).add((long) k << 32 | at);
+            }
+        }
+        List<Group> groups = new ArrayList<>(byRating.size());
+        for (List<Long> entries : byRating.values()) {
+            entries.sort((a, b) -> {
+                int c = compare(keys[(int) (a >>> 32)], (int) (long) a, keys[(int) (b >>> 32)], (int) (long) b);
+                return c != 0 ? c : Long.compare(a, b);
+            });
+            int[] products = new int[entries.size()], offsets = new int[entries.size()];
+            for (int i = 0; i < products.length; i++) {
+                long e = entries.get(i);
+                products[i] = (int) (e >>> 32);
+                offsets[i] = (int) e;
+            }
+            groups.add(new Group(products, offsets));
+        }
+        return new Snapshot(ids, names, keys, ratings, groups.toArray(new Group[0]));
+    }
+
+    /** First key of the group whose text is not below {@code p}. */
+    private static int firstAtLeast(String[] keys, Group g, String p) {
+        int lo = 0, hi = g.products.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(keys[g.products[mid]], g.offsets[mid], p, 0) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** {@code a.substring(ai).compareTo(b.substring(bi))} without the copies. */
+    private static int compare(String a, int ai, String b, int bi) {
+        int len = Math.min(a.length() - ai, b.length() - bi);
+        for (int i = 0; i < len; i++) {
+            char x = a.charAt(ai + i), y = b.charAt(bi + i);
+            if (x != y) return x - y;
+        }
+        return (a.length() - ai) - (b.length() - bi);
+    }
+}
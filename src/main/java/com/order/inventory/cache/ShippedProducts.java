@@ -0,0 +1,42 @@
+package com.order.inventory.cache;
+
+import com.order.inventory.repository.OrderItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+
+/**
+ * Bitset of product ids that have at least one shipped order item, so "inventories with
+ * shipments" becomes a product id IN-list instead of a DISTINCT join against order_items.
+ * Built on the first scheduled run (i.e. at startup) and replaced on each refresh; the
+ * published set is never mutated. The API has no path that attaches a shipment to an
+ * order item, so shipments recorded directly in the DB show up after at most one
+ * refresh interval ({@code inventory.shipped-products.refresh-ms}).
+ */
+@Component
+@RequiredArgsConstructor
+public class ShippedProducts {
+
+    private final OrderItemRepository itemRepo;
+
+    private volatile BitSet shipped;
+
+    /** Read-only view; do not modify. */
+    public BitSet snapshot() {
+        BitSet current = shipped;
+        if (current == null) {
+            refresh();
+            current = shipped;
+        }
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.shipped-products.refresh-ms:300000}")
+    public void refresh() {
+        BitSet fresh = new BitSet();
+        for (Integer productId : itemRepo.findShippedProductIds()) fresh.set(productId);
+        shipped = fresh;
+    }
+}
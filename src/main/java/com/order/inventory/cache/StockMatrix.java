@@ -0,0 +1,183 @@
+package com.order.inventory.cache;
+
+import com.order.inventory.event.InventoryChangedEvent;
+import com.order.inventory.repository.InventoryRepository;
+import com.order.inventory.repository.ProductRepository;
+import com.order.inventory.repository.StoreRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Stream;
+
+/**
+ * Inventory quantities as a product × store int matrix. Store and product ids are remapped
+ * to dense indexes (sorted id arrays, binary search); each product row is an
+ * AtomicIntegerArray over all stores, allocated the first time the product has stock
+ * anywhere. "Product X in every store" is one row scan.
+ * <p>
+ * Footprint: 4 bytes per (store, product) cell of an allocated row plus 4 bytes per id.
+ * With 5,000 stores a row is 20 KB, so 200,000 stocked products come to
+ * 5,000 × 200,000 × 4 B ≈ 4.0 GB (3.7 GiB); products never stocked cost only their
+ * 8-byte slot. The boxed (store, product) → Integer map this replaces needed about
+ * 70 bytes per inventory row, so the matrix is smaller once a product is carried by
+ * more than ~6% of stores.
+ * <p>
+ * Changes with a known quantity are applied from {@link InventoryChangedEvent} directly,
+ * relative ones are re-read per store on the next scheduled pass. A store or product
+ * created after the load is not in the id maps; it reads as 0 until the next reload.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockMatrix {
+
+    private static final int QUERY_CHUNK = 1_000;
+
+    private record Layout(int[] storeIds, int[] productIds, AtomicIntegerArray[] rows) {
+
+        int storeIndex(int storeId) {
+            return Arrays.binarySearch(storeIds, storeId);
+        }
+
+        int productIndex(int productId) {
+            return Arrays.binarySearch(productIds, productId);
+        }
+
+        /** False when the store or product is not mapped (created after the load). */
+        boolean set(int storeId, int productId, int quantity) {
+            int s = storeIndex(storeId), p = productIndex(productId);
+            if (s < 0 || p < 0) return false;
+            AtomicIntegerArray row = rows[p];
+            if (row == null) {
+                if (quantity == 0) return true;
+                synchronized (rows) {
+                    row = rows[p];
+                    if (row == null) rows[p] = row = new AtomicIntegerArray(storeIds.length);
+                }
+            }
+            row.set(s, quantity);
+            return true;
+        }
+    }
+
+    private final InventoryRepository repo;
+    private final StoreRepository storeRepo;
+    private final ProductRepository productRepo;
+    private final TransactionTemplate txTemplate;
+
+    private final Set<Long> stale = ConcurrentHashMap.newKeySet();
+    private volatile Layout layout;
+    private volatile boolean unmapped;   // a change referenced an id the layout does not know
+    private volatile boolean reloading;
+
+    private static long key(int storeId, int productId) {
+        return ((long) storeId << 32) | (productId & 0xFFFFFFFFL);
+    }
+
+    /** Stock of the product at the store; 0 when there is no inventory row. */
+    public int quantity(int storeId, int productId) {
+        Layout l = layout();
+        int s = l.storeIndex(storeId), p = l.productIndex(productId);
+        if (s < 0 || p < 0 || l.rows[p] == null) return 0;
+        return l.rows[p].get(s);
+    }
+
+    /**
+     * Calls {@code consumer} with (storeId, quantity) for every store holding the product,
+     * in store id order; returns the total.
+     */
+    public long forEachStore(int productId, StoreQuantityConsumer consumer) {
+        Layout l = layout();
+        int p = l.productIndex(productId);
+        if (p < 0 || l.rows[p] == null) return 0;
+        AtomicIntegerArray row = l.rows[p];
+        long total = 0;
+        for (int s = 0; s < l.storeIds.length; s++) {
+            int q = row.get(s);
+            if (q == 0) continue;
+            total += q;
+            consumer.accept(l.storeIds[s], q);
+        }
+        return total;
+    }
+
+    @FunctionalInterface
+    public interface StoreQuantityConsumer {
+        void accept(int storeId, int quantity);
+    }
+
+    /** Builds a fresh matrix from the database and swaps it in. */
+    @Scheduled(fixedDelayString = "${inventory.stock-matrix.reload-ms:3600000}")
+    public synchronized void reload() {
+        int[] storeIds = storeRepo.findAllIds().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int[] productIds = productRepo.findAllIds().stream().mapToInt(Integer::intValue).sorted().toArray();
+        Layout fresh = new Layout(storeIds, productIds, new AtomicIntegerArray[productIds.length]);
+        unmapped = false;
+        reloading = true;
+        try {
+            txTemplate.execute(status -> {
+                try (Stream<Object[]> rows = repo.streamAllQuantities()) {
+                    rows.forEach(r -> fresh.set((Integer) r[0], (Integer) r[1], (Integer) r[2]));
+                }
+                return null;
+            });
+            layout = fresh;
+        } finally {
+            reloading = false;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent e) {
+        for (InventoryChangedEvent.StockChange c : e.changes()) {
+            // While (re)loading, re-read afterwards: the load may have streamed an older value.
+            // reload() swaps the layout before clearing the flag, so read the flag first.
+            Layout l;
+            if (c.quantity() == null || reloading || (l = layout) == null) stale.add(key(c.storeId(), c.productId()));
+            else if (!l.set(c.storeId(), c.productId(), c.quantity())) unmapped = true;
+        }
+    }
+
+    /** Re-reads stale keys; synchronized with {@link #reload()} so they land in the swapped-in layout. */
+    @Scheduled(fixedDelayString = "${inventory.stock-matrix.refresh-ms:200}")
+    public synchronized void refreshStale() {
+        Layout l = layout;
+        if (l == null) return;
+        if (unmapped) {
+            stale.clear();
+            reload();
+            return;
+        }
+        if (stale.isEmpty()) return;
+        Map<Integer, List<Integer>> productsByStore = new HashMap<>();
+        for (Iterator<Long> it = stale.iterator(); it.hasNext(); ) {
+            long key = it.next();
+            it.remove();
+            productsByStore.computeIfAbsent((int) (key >>> 32), k -> new ArrayList<>()).add((int) key);
+        }
+        productsByStore.forEach((storeId, productIds) -> {
+            for (int from = 0; from < productIds.size(); from += QUERY_CHUNK) {
+                List<Integer> chunk = productIds.subList(from, Math.min(from + QUERY_CHUNK, productIds.size()));
+                for (Object[] r : repo.findQuantities(storeId, chunk)) {
+                    if (!l.set(storeId, (Integer) r[0], (Integer) r[1])) unmapped = true;
+                }
+            }
+        });
+    }
+
+    private Layout layout() {
+        Layout l = layout;
+        if (l == null) {
+            synchronized (this) {
+                if (layout == null) reload();
+                l = layout;
+            }
+        }
+        return l;
+    }
+}
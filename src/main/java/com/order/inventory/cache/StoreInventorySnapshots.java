@@ -0,0 +1,96 @@
+package com.order.inventory.cache;
+
+import com.order.inventory.dto.InventoryDTO;
+import com.order.inventory.event.InventoryChangedEvent;
+import com.order.inventory.event.ProductChangedEvent;
+import com.order.inventory.repository.InventoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable per-store inventory snapshot for GET /api/v1/inventory?storeid, tagged with
+ * a version that every {@link InventoryChangedEvent} touching the store bumps. Rows carry
+ * the product name too, so any {@link ProductChangedEvent} bumps a generation shared by
+ * all stores. The ETag is derived from generation and version alone, so an If-None-Match
+ * check never needs the DB.
+ * <p>
+ * Only stores that have rows are cached, at most {@code inventory.store-snapshots.max-stores}
+ * of them, least recently read evicted first. Versions exist only for stores named in a
+ * change event; any other store is at version 0.
+ */
+@Component
+public class StoreInventorySnapshots {
+
+    public record Snapshot(String etag, List<InventoryDTO> items) { }
+
+    // ETags from a previous run must not match this run's versions
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private final InventoryRepository repo;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Integer, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<Integer, Snapshot> snapshots;   // access-ordered LRU, guarded by itself
+
+    public StoreInventorySnapshots(InventoryRepository repo,
+                                   @Value("${inventory.store-snapshots.max-stores:1000}") int maxStores) {
+        this.repo = repo;
+        this.snapshots = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Snapshot> eldest) {
+                return size() > maxStores;
+            }
+        };
+    }
+
+    public String etag(Integer storeId) {
+        return etag(storeId, generation.get(), version(storeId));
+    }
+
+    /** Current rows of the store; rebuilt only when the store changed since the last build. */
+    public Snapshot get(Integer storeId) {
+        String etag = etag(storeId, generation.get(), version(storeId));
+        Snapshot s;
+        synchronized (snapshots) {
+            s = snapshots.get(storeId);
+        }
+        if (s != null && s.etag().equals(etag)) return s;
+        // Built under the version read before loading: a concurrent change leaves it stale-tagged, not stale-served
+        Snapshot fresh = new Snapshot(etag, List.of(repo.findDtosByStoreId(storeId).toArray(InventoryDTO[]::new)));
+        if (fresh.items().isEmpty()) return fresh;   // unknown store ids are not cached
+        synchronized (snapshots) {
+            snapshots.put(storeId, fresh);
+        }
+        return fresh;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent e) {
+        e.changes().stream().map(InventoryChangedEvent.StockChange::storeId).distinct()
+                .forEach(storeId -> versions.computeIfAbsent(storeId, k -> new AtomicLong()).incrementAndGet());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent e) {
+        generation.incrementAndGet();
+        synchronized (snapshots) {
+            snapshots.clear();
+        }
+    }
+
+    private long version(Integer storeId) {
+        AtomicLong v = versions.get(storeId);
+        return v == null ? 0 : v.get();
+    }
+
+    private static String etag(Integer storeId, long generation, long version) {
+        return "\"" + EPOCH + "-" + generation + "-" + storeId + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,133 @@
+package com.order.inventory.cache;
+
+import com.order.inventory.repository.StoreRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores bucketed into a fixed lat/long grid so "nearest stores to a point" visits the
+ * cells in rings around the point instead of every store. Ring search stops once the
+ * k-th best distance is below the smallest distance any unvisited cell can have, so the
+ * result is the same as a full scan. Longitude wraps at ±180°, so rings continue across
+ * the antimeridian.
+ */
+@Component
+@RequiredArgsConstructor
+public class StoreLocationIndex {
+
+    static final double CELL_DEG = 0.5;
+    private static final int LAT_CELLS = (int) Math.ceil(180 / CELL_DEG);
+    private static final int LON_CELLS = (int) Math.ceil(360 / CELL_DEG);
+    private static final int HALF_LON_CELLS = LON_CELLS / 2;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    public record Nearby(int storeId, double km) { }
+
+    private record Grid(int[] ids, double[] lat, double[] lon, Map<Integer, int[]> cells) { }
+
+    private final StoreRepository storeRepo;
+
+    private volatile Grid grid;
+
+    /** Up to {@code limit} stores with coordinates, nearest first. */
+    public List<Nearby> nearest(double latitude, double longitude, int limit) {
+        Grid g = grid;
+        if (g == null) {
+            refresh();
+            g = grid;
+        }
+        List<Nearby> best = new ArrayList<>(limit + 1);
+        if (g.ids.length == 0 || limit <= 0) return best;
+
+        int ci = latCell(latitude), cj = lonCell(longitude);
+        int maxRing = Math.max(LAT_CELLS, HALF_LON_CELLS), seen = 0;
+        for (int r = 0; r <= maxRing && seen < g.ids.length; r++) {
+            for (int i = ci - r; i <= ci + r; i++) {
+                if (i < 0 || i >= LAT_CELLS) continue;
+                boolean edgeRow = i == ci - r || i == ci + r;
+                // column offsets wrap into (-HALF_LON_CELLS, HALF_LON_CELLS] so no cell is visited twice
+                for (int dj = -r; dj <= r; dj += edgeRow || r == 0 ? 1 : 2 * r) {
+                    if (dj <= -HALF_LON_CELLS || dj > HALF_LON_CELLS) continue;
+                    int j = Math.floorMod(cj + dj, LON_CELLS);
+                    seen += visit(g, g.cells.get(i * LON_CELLS + j), latitude, longitude, limit, best);
+                }
+            }
+            if (best.size() == limit && best.get(limit - 1).km() <= outsideRingKm(latitude, longitude, ci, cj, r)) break;
+        }
+        return best;
+    }
+
+    /** Reloads coordinates; call after adding or moving stores. */
+    @Scheduled(fixedDelayString = "${stores.location-index.refresh-ms:300000}")
+    public void refresh() {
+        List<Object[]> rows = storeRepo.findAllLocations();
+        int n = rows.size();
+        int[] ids = new int[n];
+        double[] lat = new double[n], lon = new double[n];
+        Map<Integer, List<Integer>> byCell = new HashMap<>();
+        for (int k = 0; k < n; k++) {
+            Object[] r = rows.get(k);
+            ids[k] = (Integer) r[0];
+            lat[k] = ((BigDecimal) r[1]).doubleValue();
+            lon[k] = ((BigDecimal) r[2]).doubleValue();
+            byCell.computeIfAbsent(latCell(lat[k]) * LON_CELLS + lonCell(lon[k]), c -> new ArrayList<>()).add(k);
+        }
+        Map<Integer, int[]> cells = new HashMap<>(byCell.size() * 2);
+        byCell.forEach((cell, members) -> cells.put(cell, members.stream().mapToInt(Integer::intValue).toArray()));
+        grid = new Grid(ids, lat, lon, cells);
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1), dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /** Inserts the cell's stores into {@code best}, kept sorted and at most {@code limit} long; returns how many it had. */
+    private static int visit(Grid g, int[] members, double latitude, double longitude, int limit, List<Nearby> best) {
+        if (members == null) return 0;
+        for (int k : members) {
+            double km = distanceKm(latitude, longitude, g.lat[k], g.lon[k]);
+            if (best.size() == limit && km >= best.get(limit - 1).km()) continue;
+            int at = best.size();
+            while (at > 0 && best.get(at - 1).km() > km) at--;
+            best.add(at, new Nearby(g.ids[k], km));
+            if (best.size() > limit) best.remove(limit);
+        }
+        return members.length;
+    }
+
+    /**
+     * Smallest distance from the point to anything outside rings 0..r, which lies beyond
+     * the visited latitude band or beyond the visited longitude band. Beyond the latitude
+     * band it is the meridian arc to the band edge. Beyond the longitude band it is the
+     * cross-track distance to the edge meridian, asin(cos lat * sin dLon); past 90° of
+     * longitude the nearest point is the pole, which that formula already gives at 90°.
+     * Once the band spans every longitude, only the latitude bound is left.
+     */
+    private static double outsideRingKm(double latitude, double longitude, int ci, int cj, int r) {
+        double dLat = Math.min(latitude - ((ci - r) * CELL_DEG - 90), (ci + r + 1) * CELL_DEG - 90 - latitude);
+        double dLon = Math.min(longitude - ((cj - r) * CELL_DEG - 180), (cj + r + 1) * CELL_DEG - 180 - longitude);
+        double acrossLat = EARTH_RADIUS_KM * Math.toRadians(Math.max(0, dLat));
+        if (r >= HALF_LON_CELLS) return acrossLat;
+        double acrossLon = EARTH_RADIUS_KM * Math.asin(Math.cos(Math.toRadians(latitude))
+                * Math.sin(Math.toRadians(Math.min(90, Math.max(0, dLon)))));
+        return Math.min(acrossLat, acrossLon);
+    }
+
+    private static int latCell(double latitude) {
+        return Math.min(LAT_CELLS - 1, Math.max(0, (int) Math.floor((latitude + 90) / CELL_DEG)));
+    }
+
+    private static int lonCell(double longitude) {
+        return Math.min(LON_CELLS - 1, Math.max(0, (int) Math.floor((longitude + 180) / CELL_DEG)));
+    }
+}
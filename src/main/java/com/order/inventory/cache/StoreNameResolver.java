@@ -0,0 +1,63 @@
+package com.order.inventory.cache;
+
+import com.order.inventory.repository.StoreRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-folded store name -> store ids (names are not unique in the schema).
+ * Lets order lookups by store name filter on orders.store_id instead of joining
+ * stores and comparing lower(store_name) on every request.
+ */
+@Component
+@RequiredArgsConstructor
+public class StoreNameResolver {
+
+    // A miss triggers a reload at most this often, so unknown names cannot hammer the DB
+    private static final long MISS_RELOAD_INTERVAL_MS = 5_000;
+
+    private final StoreRepository storeRepo;
+
+    private volatile Map<String, List<Integer>> idsByName;
+    private volatile long lastLoadMs;
+
+    public static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Store ids whose name matches case-insensitively; empty when none. */
+    public List<Integer> resolve(String storeName) {
+        String key = normalize(storeName);
+        Map<String, List<Integer>> current = idsByName;
+        if (current == null) {
+            refresh();
+            current = idsByName;
+        }
+        List<Integer> ids = current.get(key);
+        if (ids == null && System.currentTimeMillis() - lastLoadMs > MISS_RELOAD_INTERVAL_MS) {
+            refresh();
+            ids = idsByName.get(key);
+        }
+        return ids != null ? ids : List.of();
+    }
+
+    /** Reloads the map; call after creating, renaming or deleting stores. */
+    @Scheduled(fixedDelayString = "${stores.name-resolver.refresh-ms:60000}")
+    public void refresh() {
+        Map<String, List<Integer>> fresh = new HashMap<>();
+        for (Object[] r : storeRepo.findAllIdsAndNames()) {
+            if (r[1] == null) continue;
+            fresh.computeIfAbsent(normalize((String) r[1]), k -> new ArrayList<>()).add((Integer) r[0]);
+        }
+        fresh.replaceAll((k, v) -> List.copyOf(v));
+        idsByName = fresh;
+        lastLoadMs = System.currentTimeMillis();
+    }
+}
@@ -1,5 +1,7 @@
 package com.order.inventory.controller;
 
+import com.order.inventory.cache.CustomerIdCache;
+import com.order.inventory.cache.IdempotencyStore;
 import com.order.inventory.dto.CustomerDTO;
 import com.order.inventory.dto.OrderDTO;
 import com.order.inventory.dto.ShipmentDTO;
@@ -21,6 +23,8 @@ public class CustomerController {
 
     private final CustomerService service;
     private final OrderService orderService;
+    private final CustomerIdCache customerIdCache;
+    private final IdempotencyStore idempotency;
 
     // ---------------------------------------------------------
     // CRUD
@@ -32,10 +36,12 @@ public class CustomerController {
         return ResponseEntity.ok(service.all());
     }
 
-    // POST /api/v1/customers – Add new customer
+    // POST /api/v1/customers – Add new customer (retries with the same Idempotency-Key replay the first response)
     @PostMapping
-    public ResponseEntity<CustomerDTO> create(@RequestBody CustomerDTO dto) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(service.create(dto));
+    public ResponseEntity<CustomerDTO> create(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                              @RequestBody CustomerDTO dto) {
+        CustomerDTO created = idempotency.execute("customers", idempotencyKey, dto, CustomerDTO.class, () -> service.create(dto));
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
     // PUT /api/v1/customers – Update by object (CSV requires this form)
@@ -99,6 +105,12 @@ public class CustomerController {
         return ResponseEntity.ok(service.shipmentStatusWiseCustomerCount());
     }
 
+    // GET /api/v1/customers/email-cache/stats – hit rate of the email -> id cache behind /orders/customer/{email}
+    @GetMapping("/email-cache/stats")
+    public ResponseEntity<Map<String, Number>> emailCacheStats() {
+        return ResponseEntity.ok(customerIdCache.stats());
+    }
+
     // ---------------------------------------------------------
     // Customer's orders & shipments
     // ---------------------------------------------------------
@@ -1,5 +1,6 @@
 package com.order.inventory.controller;
 
+import com.order.inventory.cache.StoreInventorySnapshots;
 import com.order.inventory.dto.InventoryDTO;
 
 import com.order.inventory.dto.OrderDTO;
@@ -8,12 +9,29 @@ import com.order.inventory.entity.Inventory;
 import com.order.inventory.entity.OrderItem;
 import com.order.inventory.dto.OrderItemDTO;
 import com.order.inventory.exception.NotFoundException;
+import com.order.inventory.service.AllocationService;
+import com.order.inventory.service.InventoryChangeFeed;
+import com.order.inventory.service.InventoryImportService;
 import com.order.inventory.service.InventoryService;
+import com.order.inventory.service.LowStockWatcher;
 import com.order.inventory.service.OrderService;
 import com.order.inventory.service.ShipmentService;
+import com.order.inventory.service.StockReservationEngine;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 
 import java.util.List;
 import java.util.Map;
@@ -26,18 +44,44 @@ public class InventoryController {
 	private final InventoryService invService;
 	private final ShipmentService shipService;
 	private final OrderService orderService;
+	private final StockReservationEngine reservations;
+	private final StoreInventorySnapshots storeSnapshots;
+	private final LowStockWatcher lowStock;
+	private final InventoryChangeFeed changeFeed;
+	private final InventoryImportService importService;
+	private final AllocationService allocationService;
+	private final ObjectMapper objectMapper;
+
+	private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
 
 	/**
 	 * CSV: 1) GET /api/v1/inventory – all inventory 2) GET
-	 * /api/v1/inventory?storeid=value – filter by store (404 when none)
+	 * /api/v1/inventory?storeid=value – filter by store (404 when none), with an
+	 * ETag; an If-None-Match matching the current one (lists, *, W/) gets 304
 	 */
 	@GetMapping
-	public ResponseEntity<List<InventoryDTO>> all(@RequestParam(required = false, name = "storeid") Integer storeId) {
-		if (storeId != null)
-			return ResponseEntity.ok(invService.byStoreRequired(storeId));
+	public ResponseEntity<List<InventoryDTO>> all(@RequestParam(required = false, name = "storeid") Integer storeId,
+			WebRequest request) {
+		if (storeId != null) {
+			// Polling terminals: an unchanged store answers 304 without touching the DB
+			if (request.checkNotModified(storeSnapshots.etag(storeId)))
+				return null;
+			StoreInventorySnapshots.Snapshot snapshot = invService.storeSnapshotRequired(storeId);
+			return ResponseEntity.ok().eTag(snapshot.etag()).body(snapshot.items());
+		}
 		return ResponseEntity.ok(invService.all());
 	}
 
+	/**
+	 * GET /api/v1/inventory/changes?storeid=value – Server-Sent Events; each
+	 * "inventory" event carries a batch of [{storeId, productId, quantity, version}]
+	 * for rows changed since the previous one. Fetch the snapshot after subscribing.
+	 */
+	@GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter changes(@RequestParam(required = false, name = "storeid") Integer storeId) {
+		return changeFeed.subscribe(storeId);
+	}
+
 	/**
 	 * CSV: GET /api/v1/inventory/shipment - "Fetch inventories and matching
 	 * shipments" (default) - "Count shipment status wise count of total products
@@ -78,6 +122,107 @@ public class InventoryController {
 		return ResponseEntity.ok(details);
 	}
 
+	/**
+	 * POST /api/v1/inventory/details – body: [orderId, ...] (up to 5000). Same shape
+	 * as /{orderid}/details for every known id, in request order.
+	 */
+	@PostMapping("/details")
+	public ResponseEntity<List<OrderDTO.Details>> orderDetailsBatch(@RequestBody List<Integer> orderIds) {
+		return ResponseEntity.ok(orderService.detailsBatch(orderIds));
+	}
+
+	/**
+	 * POST /api/v1/inventory/reservations – body: {storeId, productId, quantity}.
+	 * Holds the stock in memory (400 when not enough is available) until the
+	 * reservation is committed, released or expires.
+	 */
+	@PostMapping("/reservations")
+	public ResponseEntity<InventoryDTO.Reservation> reserve(@RequestBody InventoryDTO.Reservation req) {
+		return ResponseEntity.status(HttpStatus.CREATED)
+				.body(reservations.reserve(req.getStoreId(), req.getProductId(), req.getQuantity()));
+	}
+
+	/** POST /api/v1/inventory/reservations/{id}/commit – decrement stock (written behind to the DB) */
+	@PostMapping("/reservations/{reservationId}/commit")
+	public ResponseEntity<Void> commitReservation(@PathVariable String reservationId) {
+		reservations.commit(reservationId);
+		return ResponseEntity.noContent().build();
+	}
+
+	/** POST /api/v1/inventory/reservations/{id}/release – give the reserved stock back */
+	@PostMapping("/reservations/{reservationId}/release")
+	public ResponseEntity<Void> releaseReservation(@PathVariable String reservationId) {
+		reservations.release(reservationId);
+		return ResponseEntity.noContent().build();
+	}
+
+	/**
+	 * POST /api/v1/inventory/adjustments – body: [{storeId, productId, delta}, ...]
+	 * (up to 10k). Each tuple is applied atomically in SQL and only if stock stays
+	 * non-negative; the response has one result per tuple, in request order.
+	 */
+	@PostMapping("/adjustments")
+	public ResponseEntity<List<InventoryDTO.AdjustmentResult>> adjust(@RequestBody List<InventoryDTO.Adjustment> adjustments) {
+		return ResponseEntity.ok(invService.adjust(adjustments));
+	}
+
+	/**
+	 * POST /api/v1/inventory/availability – body: [productId, ...] (up to 1000). Total
+	 * and per-store stock of each product, in request order, served from memory.
+	 */
+	@PostMapping("/availability")
+	public ResponseEntity<List<InventoryDTO.Availability>> availability(@RequestBody List<Integer> productIds) {
+		return ResponseEntity.ok(invService.availability(productIds));
+	}
+
+	/**
+	 * POST /api/v1/inventory/allocations – body: {latitude, longitude, items:
+	 * [{productId, quantity}]} or {latitude, longitude, orderId}. Proposes the
+	 * fulfilling store(s), nearest first; nothing is reserved.
+	 */
+	@PostMapping("/allocations")
+	public ResponseEntity<InventoryDTO.Allocation> allocate(@RequestBody InventoryDTO.AllocationRequest req) {
+		return ResponseEntity.ok(allocationService.allocate(req));
+	}
+
+	/**
+	 * POST /api/v1/inventory/import – body: CSV store_id,product_id,quantity (header
+	 * optional), streamed. Sets the stock of each row, inserting missing ones; unknown
+	 * stores/products and malformed lines are skipped and reported.
+	 */
+	@PostMapping(value = "/import", consumes = { "text/csv", MediaType.TEXT_PLAIN_VALUE,
+			MediaType.APPLICATION_OCTET_STREAM_VALUE })
+	public ResponseEntity<InventoryDTO.ImportResult> importCsv(InputStream body) {
+		return ResponseEntity.ok(importService.importCsv(body));
+	}
+
+	/**
+	 * GET /api/v1/inventory/low-stock?storeid=value – rows at or below their reorder
+	 * threshold, read from the maintained set (no table scan)
+	 */
+	@GetMapping("/low-stock")
+	public ResponseEntity<List<InventoryDTO.LowStock>> lowStock(
+			@RequestParam(required = false, name = "storeid") Integer storeId) {
+		return ResponseEntity.ok(lowStock.lowStock(storeId));
+	}
+
+	/**
+	 * PUT /api/v1/inventory/low-stock/thresholds – body: [{storeId, productId,
+	 * threshold}, ...]; a null threshold removes the subscription
+	 */
+	@PutMapping("/low-stock/thresholds")
+	public ResponseEntity<Void> setThresholds(@RequestBody List<InventoryDTO.Threshold> thresholds) {
+		lowStock.setThresholds(thresholds);
+		return ResponseEntity.noContent().build();
+	}
+
+	/** POST /api/v1/inventory/low-stock/alerts/drain?max=100 – takes the oldest queued alerts */
+	@PostMapping("/low-stock/alerts/drain")
+	public ResponseEntity<List<InventoryDTO.LowStock>> drainAlerts(
+			@RequestParam(defaultValue = "100") int max) {
+		return ResponseEntity.ok(lowStock.drainAlerts(Math.max(1, Math.min(max, 10_000))));
+	}
+
 	/**
 	 * CSV: GET /api/v1/inventory/product/{productId}/store/{storeId} 404 when none.
 	 */
@@ -89,10 +234,14 @@ public class InventoryController {
 
 	/**
 	 * CSV: GET /api/v1/inventory/category/{category} Since there's no "category"
-	 * column, we treat category as brand or colour. 404 when none.
+	 * column, we treat category as brand or colour. 404 when none. With ?page
+	 * and/or ?size (max 1000) it returns one page plus the total match count.
 	 */
 	@GetMapping("/category/{category}")
-	public ResponseEntity<List<InventoryDTO>> byCategory(@PathVariable String category) {
+	public ResponseEntity<?> byCategory(@PathVariable String category,
+			@RequestParam(required = false) Integer page, @RequestParam(required = false) Integer size) {
+		if (page != null || size != null)
+			return ResponseEntity.ok(invService.byCategoryPage(category, page, size));
 		return ResponseEntity.ok(invService.byCategoryRequired(category));
 	}
 
@@ -110,6 +259,26 @@ public class InventoryController {
 	        return ResponseEntity.ok(invService.inventoriesWithShipments());
 	    }
 
+	/** GET /api/v1/inventory/shipments/stream – same rows as /shipments, as NDJSON */
+	@GetMapping("/shipments/stream")
+	public ResponseEntity<StreamingResponseBody> streamInventoriesWithShipments() {
+		StreamingResponseBody body = out -> {
+			OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+			invService.streamInventoriesWithShipments(dto -> writeLine(buffered, dto));
+			buffered.flush();
+		};
+		return ResponseEntity.ok().contentType(NDJSON).body(body);
+	}
+
+	private void writeLine(OutputStream out, Object value) {
+		try {
+			out.write(objectMapper.writeValueAsBytes(value));
+			out.write('\n');
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
 
 	
 
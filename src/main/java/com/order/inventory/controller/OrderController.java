@@ -1,13 +1,21 @@
 package com.order.inventory.controller;
 
+import com.order.inventory.cache.IdempotencyStore;
 import com.order.inventory.dto.OrderDTO;
 import com.order.inventory.exception.BadRequestException;
 import com.order.inventory.exception.NotFoundException;
+import com.order.inventory.service.AsyncOrderWriter;
 import com.order.inventory.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -17,21 +25,85 @@ import java.util.stream.Collectors;
 public class OrderController {
 
     private final OrderService service;
+    private final AsyncOrderWriter asyncWriter;
+    private final IdempotencyStore idempotency;
+    private final ObjectMapper objectMapper;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
 
     // ---------------------------------------------------------
     // CRUD + base reads
     // ---------------------------------------------------------
 
-    /** CSV: GET /api/v1/orders – Fetch all orders */
+    /**
+     * CSV: GET /api/v1/orders – Fetch all orders.
+     * With ?limit and/or ?cursor it returns one keyset page plus the cursor for the next one.
+     */
     @GetMapping
-    public ResponseEntity<List<OrderDTO>> all() {
-        return ResponseEntity.ok(service.all());
+    public ResponseEntity<?> all(@RequestParam(required = false) Integer limit,
+                                 @RequestParam(required = false) String cursor) {
+        if (limit == null && cursor == null) {
+            return ResponseEntity.ok(service.all());
+        }
+        return ResponseEntity.ok(service.page(cursor, limit));
+    }
+
+    /**
+     * GET /api/v1/orders/export/stream – every order as NDJSON, one object per line.
+     * Two segments deep so it never shadows a store named "stream" on /{store}.
+     */
+    @GetMapping("/export/stream")
+    public ResponseEntity<StreamingResponseBody> stream() {
+        StreamingResponseBody body = out -> {
+            OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+            service.streamAll(dto -> writeLine(buffered, dto));
+            buffered.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
 
-    /** CSV: POST /api/v1/orders – Create new Order (400 on invalid) */
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * CSV: POST /api/v1/orders – Create new Order (400 on invalid).
+     * A retry with the same Idempotency-Key gets the first response instead of a second order.
+     */
     @PostMapping
-    public ResponseEntity<OrderDTO> create(@RequestBody OrderDTO dto) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(service.create(dto));
+    public ResponseEntity<OrderDTO> create(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                           @RequestBody OrderDTO dto) {
+        OrderDTO created = idempotency.execute("orders", idempotencyKey, dto, OrderDTO.class, () -> service.create(dto));
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    }
+
+    /**
+     * POST /api/v1/orders/bulk – Create up to 10k orders in one call.
+     * Invalid rows are reported by index in "errors"; the valid ones are still created.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<OrderDTO.BulkResult> createBulk(@RequestBody List<OrderDTO> dtos) {
+        return ResponseEntity.ok(service.createBulk(dtos));
+    }
+
+    /**
+     * POST /api/v1/orders/async – Journal the order and return 202 with a ticket; the insert
+     * is group-committed in the background (requires orders.async-write.enabled=true).
+     */
+    @PostMapping("/async")
+    public ResponseEntity<OrderDTO.AsyncTicket> createAsync(@RequestBody OrderDTO dto) {
+        return ResponseEntity.accepted().body(asyncWriter.submit(dto));
+    }
+
+    /** GET /api/v1/orders/async/{ticket} – PENDING, COMMITTED (with orderId) or FAILED (with error) */
+    @GetMapping("/async/{ticket}")
+    public ResponseEntity<OrderDTO.AsyncTicket> asyncStatus(@PathVariable String ticket) {
+        return ResponseEntity.ok(asyncWriter.status(ticket));
     }
 
     /** CSV: PUT /api/v1/orders – Update order by object (id is required in body) */
@@ -131,28 +203,42 @@ public class OrderController {
     /**
      * CSV: GET /api/v1/orders/{store} – store name (non-numeric), with shape:
      *  - orderid, orderstatus, storename, webaddress
-     * Returns 404 if none.
+     * Returns 404 if none. With ?limit and/or ?cursor returns {items, nextCursor} pages.
      */
     @GetMapping("/{store:^(?!\\d+$).+}")
-    public ResponseEntity<List<Map<String, Object>>> byStoreName(@PathVariable String store) {
+    public ResponseEntity<?> byStoreName(@PathVariable String store,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String cursor) {
+        if (limit != null || cursor != null) {
+            OrderDTO.Page page = service.byStoreNamePage(store, cursor, limit);
+            if (page.getItems().isEmpty() && cursor == null) {
+                throw new NotFoundException("Orders with the specified store name not found.");
+            }
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("items", page.getItems().stream().map(OrderController::storeShape).toList());
+            payload.put("nextCursor", page.getNextCursor());
+            return ResponseEntity.ok(payload);
+        }
         List<OrderDTO> list = service.byStoreName(store);
         if (list.isEmpty()) {
             throw new NotFoundException("Orders with the specified store name not found.");
         }
         // Shape: orderid, orderstatus, storename, webaddress (real values from DTO)
         List<Map<String, Object>> payload = list.stream()
-                .map(o -> {
-                    Map<String, Object> m = new LinkedHashMap<>();
-                    m.put("orderid", o.getId());
-                    m.put("orderstatus", o.getStatus());
-                    m.put("storename", o.getStoreName());
-                    m.put("webaddress", o.getWebAddress());
-                    return m;
-                })
+                .map(OrderController::storeShape)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(payload);
     }
 
+    private static Map<String, Object> storeShape(OrderDTO o) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("orderid", o.getId());
+        m.put("orderstatus", o.getStatus());
+        m.put("storename", o.getStoreName());
+        m.put("webaddress", o.getWebAddress());
+        return m;
+    }
+
     // ---------------------------------------------------------
     // Date range
     // ---------------------------------------------------------
@@ -166,4 +252,29 @@ public class OrderController {
         }
         return ResponseEntity.ok(out);
     }
+
+    /** GET /api/v1/orders/date/{startDate}/{endDate}/count – total and per-day counts (non-empty days only) */
+    @GetMapping("/date/{startDate}/{endDate}/count")
+    public ResponseEntity<OrderDTO.DayCounts> countByDateRange(@PathVariable String startDate, @PathVariable String endDate) {
+        return ResponseEntity.ok(service.dayCounts(startDate, endDate));
+    }
+
+    /**
+     * GET /api/v1/orders/date/{startDate}/{endDate}/stream – the range as NDJSON, read from the DB.
+     * X-Total-Count-Estimate comes from the in-memory day index and may lag recent or remote writes.
+     */
+    @GetMapping("/date/{startDate}/{endDate}/stream")
+    public ResponseEntity<StreamingResponseBody> streamByDateRange(@PathVariable String startDate,
+                                                                   @PathVariable String endDate) {
+        // Also validates the dates before the response is committed
+        OrderDTO.DayCounts counts = service.dayCounts(startDate, endDate);
+        StreamingResponseBody body = out -> {
+            OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+            service.streamByDateRange(startDate, endDate, dto -> writeLine(buffered, dto));
+            buffered.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON)
+                .header("X-Total-Count-Estimate", String.valueOf(counts.getTotal()))
+                .body(body);
+    }
 }
\ No newline at end of file
@@ -18,10 +18,16 @@ public class ProductController {
 
     /**
      * CSV: GET /api/v1/products  – fetch all (optionally sorted with ?sort=field)
+     * With ?dir=asc|desc, ?page and/or ?size (max 1000) returns one page plus the total.
      * Returns 200 with list (can be empty).
      */
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> all(@RequestParam(required = false) String sort) {
+    public ResponseEntity<?> all(@RequestParam(required = false) String sort,
+                                 @RequestParam(required = false) String dir,
+                                 @RequestParam(required = false) Integer page,
+                                 @RequestParam(required = false) Integer size) {
+        if (dir != null || page != null || size != null)
+            return ResponseEntity.ok(service.getPage(sort, dir, page, size));
         return ResponseEntity.ok(service.getAll(sort));
     }
 
@@ -36,10 +42,19 @@ public class ProductController {
 
     /**
      * CSV: GET /api/v1/products/unitprice?min=value&max=value – filter by unit price range
+     * With ?count=true returns only the number of matches; with ?page and/or ?size (max 1000)
+     * one page, cheapest first, plus the total.
      * Throws 400 for invalid min/max.
      */
     @GetMapping("/unitprice")
-    public ResponseEntity<List<ProductDTO>> byPrice(@RequestParam BigDecimal min, @RequestParam BigDecimal max) {
+    public ResponseEntity<?> byPrice(@RequestParam BigDecimal min, @RequestParam BigDecimal max,
+                                     @RequestParam(defaultValue = "false") boolean count,
+                                     @RequestParam(required = false) Integer page,
+                                     @RequestParam(required = false) Integer size) {
+        if (count)
+            return ResponseEntity.ok(service.countByPrice(min, max));
+        if (page != null || size != null)
+            return ResponseEntity.ok(service.byPricePage(min, max, page, size));
         return ResponseEntity.ok(service.byPrice(min, max));
     }
 
@@ -62,11 +77,45 @@ public class ProductController {
     }
 
     /**
-     * CSV: GET /api/v1/products/{productname} – wildcard search by name
+     * GET /api/v1/products/search?brand&colour&size&minRating&minPrice&maxPrice&after&limit
+     * brand/colour/size may repeat (any of); results ordered by id, next page via ?after=nextAfter.
+     * Returns the page, the total match count and facet counts per dimension.
+     * Throws 400 for an invalid price range or limit (max 1000).
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ProductDTO.SearchResult> search(@RequestParam(required = false) List<String> brand,
+                                                          @RequestParam(required = false) List<String> colour,
+                                                          @RequestParam(required = false) List<String> size,
+                                                          @RequestParam(required = false) Integer minRating,
+                                                          @RequestParam(required = false) BigDecimal minPrice,
+                                                          @RequestParam(required = false) BigDecimal maxPrice,
+                                                          @RequestParam(required = false) Integer after,
+                                                          @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(service.search(brand, colour, size, minRating, minPrice, maxPrice, after, limit));
+    }
+
+    /**
+     * GET /api/v1/products/suggest?prefix=value&limit=10 – autocomplete for the search box
+     * Products with a word in the name starting with prefix, best rated first (max 50).
+     * Returns 200 with an empty list for a blank prefix; 400 for an invalid limit.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductDTO.Suggestion>> suggest(@RequestParam(defaultValue = "") String prefix,
+                                                               @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(service.suggest(prefix, limit));
+    }
+
+    /**
+     * CSV: GET /api/v1/products/{productname} – wildcard search by name, best matches first
+     * With ?page and/or ?size (max 1000) returns one page plus the total match count.
      * Throws 404 if no matches.
      */
     @GetMapping("/{productname}")
-    public ResponseEntity<List<ProductDTO>> byName(@PathVariable String productname) {
+    public ResponseEntity<?> byName(@PathVariable String productname,
+                                    @RequestParam(required = false) Integer page,
+                                    @RequestParam(required = false) Integer size) {
+        if (page != null || size != null)
+            return ResponseEntity.ok(service.byNamePage(productname, page, size));
         return ResponseEntity.ok(service.byName(productname));
     }
 
@@ -1,6 +1,9 @@
 package com.order.inventory.dto;
  
 import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
  
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 
@@ -18,5 +21,112 @@ public class InventoryDTO {
 
     private Integer quantity;
 
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class Page {
+        private List<InventoryDTO> items;
+        private Integer page;        // zero-based
+        private Integer size;
+        private Integer total;       // matching rows across all pages
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class Reservation {
+        private String reservationId;
+        private Integer storeId;
+        private Integer productId;
+        private Integer quantity;
+        private Instant expiresAt;   // released automatically when neither committed nor released by then
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class Availability {
+        private Integer productId;
+        private long total;
+        private List<StoreQuantity> stores;   // stores with stock, ascending store id
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class StoreQuantity {
+        private Integer storeId;
+        private Integer quantity;
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class AllocationRequest {
+        private Integer orderId;                 // lines are taken from the order when items is empty
+        private Double latitude;                 // delivery point
+        private Double longitude;
+        private List<AllocationLine> items;
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class AllocationLine {
+        private Integer productId;
+        private Integer quantity;
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class AllocatedShipment {
+        private Integer storeId;
+        private Double distanceKm;
+        private List<AllocationLine> lines;
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class Allocation {
+        private boolean complete;                // every unit was allocated
+        private List<AllocatedShipment> shipments;   // nearest first
+        private List<AllocationLine> unallocated;
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class ImportResult {
+        private long rowsRead;
+        private long rowsUpserted;
+        private long rowsRejected;       // bad format, unknown store/product, or the batch failed
+        private List<String> errors;     // first few, "line N: reason"
+        private long elapsedMs;
+        private long rowsPerSecond;
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class StockDelta {
+        private Integer storeId;
+        private Integer productId;
+        private Integer quantity;    // null when the row no longer exists
+        private Integer version;
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class Threshold {
+        private Integer storeId;
+        private Integer productId;
+        private Integer threshold;   // alert when quantity <= threshold; null removes it
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class LowStock {
+        private Integer storeId;
+        private Integer productId;
+        private Integer quantity;
+        private Integer threshold;
+        private Instant since;       // when the row first went at or below the threshold
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class Adjustment {
+        private Integer storeId;
+        private Integer productId;
+        private Integer delta;       // negative to take stock out
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class AdjustmentResult {
+        private Integer index;       // position in the request array
+        private Integer storeId;
+        private Integer productId;
+        private Boolean applied;
+        private String error;        // set when not applied
+    }
+
 }
- 
\ No newline at end of file
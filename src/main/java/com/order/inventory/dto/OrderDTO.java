@@ -1,9 +1,12 @@
 package com.order.inventory.dto;
 
+import com.order.inventory.entity.OrderStatus;
 import lombok.*;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class OrderDTO {
@@ -17,6 +20,15 @@ public class OrderDTO {
     private String storeName;
     private String webAddress;
 
+    /**
+     * Constructor used by JPQL projections ({@code select new ...}) so list reads
+     * never materialize Order/Store entities.
+     */
+    public OrderDTO(Integer id, Instant orderTms, OrderStatus status, Integer customerId,
+                    Integer storeId, String storeName, String webAddress) {
+        this(id, orderTms, status != null ? status.name() : null, customerId, storeId, storeName, webAddress);
+    }
+
     @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
     public static class LineItem {
         private Integer lineItemId;
@@ -41,4 +53,42 @@ public class OrderDTO {
         private List<LineItem> items;
         private BigDecimal totalAmount;
     }
-}
\ No newline at end of file
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class Page {
+        private List<OrderDTO> items;
+        private String nextCursor;   // null on the last page
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class BulkResult {
+        private Integer received;
+        private Integer created;
+        private List<Integer> createdIds;
+        private List<RowError> errors;
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class RowError {
+        private Integer index;   // position in the request array
+        private String error;
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class DayCounts {
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private Long total;
+        private Map<LocalDate, Long> days;   // non-empty UTC days only
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class AsyncTicket {
+        private String ticket;
+        private String state;        // PENDING, COMMITTED or FAILED
+        private Integer orderId;     // set once COMMITTED
+        private String error;        // set when FAILED
+        private Instant acceptedAt;
+        private Instant completedAt;
+    }
+}
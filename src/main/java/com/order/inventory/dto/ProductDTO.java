@@ -2,6 +2,8 @@ package com.order.inventory.dto;
 
 import lombok.*;
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class ProductDTO {
@@ -12,4 +14,34 @@ public class ProductDTO {
     private String brand;
     private String size;
     private Integer rating;
-}
\ No newline at end of file
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class Page {
+        private List<ProductDTO> items;
+        private Integer page;        // zero-based
+        private Integer size;
+        private Integer total;       // matching products across all pages
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class SearchResult {
+        private List<ProductDTO> items;                   // ascending id
+        private Integer nextAfter;                        // pass as ?after= for the next page; null on the last
+        private long total;                               // matching products across all pages
+        private Map<String, Map<String, Long>> facets;    // dimension -> value -> count
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class PriceCount {
+        private BigDecimal min;
+        private BigDecimal max;
+        private long count;
+    }
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+    public static class Suggestion {
+        private Integer id;
+        private String name;
+        private Integer rating;
+    }
+}
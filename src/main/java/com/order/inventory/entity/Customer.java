@@ -10,7 +10,10 @@ import lombok.*;
 public class Customer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled table allocator (not IDENTITY) so Hibernate can batch INSERTs; see db/schema-changes.sql
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "customer_id_gen")
+    @TableGenerator(name = "customer_id_gen", table = "id_generators", pkColumnName = "gen_name",
+                    valueColumnName = "next_val", pkColumnValue = "customers", allocationSize = 100)
     @Column(name = "customer_id")
     private Integer id;
 
@@ -26,4 +26,9 @@ public class Inventory {
 
     @Column(name = "product_inventory", nullable = false)
     private Integer productInventory;
+
+    // Bumped by every stock change (JPA writes and the set-based adjustment UPDATE)
+    @Version
+    @Column(name = "version", nullable = false)
+    private Integer version;
 }
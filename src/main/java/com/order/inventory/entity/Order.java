@@ -12,7 +12,10 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled table allocator (not IDENTITY) so Hibernate can batch INSERTs; see db/schema-changes.sql
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_id_gen")
+    @TableGenerator(name = "order_id_gen", table = "id_generators", pkColumnName = "gen_name",
+                    valueColumnName = "next_val", pkColumnValue = "orders", allocationSize = 100)
     @Column(name = "order_id")
     private Integer id;
 
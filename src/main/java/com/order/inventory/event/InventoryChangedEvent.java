@@ -0,0 +1,13 @@
+package com.order.inventory.event;
+
+import java.util.List;
+
+/**
+ * Published after stock rows change (adjustments, reservation write-behind), so
+ * in-memory inventory views can follow. Listeners run after the transaction commits.
+ */
+public record InventoryChangedEvent(List<StockChange> changes) {
+
+    /** {@code quantity} is the new absolute quantity when known, null for relative updates. */
+    public record StockChange(Integer storeId, Integer productId, Integer quantity) { }
+}
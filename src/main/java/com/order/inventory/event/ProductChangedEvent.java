@@ -0,0 +1,19 @@
+package com.order.inventory.event;
+
+import com.order.inventory.dto.ProductDTO;
+
+/**
+ * Published by ProductService after a product is created, updated or deleted, so
+ * in-memory product indexes can follow. Carries the product as saved; {@code product}
+ * is null for a delete. Listeners run after the transaction commits.
+ */
+public record ProductChangedEvent(Integer productId, ProductDTO product) {
+
+    public static ProductChangedEvent deleted(Integer productId) {
+        return new ProductChangedEvent(productId, null);
+    }
+
+    public boolean deleted() {
+        return product == null;
+    }
+}
@@ -34,6 +34,18 @@ public class GlobalExceptionHandler {
 
     }
  
+    @ExceptionHandler(ServiceUnavailableException.class)
+
+    public ResponseEntity<Map<String, Object>> handleUnavailable(ServiceUnavailableException ex) {
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+
+            .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+
+            .body(error("503", ex.getMessage()));
+
+    }
+ 
     @ExceptionHandler(MethodArgumentNotValidException.class)
 
     public ResponseEntity<Map<String, Object>> handleValidation(MethodArgumentNotValidException ex) {
@@ -0,0 +1,25 @@
+package com.order.inventory.exception;
+ 
+import org.springframework.http.HttpStatus;
+
+import org.springframework.web.bind.annotation.ResponseStatus;
+ 
+/** Temporary overload (a full queue, too many subscribers): 503 with Retry-After, so clients back off and retry. */
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+
+        super(message);
+
+        this.retryAfterSeconds = retryAfterSeconds;
+
+    }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+
+}
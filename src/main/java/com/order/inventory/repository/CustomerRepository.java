@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +19,14 @@ public interface CustomerRepository extends JpaRepository<Customer, Integer> {
     // /api/v1/customers/{emailId}
     Optional<Customer> findByEmailAddress(String emailAddress);
 
+    // email -> id resolution for /api/v1/orders/customer/{email}
+    @Query("select c.id from Customer c where c.emailAddress = :email")
+    Optional<Integer> findIdByEmailAddress(@Param("email") String emailAddress);
+
+    // bulk order ingestion: which of these ids exist (no entity loads)
+    @Query("select c.id from Customer c where c.id in :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
     // /api/v1/customers/name/{name}
     @Query("select c from Customer c where lower(c.fullName) like lower(concat('%', :name, '%'))")
     List<Customer> searchByNameWildcard(@Param("name") String name);
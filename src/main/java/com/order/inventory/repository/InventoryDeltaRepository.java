@@ -0,0 +1,66 @@
+package com.order.inventory.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Set-based stock changes on {@code inventory}: each (storeId, productId, delta) is one
+ * UPDATE relative to the current row value, so concurrent writers never lose updates
+ * and no entity is read first. Every change bumps {@code version} like a JPA write would.
+ * Absolute stock counts (CSV import) are upserted on {@code inventory_store_product_u}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventoryDeltaRepository {
+
+    private static final String GUARDED = """
+            UPDATE inventory
+               SET product_inventory = product_inventory + ?, version = version + 1
+             WHERE store_id = ? AND product_id = ? AND product_inventory + ? >= 0
+            """;
+
+    private static final String UNGUARDED = """
+            UPDATE inventory
+               SET product_inventory = product_inventory + ?, version = version + 1
+             WHERE store_id = ? AND product_id = ?
+            """;
+
+    // MySQL: VALUES(col) is the row that failed to insert (still accepted by 8.x)
+    private static final String UPSERT = """
+            INSERT INTO inventory (store_id, product_id, product_inventory, version)
+            VALUES (?, ?, ?, 0)
+            ON DUPLICATE KEY UPDATE product_inventory = VALUES(product_inventory), version = version + 1
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    /**
+     * Applies each delta only if the row exists and stays non-negative, in one JDBC batch.
+     * Rows are {storeId, productId, delta}; returns the update count per row: 1 applied, 0 rejected.
+     * With {@code rewriteBatchedStatements} MySQL sends an UPDATE batch as one multi-statement
+     * round trip and still reports each statement's count.
+     */
+    public int[] applyGuarded(List<int[]> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (int[] d : deltas) args.add(new Object[]{d[2], d[0], d[1], d[2]});
+        return jdbc.batchUpdate(GUARDED, args);
+    }
+
+    /** Applies deltas that were already checked elsewhere (reservation write-behind). */
+    public int[] apply(List<int[]> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (int[] d : deltas) args.add(new Object[]{d[2], d[0], d[1]});
+        return jdbc.batchUpdate(UNGUARDED, args);
+    }
+
+    /** Sets the stock of each {storeId, productId, quantity}, inserting missing rows, in one JDBC batch. */
+    public void upsert(List<int[]> rows) {
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (int[] r : rows) args.add(new Object[]{r[0], r[1], r[2]});
+        jdbc.batchUpdate(UPSERT, args);
+    }
+}
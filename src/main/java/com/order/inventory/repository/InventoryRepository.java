@@ -1,19 +1,21 @@
 package com.order.inventory.repository;
 
+import com.order.inventory.dto.InventoryDTO;
 import com.order.inventory.entity.Inventory;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Enforces (store_id, product_id) uniqueness and FK joins used by endpoints.  [1](https://capgemini-my.sharepoint.com/personal/preethi_preethi-reddy_capgemini_com/Documents/Microsoft%20Copilot%20Chat%20Files/script_two.sql)
  */
 public interface InventoryRepository extends JpaRepository<Inventory, Integer> {
 
-    @Query("select i from Inventory i where i.store.id = :storeId")
-    List<Inventory> findByStoreId(@Param("storeId") Integer storeId);
-
     @Query("""
            select i from Inventory i
             where i.product.id = :productId
@@ -22,12 +24,57 @@ public interface InventoryRepository extends JpaRepository<Inventory, Integer> {
     List<Inventory> findByProductAndStore(@Param("productId") Integer productId,
                                           @Param("storeId") Integer storeId);
 
+    // stock reservation engine: load one (store, product) counter without the entity
+    @Query("select i.productInventory from Inventory i where i.store.id = :storeId and i.product.id = :productId")
+    Optional<Integer> findQuantity(@Param("storeId") Integer storeId, @Param("productId") Integer productId);
+
+    // StoreInventorySnapshots: one store's rows as DTOs in one statement, ascending id
+    @Query("""
+           select new com.order.inventory.dto.InventoryDTO(i.id, s.id, s.storeName, p.id, p.productName, i.productInventory)
+             from Inventory i
+             join i.store s
+             join i.product p
+            where s.id = :storeId
+            order by i.id
+           """)
+    List<InventoryDTO> findDtosByStoreId(@Param("storeId") Integer storeId);
+
+    // LowStockWatcher, InventoryChangeFeed: [productId, quantity, version] of the touched rows of one store
+    @Query("select i.product.id, i.productInventory, i.version from Inventory i where i.store.id = :storeId and i.product.id in :productIds")
+    List<Object[]> findQuantities(@Param("storeId") Integer storeId, @Param("productIds") Collection<Integer> productIds);
+
+    // StockMatrix: [storeId, productId, quantity] for every row, streamed
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"))
+    @Query("select i.store.id, i.product.id, i.productInventory from Inventory i")
+    Stream<Object[]> streamAllQuantities();
+
+    // InventoryCategoryIndex: [inventoryId, productId] for every row
+    @Query("select i.id, i.product.id from Inventory i")
+    List<Object[]> findAllIdsAndProductIds();
+
+    // InventoryCategoryIndex: [inventoryId, productId] of the rows of these products
+    @Query("select i.id, i.product.id from Inventory i where i.product.id in :productIds")
+    List<Object[]> findIdsAndProductIdsByProductIds(@Param("productIds") Collection<Integer> productIds);
+
+    // Rows by id as DTOs in one statement (no lazy Store/Product loads), ascending id
+    @Query("""
+           select new com.order.inventory.dto.InventoryDTO(i.id, s.id, s.storeName, p.id, p.productName, i.productInventory)
+             from Inventory i
+             join i.store s
+             join i.product p
+            where i.id in :ids
+            order by i.id
+           """)
+    List<InventoryDTO> findDtosByIds(@Param("ids") Collection<Integer> ids);
+
+    // /api/v1/inventory/shipments: rows of these (shipped) products as DTOs, by product then id
     @Query("""
-           select distinct inv
-             from Inventory inv
-             join OrderItem oi
-               on oi.product = inv.product
-            where oi.shipment is not null
+           select new com.order.inventory.dto.InventoryDTO(i.id, s.id, s.storeName, p.id, p.productName, i.productInventory)
+             from Inventory i
+             join i.store s
+             join i.product p
+            where p.id in :productIds
+            order by p.id, i.id
            """)
-    List<Inventory> findInventoriesWithAnyShipmentForTheirProduct();
+    List<InventoryDTO> findDtosByProductIds(@Param("productIds") Collection<Integer> productIds);
 }
\ No newline at end of file
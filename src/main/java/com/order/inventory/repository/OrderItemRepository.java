@@ -31,4 +31,12 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
 	@Query("select i from OrderItem i where i.shipment is not null")
 	List<OrderItem> findAllWithShipment();
 
+	// fulfilment allocation: [productId, quantity] per line of one order
+	@Query("select i.product.id, i.quantity from OrderItem i where i.order.id = :orderId")
+	List<Object[]> findProductQuantitiesByOrderId(@Param("orderId") Integer orderId);
+
+	// ShippedProducts bitset: every product with at least one shipped line
+	@Query("select distinct i.product.id from OrderItem i where i.shipment is not null")
+	List<Integer> findShippedProductIds();
+
 }
\ No newline at end of file
@@ -1,12 +1,17 @@
 package com.order.inventory.repository;
 
+import com.order.inventory.dto.OrderDTO;
 import com.order.inventory.entity.Order;
 import com.order.inventory.entity.OrderStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository for Orders.
@@ -14,12 +19,35 @@ import java.util.List;
  */
 public interface OrderRepository extends JpaRepository<Order, Integer> {
 
-    // /api/v1/orders/customer/{customerId}
-    @Query("select o from com.order.inventory.entity.Order o where o.customer.id = :custId")
-    List<Order> findByCustomerId(@Param("custId") Integer customerId);
+    // All list reads below are constructor projections joined to the store in the same
+    // statement: no Order/Store entities are managed, no lazy store SELECT per row and
+    // no stores.logo BLOB is ever read.
+
+    // /api/v1/orders
+    @Query("""
+           select new com.order.inventory.dto.OrderDTO(o.id, o.orderTms, o.orderStatus, o.customer.id, s.id, s.storeName, s.webAddress)
+             from com.order.inventory.entity.Order o
+             join o.store s
+           """)
+    List<OrderDTO> findAllSummaries();
+
+    // /api/v1/orders/customer/{customerId} and /customer/{email} (email resolved by CustomerIdCache)
+    @Query("""
+           select new com.order.inventory.dto.OrderDTO(o.id, o.orderTms, o.orderStatus, o.customer.id, s.id, s.storeName, s.webAddress)
+             from com.order.inventory.entity.Order o
+             join o.store s
+            where o.customer.id = :custId
+           """)
+    List<OrderDTO> findByCustomerId(@Param("custId") Integer customerId);
 
     // /api/v1/orders/status/{status}
-    List<Order> findByOrderStatus(OrderStatus status);
+    @Query("""
+           select new com.order.inventory.dto.OrderDTO(o.id, o.orderTms, o.orderStatus, o.customer.id, s.id, s.storeName, s.webAddress)
+             from com.order.inventory.entity.Order o
+             join o.store s
+            where o.orderStatus = :status
+           """)
+    List<OrderDTO> findByOrderStatus(@Param("status") OrderStatus status);
 
     // /api/v1/orders/status (status -> count)
     @Query("""
@@ -30,14 +58,116 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     List<Object[]> countOrdersByStatus();
 
     // /api/v1/orders/date/{startDate}/{endDate}
-    @Query("select o from com.order.inventory.entity.Order o where o.orderTms between :start and :end")
-    List<Order> findByDateRange(@Param("start") Instant start, @Param("end") Instant end);
+    @Query("""
+           select new com.order.inventory.dto.OrderDTO(o.id, o.orderTms, o.orderStatus, o.customer.id, s.id, s.storeName, s.webAddress)
+             from com.order.inventory.entity.Order o
+             join o.store s
+            where o.orderTms >= :start and o.orderTms < :end
+           """)
+    List<OrderDTO> findByDateRange(@Param("start") Instant start, @Param("end") Instant end);
+
+    // /api/v1/orders/{store}  (store name resolved to ids in memory; filters on the store_id index)
+    @Query("""
+           select new com.order.inventory.dto.OrderDTO(o.id, o.orderTms, o.orderStatus, o.customer.id, s.id, s.storeName, s.webAddress)
+             from com.order.inventory.entity.Order o
+             join o.store s
+            where o.store.id in :storeIds
+           """)
+    List<OrderDTO> findByStoreIds(@Param("storeIds") Collection<Integer> storeIds);
+
+    @Query("""
+           select new com.order.inventory.dto.OrderDTO(o.id, o.orderTms, o.orderStatus, o.customer.id, s.id, s.storeName, s.webAddress)
+             from com.order.inventory.entity.Order o
+             join o.store s
+            where o.store.id in :storeIds
+            order by o.orderTms, o.id
+           """)
+    List<OrderDTO> findByStoreIdsFirstPage(@Param("storeIds") Collection<Integer> storeIds, Limit limit);
+
+    @Query("""
+           select new com.order.inventory.dto.OrderDTO(o.id, o.orderTms, o.orderStatus, o.customer.id, s.id, s.storeName, s.webAddress)
+             from com.order.inventory.entity.Order o
+             join o.store s
+            where o.store.id in :storeIds
+              and (o.orderTms > :afterTms or (o.orderTms = :afterTms and o.id > :afterId))
+            order by o.orderTms, o.id
+           """)
+    List<OrderDTO> findByStoreIdsPageAfter(@Param("storeIds") Collection<Integer> storeIds,
+                                           @Param("afterTms") Instant afterTms, @Param("afterId") Integer afterId,
+                                           Limit limit);
 
-    // /api/v1/orders/{store}  (by store name; non-numeric path handled in controller)
-    @Query("select o from com.order.inventory.entity.Order o where lower(o.store.storeName) = lower(:storeName)")
-    List<Order> findByStoreName(@Param("storeName") String storeName);
+    // /api/v1/orders?limit=&cursor=  (keyset pagination on (order_tms, order_id))
+    @Query("""
+           select new com.order.inventory.dto.OrderDTO(o.id, o.orderTms, o.orderStatus, o.customer.id, s.id, s.storeName, s.webAddress)
+             from com.order.inventory.entity.Order o
+             join o.store s
+            order by o.orderTms, o.id
+           """)
+    List<OrderDTO> findFirstPage(Limit limit);
+
+    @Query("""
+           select new com.order.inventory.dto.OrderDTO(o.id, o.orderTms, o.orderStatus, o.customer.id, s.id, s.storeName, s.webAddress)
+             from com.order.inventory.entity.Order o
+             join o.store s
+            where o.orderTms > :afterTms
+               or (o.orderTms = :afterTms and o.id > :afterId)
+            order by o.orderTms, o.id
+           """)
+    List<OrderDTO> findPageAfter(@Param("afterTms") Instant afterTms, @Param("afterId") Integer afterId, Limit limit);
+
+    // /api/v1/orders/export/stream  (forward-only cursor; MySQL streams rows when fetch size is Integer.MIN_VALUE)
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"))
+    @Query("""
+           select new com.order.inventory.dto.OrderDTO(o.id, o.orderTms, o.orderStatus, o.customer.id, s.id, s.storeName, s.webAddress)
+             from com.order.inventory.entity.Order o
+             join o.store s
+            order by o.orderTms, o.id
+           """)
+    Stream<OrderDTO> streamAll();
+
+    // /api/v1/inventory/{orderid}/details and the batch variant: header, lines and
+    // shipment status in one statement; orders without items yield one row with null line columns.
+    // [orderId, storeName, lineItemId, productId, productName, unitPrice, quantity, shipmentStatus]
+    @Query("""
+           select o.id, s.storeName, i.lineItemId, p.id, p.productName, i.unitPrice, i.quantity, sh.shipmentStatus
+             from com.order.inventory.entity.Order o
+             join o.store s
+             left join com.order.inventory.entity.OrderItem i on i.order = o
+             left join i.product p
+             left join i.shipment sh
+            where o.id in :orderIds
+            order by o.id, i.lineItemId
+           """)
+    List<Object[]> findDetailRows(@Param("orderIds") Collection<Integer> orderIds);
 
-    // /api/v1/orders/customer/{email}
-    @Query("select o from com.order.inventory.entity.Order o join o.customer c where c.emailAddress = :email")
-    List<Order> findByCustomerEmail(@Param("email") String email);
+    // Day buckets for /api/v1/orders/date/... (UTC days; the datasource runs with serverTimezone=UTC)
+    // [day, count]
+    @Query("""
+           select cast(o.orderTms as LocalDate), count(o)
+             from com.order.inventory.entity.Order o
+            group by cast(o.orderTms as LocalDate)
+           """)
+    List<Object[]> countOrdersByDay();
+
+    // Keyset pages inside a half-open time window [from, to), ordered by (order_tms, order_id)
+    @Query("""
+           select new com.order.inventory.dto.OrderDTO(o.id, o.orderTms, o.orderStatus, o.customer.id, s.id, s.storeName, s.webAddress)
+             from com.order.inventory.entity.Order o
+             join o.store s
+            where o.orderTms >= :from and o.orderTms < :to
+            order by o.orderTms, o.id
+           """)
+    List<OrderDTO> findRangeFirstPage(@Param("from") Instant from, @Param("to") Instant to, Limit limit);
+
+    @Query("""
+           select new com.order.inventory.dto.OrderDTO(o.id, o.orderTms, o.orderStatus, o.customer.id, s.id, s.storeName, s.webAddress)
+             from com.order.inventory.entity.Order o
+             join o.store s
+            where o.orderTms >= :from and o.orderTms < :to
+              and (o.orderTms > :afterTms or (o.orderTms = :afterTms and o.id > :afterId))
+            order by o.orderTms, o.id
+           """)
+    List<OrderDTO> findRangePageAfter(@Param("from") Instant from, @Param("to") Instant to,
+                                      @Param("afterTms") Instant afterTms, @Param("afterId") Integer afterId,
+                                      Limit limit);
 }
\ No newline at end of file
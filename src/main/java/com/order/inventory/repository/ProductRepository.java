@@ -1,6 +1,8 @@
 package com.order.inventory.repository;
 
 import com.order.inventory.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 
@@ -19,6 +21,35 @@ public interface ProductRepository extends JpaRepository<Product, Integer>, JpaS
     @Query("select p from Product p where p.unitPrice between :min and :max")
     List<Product> findByUnitPriceBetween(@Param("min") BigDecimal min, @Param("max") BigDecimal max);
 
+    @Query("select p from Product p where p.unitPrice between :min and :max")
+    Page<Product> findByUnitPriceBetween(@Param("min") BigDecimal min, @Param("max") BigDecimal max, Pageable pageable);
+
+    long countByUnitPriceBetween(BigDecimal min, BigDecimal max);
+
     @Query("select p from Product p where lower(p.productName) like lower(concat('%', :name, '%'))")
     List<Product> searchByName(@Param("name") String name);
+
+    // ProductFacetIndex: [productId, brand, colour, size, rating, unitPrice] for every product
+    @Query("select p.id, p.brand, p.colour, p.size, p.rating, p.unitPrice from Product p")
+    List<Object[]> findAllFacetRows();
+
+    // ProductPriceIndex: [productId, unitPrice] for every product
+    @Query("select p.id, p.unitPrice from Product p")
+    List<Object[]> findAllIdsAndPrices();
+
+    // ProductSuggester: [productId, productName, rating] for every product
+    @Query("select p.id, p.productName, p.rating from Product p")
+    List<Object[]> findAllIdsNamesAndRatings();
+
+    // ProductNameIndex: [productId, productName] for every product
+    @Query("select p.id, p.productName from Product p")
+    List<Object[]> findAllIdsAndNames();
+
+    // inventory CSV import: id set for validation
+    @Query("select p.id from Product p")
+    List<Integer> findAllIds();
+
+    // InventoryCategoryIndex: [productId, brand, colour] without loading entities
+    @Query("select p.id, p.brand, p.colour from Product p")
+    List<Object[]> findAllIdsBrandsAndColours();
 }
\ No newline at end of file
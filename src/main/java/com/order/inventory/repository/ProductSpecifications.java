@@ -0,0 +1,56 @@
+package com.order.inventory.repository;
+
+import com.order.inventory.entity.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Filters for /api/v1/products/search, combined through JpaSpecificationExecutor.
+ * A null or empty argument means "no filter" (the spec is unrestricted).
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    /** Case-insensitive match on any of the values. */
+    public static Specification<Product> brandIn(Collection<String> brands) {
+        return lowerIn("brand", brands);
+    }
+
+    public static Specification<Product> colourIn(Collection<String> colours) {
+        return lowerIn("colour", colours);
+    }
+
+    public static Specification<Product> sizeIn(Collection<String> sizes) {
+        return lowerIn("size", sizes);
+    }
+
+    public static Specification<Product> ratingAtLeast(Integer min) {
+        if (min == null) return Specification.unrestricted();
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("rating"), min);
+    }
+
+    public static Specification<Product> priceBetween(BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) return Specification.unrestricted();
+        if (max == null) return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("unitPrice"), min);
+        if (min == null) return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("unitPrice"), max);
+        return (root, query, cb) -> cb.between(root.get("unitPrice"), min, max);
+    }
+
+    /** Keyset: rows after the last id of the previous page (pages are ordered by id). */
+    public static Specification<Product> idAfter(Integer after) {
+        if (after == null) return Specification.unrestricted();
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), after);
+    }
+
+    private static Specification<Product> lowerIn(String attribute, Collection<String> values) {
+        if (values == null || values.isEmpty()) return Specification.unrestricted();
+        List<String> lowered = values.stream().map(v -> v.strip().toLowerCase(Locale.ROOT)).distinct().toList();
+        return (root, query, cb) -> cb.lower(root.get(attribute)).in(lowered);
+    }
+}
@@ -2,5 +2,27 @@ package com.order.inventory.repository;
 
 import com.order.inventory.entity.Store;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface StoreRepository extends JpaRepository<Store, Integer> { }
\ No newline at end of file
+import java.util.Collection;
+import java.util.List;
+
+public interface StoreRepository extends JpaRepository<Store, Integer> {
+
+    // bulk order ingestion: which of these ids exist (never touches the logo BLOB)
+    @Query("select s.id from Store s where s.id in :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    // inventory CSV import: id set for validation
+    @Query("select s.id from Store s")
+    List<Integer> findAllIds();
+
+    // StoreLocationIndex: [id, latitude, longitude] of stores that have coordinates
+    @Query("select s.id, s.latitude, s.longitude from Store s where s.latitude is not null and s.longitude is not null")
+    List<Object[]> findAllLocations();
+
+    // store-name resolver: [id, storeName] without loading Store entities
+    @Query("select s.id, s.storeName from Store s")
+    List<Object[]> findAllIdsAndNames();
+}
\ No newline at end of file
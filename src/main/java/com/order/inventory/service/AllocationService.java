@@ -0,0 +1,121 @@
+package com.order.inventory.service;
+
+import com.order.inventory.cache.StockMatrix;
+import com.order.inventory.cache.StoreLocationIndex;
+import com.order.inventory.dto.InventoryDTO;
+import com.order.inventory.exception.BadRequestException;
+import com.order.inventory.exception.NotFoundException;
+import com.order.inventory.repository.OrderItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks fulfilling stores for an order's lines from in-memory data only: the nearest
+ * {@code inventory.allocation.candidate-stores} stores to the delivery point come from
+ * {@link StoreLocationIndex}, their stock from {@link StockMatrix}. The nearest store that
+ * can ship every line wins; otherwise lines are split greedily, nearest store first.
+ * The result is a proposal: stock is not reserved.
+ */
+@Service
+public class AllocationService {
+
+    static final int MAX_LINES = 1_000;
+
+    private final StoreLocationIndex locations;
+    private final StockMatrix stock;
+    private final OrderItemRepository itemRepo;
+    private final int candidateStores;
+
+    public AllocationService(StoreLocationIndex locations, StockMatrix stock, OrderItemRepository itemRepo,
+                             @Value("${inventory.allocation.candidate-stores:50}") int candidateStores) {
+        this.locations = locations;
+        this.stock = stock;
+        this.itemRepo = itemRepo;
+        this.candidateStores = candidateStores;
+    }
+
+    public InventoryDTO.Allocation allocate(InventoryDTO.AllocationRequest req) {
+        if (req == null || req.getLatitude() == null || req.getLongitude() == null)
+            throw new BadRequestException("latitude and longitude of the delivery point are required");
+        if (Math.abs(req.getLatitude()) > 90 || Math.abs(req.getLongitude()) > 180)
+            throw new BadRequestException("latitude must be within ±90 and longitude within ±180");
+        Map<Integer, Integer> wanted = lines(req);
+
+        List<StoreLocationIndex.Nearby> candidates = locations.nearest(req.getLatitude(), req.getLongitude(), candidateStores);
+        for (StoreLocationIndex.Nearby store : candidates) {
+            if (canShipAll(store.storeId(), wanted))
+                return result(List.of(shipment(store, wanted)), Map.of());
+        }
+
+        Map<Integer, Integer> remaining = new LinkedHashMap<>(wanted);
+        List<InventoryDTO.AllocatedShipment> shipments = new ArrayList<>();
+        for (StoreLocationIndex.Nearby store : candidates) {
+            Map<Integer, Integer> taken = new LinkedHashMap<>();
+            remaining.forEach((productId, qty) -> {
+                int units = Math.min(qty, stock.quantity(store.storeId(), productId));
+                if (units > 0) taken.put(productId, units);
+            });
+            if (taken.isEmpty()) continue;
+            taken.forEach((productId, units) -> remaining.merge(productId, -units, Integer::sum));
+            remaining.values().removeIf(q -> q == 0);
+            shipments.add(shipment(store, taken));
+            if (remaining.isEmpty()) break;
+        }
+        return result(shipments, remaining);
+    }
+
+    /** productId -> units, duplicates summed, in request order. */
+    private Map<Integer, Integer> lines(InventoryDTO.AllocationRequest req) {
+        Map<Integer, Integer> wanted = new LinkedHashMap<>();
+        if (req.getItems() != null && !req.getItems().isEmpty()) {
+            if (req.getItems().size() > MAX_LINES) throw new BadRequestException("At most " + MAX_LINES + " lines per allocation");
+            for (InventoryDTO.AllocationLine line : req.getItems()) {
+                if (line == null || line.getProductId() == null || line.getQuantity() == null || line.getQuantity() <= 0)
+                    throw new BadRequestException("productId and a positive quantity are required");
+                wanted.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+            }
+        } else if (req.getOrderId() != null) {
+            for (Object[] r : itemRepo.findProductQuantitiesByOrderId(req.getOrderId())) {
+                if (r[0] != null && r[1] != null && (Integer) r[1] > 0) wanted.merge((Integer) r[0], (Integer) r[1], Integer::sum);
+            }
+            if (wanted.isEmpty()) throw new NotFoundException("No order items found for the specified order.");
+        } else {
+            throw new BadRequestException("items or orderId is required");
+        }
+        return wanted;
+    }
+
+    private boolean canShipAll(int storeId, Map<Integer, Integer> wanted) {
+        for (Map.Entry<Integer, Integer> e : wanted.entrySet()) {
+            if (stock.quantity(storeId, e.getKey()) < e.getValue()) return false;
+        }
+        return true;
+    }
+
+    private static InventoryDTO.AllocatedShipment shipment(StoreLocationIndex.Nearby store, Map<Integer, Integer> lines) {
+        return InventoryDTO.AllocatedShipment.builder()
+                .storeId(store.storeId())
+                .distanceKm(Math.round(store.km() * 100) / 100.0)
+                .lines(toLines(lines))
+                .build();
+    }
+
+    private static InventoryDTO.Allocation result(List<InventoryDTO.AllocatedShipment> shipments, Map<Integer, Integer> unallocated) {
+        return InventoryDTO.Allocation.builder()
+                .complete(unallocated.isEmpty())
+                .shipments(shipments)
+                .unallocated(toLines(unallocated))
+                .build();
+    }
+
+    private static List<InventoryDTO.AllocationLine> toLines(Map<Integer, Integer> lines) {
+        List<InventoryDTO.AllocationLine> out = new ArrayList<>(lines.size());
+        lines.forEach((productId, qty) -> out.add(new InventoryDTO.AllocationLine(productId, qty)));
+        return out;
+    }
+}
@@ -0,0 +1,253 @@
+package com.order.inventory.service;
+
+import com.order.inventory.dto.OrderDTO;
+import com.order.inventory.entity.OrderStatus;
+import com.order.inventory.exception.BadRequestException;
+import com.order.inventory.exception.NotFoundException;
+import com.order.inventory.exception.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional async create path ({@code orders.async-write.enabled=true}). An accepted order is
+ * fsync'd to a local {@link OrderJournal} and queued; one writer thread group-commits the
+ * queue through {@link OrderService#createBulk} every {@code batch-size} orders or
+ * {@code max-delay-ms}, retrying with backoff while MySQL is unavailable or a chunk hits
+ * a transient error (deadlock, lock wait timeout, dropped connection). Only rows the DB
+ * itself rejects (a constraint, narrowed to the single row) count against
+ * {@code max-attempts}; after that they fail like validation errors so one bad order
+ * cannot stall the queue. Clients poll their ticket for the order id.
+ * <p>
+ * Delivery is at-least-once: a crash between the MySQL commit and the journal's C line
+ * replays that group on the next start.
+ */
+@Slf4j
+@Service
+public class AsyncOrderWriter {
+
+    private static final long MAX_BACKOFF_MS = 5_000;
+
+    private record Pending(String ticket, OrderDTO order) { }
+
+    private final OrderService orderService;
+    private final boolean enabled;
+    private final Path journalPath;
+    private final int batchSize;
+    private final long maxDelayMs;
+    private final long compactBytes;
+    private final long ticketRetentionMs;
+    private final int queueCapacity;
+    private final int maxAttempts;
+
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private Semaphore capacity;   // bounds accepted-but-unwritten orders
+    private final Map<String, OrderDTO.AsyncTicket> tickets = new ConcurrentHashMap<>();
+
+    private OrderJournal journal;
+    private Thread writer;
+    private volatile boolean running;
+
+    public AsyncOrderWriter(OrderService orderService,
+                            @Value("${orders.async-write.enabled:false}") boolean enabled,
+                            @Value("${orders.async-write.journal:data/order-journal.log}") String journalPath,
+                            @Value("${orders.async-write.batch-size:500}") int batchSize,
+                            @Value("${orders.async-write.max-delay-ms:20}") long maxDelayMs,
+                            @Value("${orders.async-write.queue-capacity:10000}") int queueCapacity,
+                            @Value("${orders.async-write.compact-bytes:67108864}") long compactBytes,
+                            @Value("${orders.async-write.ticket-retention-ms:3600000}") long ticketRetentionMs,
+                            @Value("${orders.async-write.max-attempts:5}") int maxAttempts) {
+        this.orderService = orderService;
+        this.enabled = enabled;
+        this.journalPath = Path.of(journalPath);
+        this.batchSize = Math.min(batchSize, OrderService.BULK_CHUNK);   // one transaction per group
+        this.maxDelayMs = maxDelayMs;
+        this.compactBytes = compactBytes;
+        this.ticketRetentionMs = ticketRetentionMs;
+        this.queueCapacity = queueCapacity;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) return;
+        journal = new OrderJournal(journalPath);
+        List<String> replay = journal.openEntries();
+        for (String line : replay) {
+            Pending p = parse(line);
+            tickets.put(p.ticket(), ticket(p.ticket(), "PENDING", null, null, p.order().getOrderTms(), null));
+            queue.add(p);
+        }
+        capacity = new Semaphore(queueCapacity - replay.size());   // may start negative after a long outage
+        journal.compact();
+        if (!replay.isEmpty()) log.info("Replaying {} journaled orders", replay.size());
+
+        running = true;
+        writer = new Thread(this::run, "order-journal-writer");
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (!enabled) return;
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        journal.close();
+    }
+
+    /** Journals the order and returns a PENDING ticket; the DB insert happens later. */
+    public OrderDTO.AsyncTicket submit(OrderDTO dto) {
+        if (!enabled) throw new BadRequestException("Async order writes are disabled");
+        if (dto == null || dto.getCustomerId() == null || dto.getStoreId() == null || dto.getStatus() == null)
+            throw new BadRequestException("customerId, storeId and status are required");
+        OrderStatus status;
+        try {
+            status = OrderStatus.valueOf(dto.getStatus().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid order status");
+        }
+        if (!capacity.tryAcquire()) throw new ServiceUnavailableException("Async order queue is full, retry later", 1);
+
+        Instant now = Instant.now();
+        OrderDTO order = OrderDTO.builder()
+                .customerId(dto.getCustomerId())
+                .storeId(dto.getStoreId())
+                .status(status.name())
+                .orderTms(dto.getOrderTms() != null ? dto.getOrderTms() : now)
+                .build();
+        String ticket = UUID.randomUUID().toString();
+        try {
+            journal.sync(journal.append(String.join(" ", "A", ticket, order.getCustomerId().toString(),
+                    order.getStoreId().toString(), order.getStatus(), order.getOrderTms().toString())));
+        } catch (IOException ex) {
+            capacity.release();
+            throw new UncheckedIOException("Order journal unavailable", ex);
+        }
+        OrderDTO.AsyncTicket t = ticket(ticket, "PENDING", null, null, now, null);
+        tickets.put(ticket, t);
+        queue.add(new Pending(ticket, order));
+        return t;
+    }
+
+    public OrderDTO.AsyncTicket status(String ticket) {
+        OrderDTO.AsyncTicket t = tickets.get(ticket);
+        if (t == null) throw new NotFoundException("Unknown ticket");
+        return t;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.async-write.ticket-purge-ms:60000}")
+    public void purgeTickets() {
+        Instant cutoff = Instant.now().minusMillis(ticketRetentionMs);
+        tickets.values().removeIf(t -> t.getCompletedAt() != null && t.getCompletedAt().isBefore(cutoff));
+    }
+
+    private void run() {
+        List<Pending> group = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                group.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                while (group.size() < batchSize) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    group.add(next);
+                }
+                flush(group);
+                if (journal.size() > compactBytes) journal.compact();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException ex) {
+                log.error("Order journal write failed", ex);
+            } finally {
+                capacity.release(group.size());
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes one group. While MySQL is unreachable (createBulk throws) or rows come back
+     * {@link OrderService#INSERT_UNAVAILABLE}, they are retried until they commit or we shut
+     * down; only a pass in which the DB rejected rows ({@link OrderService#INSERT_FAILED}) counts an attempt.
+     */
+    void flush(List<Pending> group) throws IOException, InterruptedException {
+        List<Pending> todo = group;
+        long backoff = 100;
+        int attempts = 0;
+        while (!todo.isEmpty()) {
+            try {
+                OrderDTO.BulkResult result = orderService.createBulk(todo.stream().map(Pending::order).toList());
+                boolean rejected = result.getErrors().stream().anyMatch(e -> e.getError().startsWith(OrderService.INSERT_FAILED));
+                todo = apply(todo, result, rejected && ++attempts >= maxAttempts);
+            } catch (RuntimeException ex) {
+                log.warn("Group commit of {} orders failed, retrying: {}", todo.size(), ex.getMessage());
+            }
+            if (todo.isEmpty() || !running) return;   // unfinished rows stay open in the journal
+            Thread.sleep(backoff);
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+        }
+    }
+
+    /** Records outcomes in the journal and ticket map; returns the rows to retry (none on the last attempt). */
+    private List<Pending> apply(List<Pending> todo, OrderDTO.BulkResult result, boolean lastAttempt) throws IOException {
+        Map<Integer, String> errors = new HashMap<>();
+        result.getErrors().forEach(e -> errors.put(e.getIndex(), e.getError()));
+        Iterator<Integer> ids = result.getCreatedIds().iterator();
+        List<Pending> retry = new ArrayList<>();
+        Instant now = Instant.now();
+        long position = 0;
+        for (int i = 0; i < todo.size(); i++) {
+            Pending p = todo.get(i);
+            String error = errors.get(i);
+            OrderDTO.AsyncTicket before = tickets.get(p.ticket());
+            Instant acceptedAt = before != null ? before.getAcceptedAt() : p.order().getOrderTms();
+            if (error == null) {
+                Integer orderId = ids.next();
+                position = journal.append("C " + p.ticket() + " " + orderId);
+                tickets.put(p.ticket(), ticket(p.ticket(), "COMMITTED", orderId, null, acceptedAt, now));
+            } else if (error.startsWith(OrderService.INSERT_UNAVAILABLE)
+                    || (error.startsWith(OrderService.INSERT_FAILED) && !lastAttempt)) {
+                retry.add(p);
+            } else {
+                position = journal.append("F " + p.ticket());
+                tickets.put(p.ticket(), ticket(p.ticket(), "FAILED", null, error, acceptedAt, now));
+            }
+        }
+        journal.sync(position);
+        return retry;
+    }
+
+    private static Pending parse(String line) {
+        String[] f = line.split(" ");
+        return new Pending(f[1], OrderDTO.builder()
+                .customerId(Integer.valueOf(f[2]))
+                .storeId(Integer.valueOf(f[3]))
+                .status(f[4])
+                .orderTms(Instant.parse(f[5]))
+                .build());
+    }
+
+    private static OrderDTO.AsyncTicket ticket(String ticket, String state, Integer orderId, String error,
+                                               Instant acceptedAt, Instant completedAt) {
+        return OrderDTO.AsyncTicket.builder()
+                .ticket(ticket).state(state).orderId(orderId).error(error)
+                .acceptedAt(acceptedAt).completedAt(completedAt)
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.order.inventory.service;
 
+import com.order.inventory.cache.CustomerIdCache;
 import com.order.inventory.dto.CustomerDTO;
 import com.order.inventory.dto.ShipmentDTO;
 import com.order.inventory.entity.Customer;
@@ -26,6 +27,7 @@ public class CustomerService {
     private final CustomerRepository customerRepo;
     private final ShipmentRepository shipmentRepo;
     private final CustomerMapper mapper;
+    private final CustomerIdCache customerIds;
 
     private static final Pattern EMAIL_PATTERN = Pattern.compile(".+@.+");
 
@@ -50,7 +52,9 @@ public class CustomerService {
         }
         Customer c = mapper.toEntity(dto);
         c.setId(null);
-        return mapper.toDto(customerRepo.save(c));
+        Customer saved = customerRepo.save(c);
+        customerIds.invalidateEmail(saved.getEmailAddress()); // drops a negative entry, if any
+        return mapper.toDto(saved);
     }
 
     public CustomerDTO update(Integer id, CustomerDTO dto) {
@@ -59,6 +63,8 @@ public class CustomerService {
             if (!EMAIL_PATTERN.matcher(dto.getEmail()).matches()) {
                 throw new BadRequestException("Invalid email format");
             }
+            customerIds.invalidateEmail(c.getEmailAddress());
+            customerIds.invalidateEmail(dto.getEmail());
             c.setEmailAddress(dto.getEmail());
         }
         if (dto.getFullName() != null) c.setFullName(dto.getFullName());
@@ -68,6 +74,7 @@ public class CustomerService {
     public void delete(Integer id) {
         if (!customerRepo.existsById(id)) throw new NotFoundException("Customer not found");
         customerRepo.deleteById(id);
+        customerIds.invalidateCustomer(id);
     }
 
     // ---------------------------------------------------------
@@ -0,0 +1,192 @@
+package com.order.inventory.service;
+
+import com.order.inventory.dto.InventoryDTO;
+import com.order.inventory.event.InventoryChangedEvent;
+import com.order.inventory.exception.ServiceUnavailableException;
+import com.order.inventory.repository.InventoryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fan-out of committed stock changes to SSE subscribers. Writers only add the touched
+ * (store, product) keys to a set; every {@code inventory.feed.batch-ms} the set is drained,
+ * the rows are re-read once (quantity and version) and the deltas are merged into each
+ * matching subscriber's pending map, where a later value of a key replaces the earlier one.
+ * A small send pool drains those maps, at most one send in flight per subscriber, so a
+ * slow client only delays itself. A client that is still busy with its previous batch
+ * while its pending map grows past {@code inventory.feed.max-pending} distinct keys is
+ * disconnected and can reconnect to re-fetch a full snapshot.
+ */
+@Slf4j
+@Service
+public class InventoryChangeFeed {
+
+    private static final int QUERY_CHUNK = 1_000;
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final Integer storeId;                                    // null: every store
+        final Map<Long, InventoryDTO.StockDelta> pending = new LinkedHashMap<>();   // guarded by this
+        final AtomicBoolean sending = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Integer storeId) {
+            this.emitter = emitter;
+            this.storeId = storeId;
+        }
+
+        void offer(List<InventoryDTO.StockDelta> deltas) {
+            synchronized (this) {
+                for (InventoryDTO.StockDelta d : deltas)
+                    pending.put(StockReservationEngine.key(d.getStoreId(), d.getProductId()), d);
+                if (pending.size() > maxPending && sending.get()) {
+                    pending.clear();
+                    drop("too far behind");
+                    return;
+                }
+            }
+            if (sending.compareAndSet(false, true)) sendPool.execute(this::drain);
+        }
+
+        void drain() {
+            try {
+                while (!closed) {
+                    List<InventoryDTO.StockDelta> batch;
+                    synchronized (this) {
+                        if (pending.isEmpty()) break;
+                        batch = new ArrayList<>(pending.values());
+                        pending.clear();
+                    }
+                    emitter.send(SseEmitter.event().name("inventory").data(batch));
+                }
+            } catch (IOException | IllegalStateException ex) {
+                drop("send failed");
+            } finally {
+                sending.set(false);
+            }
+            // Deltas merged after the loop saw an empty map but before the flag was cleared
+            boolean more;
+            synchronized (this) {
+                more = !pending.isEmpty();
+            }
+            if (more && !closed && sending.compareAndSet(false, true)) sendPool.execute(this::drain);
+        }
+
+        void drop(String reason) {
+            if (closed) return;
+            closed = true;
+            subscribers.remove(this);
+            log.debug("Dropping inventory feed subscriber ({})", reason);
+            emitter.complete();
+        }
+    }
+
+    private final InventoryRepository repo;
+    private final int maxSubscribers;
+    private final int maxPending;
+    private final long timeoutMs;
+    private final ExecutorService sendPool;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+    public InventoryChangeFeed(InventoryRepository repo,
+                               @Value("${inventory.feed.max-subscribers:10000}") int maxSubscribers,
+                               @Value("${inventory.feed.max-pending:10000}") int maxPending,
+                               @Value("${inventory.feed.send-threads:16}") int sendThreads,
+                               @Value("${inventory.feed.timeout-ms:1800000}") long timeoutMs) {
+        this.repo = repo;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.maxPending = maxPending;
+        this.sendPool = Executors.newFixedThreadPool(sendThreads, r -> {
+            Thread t = new Thread(r, "inventory-feed-send");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Opens an SSE stream that EventSource clients re-open after {@code inventory.feed.timeout-ms}. */
+    public SseEmitter subscribe(Integer storeId) {
+        return subscribe(storeId, new SseEmitter(timeoutMs));
+    }
+
+    /** Registers the emitter; it receives batches of deltas for {@code storeId}, or all stores when null. */
+    public SseEmitter subscribe(Integer storeId, SseEmitter emitter) {
+        if (subscribers.size() >= maxSubscribers)
+            throw new ServiceUnavailableException("Too many inventory feed subscribers, retry later", 5);
+        Subscriber s = new Subscriber(emitter, storeId);
+        emitter.onCompletion(() -> subscribers.remove(s));
+        emitter.onTimeout(() -> s.drop("timeout"));
+        emitter.onError(ex -> s.drop("error"));
+        subscribers.add(s);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent e) {
+        if (subscribers.isEmpty()) return;
+        for (InventoryChangedEvent.StockChange c : e.changes())
+            changed.add(StockReservationEngine.key(c.storeId(), c.productId()));
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.feed.batch-ms:50}")
+    public void publish() {
+        if (changed.isEmpty()) return;
+        Map<Integer, List<Integer>> productsByStore = new HashMap<>();
+        for (Iterator<Long> it = changed.iterator(); it.hasNext(); ) {
+            long key = it.next();
+            it.remove();
+            productsByStore.computeIfAbsent((int) (key >>> 32), k -> new ArrayList<>()).add((int) key);
+        }
+        if (subscribers.isEmpty()) return;
+
+        Map<Integer, List<InventoryDTO.StockDelta>> deltasByStore = new HashMap<>();
+        productsByStore.forEach((storeId, productIds) -> deltasByStore.put(storeId, read(storeId, productIds)));
+        List<InventoryDTO.StockDelta> all = deltasByStore.values().stream().flatMap(List::stream).toList();
+        for (Subscriber s : subscribers) {
+            List<InventoryDTO.StockDelta> deltas = s.storeId == null ? all : deltasByStore.get(s.storeId);
+            if (deltas != null && !deltas.isEmpty()) s.offer(deltas);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.forEach(s -> s.drop("shutdown"));
+        sendPool.shutdown();
+    }
+
+    private List<InventoryDTO.StockDelta> read(int storeId, List<Integer> productIds) {
+        List<InventoryDTO.StockDelta> out = new ArrayList<>(productIds.size());
+        for (int from = 0; from < productIds.size(); from += QUERY_CHUNK) {
+            List<Integer> chunk = productIds.subList(from, Math.min(from + QUERY_CHUNK, productIds.size()));
+            Map<Integer, Object[]> rows = new HashMap<>();
+            for (Object[] r : repo.findQuantities(storeId, chunk)) rows.put((Integer) r[0], r);
+            for (Integer productId : chunk) {
+                Object[] r = rows.get(productId);
+                out.add(InventoryDTO.StockDelta.builder()
+                        .storeId(storeId).productId(productId)
+                        .quantity(r != null ? (Integer) r[1] : null)
+                        .version(r != null ? (Integer) r[2] : null)
+                        .build());
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,223 @@
+package com.order.inventory.service;
+
+import com.order.inventory.dto.InventoryDTO;
+import com.order.inventory.event.InventoryChangedEvent;
+import com.order.inventory.repository.InventoryDeltaRepository;
+import com.order.inventory.repository.ProductRepository;
+import com.order.inventory.repository.StoreRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streaming import of absolute stock counts, CSV {@code store_id,product_id,quantity}
+ * (optional header). Lines are parsed as they are read and checked against store and
+ * product id bitsets loaded once per import. Valid rows are routed by store to one of
+ * {@code inventory.import.workers} lanes and upserted {@code batch-size} rows per JDBC
+ * batch and transaction. A store always uses the same lane, so a later line for a key
+ * wins and workers never contend for the same rows. At most two batches per lane are
+ * in flight, which bounds memory regardless of file size.
+ * <p>
+ * Lanes still share index pages, so MySQL may pick one as a deadlock victim. A batch
+ * that fails with a transient error (deadlock, lock wait timeout) is retried up to
+ * {@code MAX_BATCH_ATTEMPTS} times before its rows are reported as rejected.
+ */
+@Slf4j
+@Service
+public class InventoryImportService {
+
+    private static final int MAX_ERRORS = 100;
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MS = 50;
+
+    private final StoreRepository storeRepo;
+    private final ProductRepository productRepo;
+    private final InventoryDeltaRepository deltaRepo;
+    private final StockReservationEngine reservations;
+    private final TransactionTemplate txTemplate;
+    private final ApplicationEventPublisher events;
+    private final int workers;
+    private final int batchSize;
+
+    public InventoryImportService(StoreRepository storeRepo, ProductRepository productRepo,
+                                  InventoryDeltaRepository deltaRepo, StockReservationEngine reservations,
+                                  TransactionTemplate txTemplate, ApplicationEventPublisher events,
+                                  @Value("${inventory.import.workers:4}") int workers,
+                                  @Value("${inventory.import.batch-size:5000}") int batchSize) {
+        this.storeRepo = storeRepo;
+        this.productRepo = productRepo;
+        this.deltaRepo = deltaRepo;
+        this.reservations = reservations;
+        this.txTemplate = txTemplate;
+        this.events = events;
+        this.workers = workers;
+        this.batchSize = batchSize;
+    }
+
+    private final class Run {
+        final BitSet stores = ids(storeRepo.findAllIds());
+        final BitSet products = ids(productRepo.findAllIds());
+        final ExecutorService[] lanes = new ExecutorService[workers];
+        final Semaphore inFlight = new Semaphore(workers * 2);
+        final AtomicLong upserted = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+        Run() {
+            for (int i = 0; i < workers; i++) {
+                String name = "inventory-import-" + i;
+                lanes[i] = Executors.newSingleThreadExecutor(r -> new Thread(r, name));
+            }
+        }
+
+        void submit(int lane, List<int[]> batch) throws InterruptedException {
+            inFlight.acquire();
+            lanes[lane].execute(() -> {
+                try {
+                    write(batch);
+                    upserted.addAndGet(batch.size());
+                } catch (RuntimeException ex) {
+                    rejected.addAndGet(batch.size());
+                    error("batch of " + batch.size() + " rows starting at store " + batch.get(0)[0]
+                            + " failed: " + ex.getMessage());
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        void error(String message) {
+            if (errors.size() < MAX_ERRORS) errors.add(message);
+        }
+
+        void finish() throws InterruptedException {
+            for (ExecutorService lane : lanes) lane.shutdown();
+            for (ExecutorService lane : lanes) {
+                while (!lane.awaitTermination(1, TimeUnit.MINUTES)) log.info("Inventory import still writing...");
+            }
+        }
+    }
+
+    public InventoryDTO.ImportResult importCsv(InputStream in) {
+        long started = System.nanoTime();
+        Run run = new Run();
+        long lineNo = 0, read = 0;
+        List<List<int[]>> buffers = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) buffers.add(new ArrayList<>(batchSize));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (lineNo == 1 && line.startsWith("\uFEFF")) line = line.substring(1);
+                if (line.isBlank() || (lineNo == 1 && !Character.isDigit(line.strip().charAt(0)))) continue;   // header
+                read++;
+                int[] row = parse(line);
+                String problem = row == null ? "expected store_id,product_id,quantity"
+                        : !run.stores.get(row[0]) ? "unknown store " + row[0]
+                        : !run.products.get(row[1]) ? "unknown product " + row[1]
+                        : null;
+                if (problem != null) {
+                    run.rejected.incrementAndGet();
+                    run.error("line " + lineNo + ": " + problem);
+                    continue;
+                }
+                int lane = row[0] % workers;
+                List<int[]> buffer = buffers.get(lane);
+                buffer.add(row);
+                if (buffer.size() == batchSize) {
+                    run.submit(lane, buffer);
+                    buffers.set(lane, new ArrayList<>(batchSize));
+                }
+            }
+            for (int lane = 0; lane < workers; lane++) {
+                if (!buffers.get(lane).isEmpty()) run.submit(lane, buffers.get(lane));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Inventory import aborted at line " + lineNo, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Inventory import interrupted", ex);
+        } finally {
+            try {
+                run.finish();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        log.info("Inventory import: {} rows read, {} upserted, {} rejected in {} ms",
+                read, run.upserted.get(), run.rejected.get(), elapsedMs);
+        return InventoryDTO.ImportResult.builder()
+                .rowsRead(read)
+                .rowsUpserted(run.upserted.get())
+                .rowsRejected(run.rejected.get())
+                .errors(List.copyOf(run.errors))
+                .elapsedMs(elapsedMs)
+                .rowsPerSecond(read * 1000 / elapsedMs)
+                .build();
+    }
+
+    private void write(List<int[]> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // Loaded reservation cells move to the imported counts, keeping their open reservations
+                reservations.overwrite(batch, () -> txTemplate.execute(status -> {
+                    deltaRepo.upsert(batch);
+                    return null;
+                }));
+                break;
+            } catch (TransientDataAccessException ex) {   // deadlock victim or lock wait timeout, rolled back
+                if (attempt == MAX_BATCH_ATTEMPTS) throw ex;
+                log.debug("Import batch attempt {} failed, retrying: {}", attempt, ex.getMessage());
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MS * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw ex;
+                }
+            }
+        }
+        events.publishEvent(new InventoryChangedEvent(batch.stream()
+                .map(r -> new InventoryChangedEvent.StockChange(r[0], r[1], r[2])).toList()));
+    }
+
+    /** {storeId, productId, quantity}, or null when the line is malformed or negative. */
+    private static int[] parse(String line) {
+        String[] f = line.split(",", -1);
+        if (f.length != 3) return null;
+        try {
+            int[] row = {Integer.parseInt(f[0].strip()), Integer.parseInt(f[1].strip()), Integer.parseInt(f[2].strip())};
+            return row[0] < 0 || row[1] < 0 || row[2] < 0 ? null : row;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static BitSet ids(List<Integer> ids) {
+        BitSet set = new BitSet();
+        for (Integer id : ids) {
+            if (id != null && id >= 0) set.set(id);
+        }
+        return set;
+    }
+}
@@ -1,5 +1,10 @@
 package com.order.inventory.service;
 
+import com.order.inventory.cache.AfterCommit;
+import com.order.inventory.cache.InventoryCategoryIndex;
+import com.order.inventory.cache.ShippedProducts;
+import com.order.inventory.cache.StockMatrix;
+import com.order.inventory.cache.StoreInventorySnapshots;
 import com.order.inventory.dto.InventoryDTO;
 import com.order.inventory.dto.OrderDTO;
 import com.order.inventory.dto.OrderDTO.LineItem;
@@ -7,16 +12,23 @@ import com.order.inventory.dto.OrderItemDTO;
 import com.order.inventory.entity.Inventory;
 import com.order.inventory.entity.Order;
 import com.order.inventory.entity.OrderItem;
+import com.order.inventory.event.InventoryChangedEvent;
+import com.order.inventory.exception.BadRequestException;
 import com.order.inventory.exception.NotFoundException;
 import com.order.inventory.mapper.InventoryMapper;
+import com.order.inventory.repository.InventoryDeltaRepository;
 import com.order.inventory.repository.InventoryRepository;
 import com.order.inventory.repository.OrderItemRepository;
 import com.order.inventory.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Statement;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -30,6 +42,23 @@ public class InventoryService {
 	private final OrderRepository orderRepo;
 	private final OrderItemRepository itemRepo;
 
+	private final InventoryCategoryIndex categoryIndex;
+	private final ShippedProducts shippedProducts;
+	private final StoreInventorySnapshots storeSnapshots;
+	private final StockMatrix stockMatrix;
+
+	// Stock changes
+	private final InventoryDeltaRepository deltaRepo;
+	private final StockReservationEngine reservations;
+	private final ApplicationEventPublisher events;
+
+	static final int MAX_ADJUSTMENTS = 10_000;
+	private static final String ADJUST_NOT_FOUND = "Inventory record for the specified product and store not found.";
+	static final int DEFAULT_CATEGORY_PAGE_SIZE = 100;
+	static final int MAX_CATEGORY_PAGE_SIZE = 1_000;
+	static final int IDS_CHUNK = 1_000; // IN-list size per statement
+	static final int MAX_AVAILABILITY_PRODUCTS = 1_000;
+
 	// ---------------------------------------------------------
 	// Basic fetches
 	// ---------------------------------------------------------
@@ -39,10 +68,16 @@ public class InventoryService {
 	}
 
 	public List<InventoryDTO> byStoreRequired(Integer storeId) {
-		List<InventoryDTO> list = repo.findByStoreId(storeId).stream().map(mapper::toDto).toList();
-		if (list.isEmpty())
+		return storeSnapshotRequired(storeId).items();
+	}
+
+	/** Cached rows of the store plus their ETag; the DB is read only after a stock change in that store. */
+	@Transactional(readOnly = true)
+	public StoreInventorySnapshots.Snapshot storeSnapshotRequired(Integer storeId) {
+		StoreInventorySnapshots.Snapshot snapshot = storeSnapshots.get(storeId);
+		if (snapshot.items().isEmpty())
 			throw new NotFoundException("Inventory records matching the specified store ID not found.");
-		return list;
+		return snapshot;
 	}
 
 	public List<InventoryDTO> byProductAndStoreRequired(Integer productId, Integer storeId) {
@@ -53,7 +88,133 @@ public class InventoryService {
 	}
 
 	public List<InventoryDTO> inventoriesWithShipments() {
-		return repo.findInventoriesWithAnyShipmentForTheirProduct().stream().map(mapper::toDto).toList();
+		List<InventoryDTO> out = new ArrayList<>();
+		streamInventoriesWithShipments(out::add);
+		return out;
+	}
+
+	/**
+	 * Inventory rows whose product has ever shipped, by product id then id: the ShippedProducts
+	 * bitset becomes product id IN-lists of IDS_CHUNK, so only matching rows are read.
+	 */
+	@Transactional(readOnly = true)
+	public void streamInventoriesWithShipments(Consumer<InventoryDTO> sink) {
+		BitSet shipped = shippedProducts.snapshot();
+		List<Integer> chunk = new ArrayList<>(IDS_CHUNK);
+		for (int productId = shipped.nextSetBit(0); productId >= 0; productId = shipped.nextSetBit(productId + 1)) {
+			chunk.add(productId);
+			if (chunk.size() == IDS_CHUNK) {
+				repo.findDtosByProductIds(chunk).forEach(sink);
+				chunk = new ArrayList<>(IDS_CHUNK);
+			}
+		}
+		if (!chunk.isEmpty())
+			repo.findDtosByProductIds(chunk).forEach(sink);
+	}
+
+	/**
+	 * Per-store and total stock of each product, in request order, from the in-memory
+	 * StockMatrix (no DB access). Unknown products come back with total 0.
+	 */
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public List<InventoryDTO.Availability> availability(List<Integer> productIds) {
+		if (productIds == null || productIds.isEmpty())
+			throw new BadRequestException("At least one productId is required");
+		if (productIds.size() > MAX_AVAILABILITY_PRODUCTS)
+			throw new BadRequestException("At most " + MAX_AVAILABILITY_PRODUCTS + " products per request");
+		List<InventoryDTO.Availability> out = new ArrayList<>(productIds.size());
+		for (Integer productId : productIds) {
+			if (productId == null)
+				throw new BadRequestException("productId cannot be null");
+			List<InventoryDTO.StoreQuantity> stores = new ArrayList<>();
+			long total = stockMatrix.forEachStore(productId, (storeId, qty) -> stores.add(new InventoryDTO.StoreQuantity(storeId, qty)));
+			out.add(new InventoryDTO.Availability(productId, total, stores));
+		}
+		return out;
+	}
+
+	// ---------------------------------------------------------
+	// /inventory/adjustments : set-based stock deltas
+	// ---------------------------------------------------------
+
+	/**
+	 * Applies (store, product, delta) tuples as guarded relative UPDATEs. A tuple that
+	 * would take stock below zero is rejected, not clamped; the others still apply.
+	 * Decrements are first taken from the reservation engine's available count, so units
+	 * held by open or unflushed reservations cannot be adjusted away. Results are returned
+	 * per tuple, in request order.
+	 */
+	public List<InventoryDTO.AdjustmentResult> adjust(List<InventoryDTO.Adjustment> adjustments) {
+		if (adjustments == null || adjustments.isEmpty())
+			throw new BadRequestException("At least one adjustment is required");
+		if (adjustments.size() > MAX_ADJUSTMENTS)
+			throw new BadRequestException("At most " + MAX_ADJUSTMENTS + " adjustments per request");
+
+		InventoryDTO.AdjustmentResult[] results = new InventoryDTO.AdjustmentResult[adjustments.size()];
+		List<int[]> rows = new ArrayList<>();
+		List<Integer> rowIndex = new ArrayList<>();
+		for (int i = 0; i < adjustments.size(); i++) {
+			InventoryDTO.Adjustment a = adjustments.get(i);
+			if (a == null || a.getStoreId() == null || a.getProductId() == null || a.getDelta() == null) {
+				results[i] = adjustmentResult(i, a, false, "storeId, productId and delta are required");
+				continue;
+			}
+			if (a.getDelta() < 0) {
+				boolean taken;
+				try {
+					taken = reservations.take(a.getStoreId(), a.getProductId(), -a.getDelta());
+				} catch (NotFoundException e) {
+					results[i] = adjustmentResult(i, a, false, ADJUST_NOT_FOUND);
+					continue;
+				}
+				if (!taken) {
+					results[i] = adjustmentResult(i, a, false, "Insufficient stock");
+					continue;
+				}
+			}
+			rows.add(new int[] { a.getStoreId(), a.getProductId(), a.getDelta() });
+			rowIndex.add(i);
+		}
+
+		int[] counts = rows.isEmpty() ? new int[0] : deltaRepo.applyGuarded(rows);
+		for (int count : counts) {
+			if (count == Statement.SUCCESS_NO_INFO) {
+				// Cannot tell applied from rejected rows: give everything back and roll the batch back
+				for (int[] row : rows)
+					if (row[2] < 0) reservations.adjusted(row[0], row[1], -row[2]);
+				throw new IllegalStateException("JDBC driver reported no per-row update counts for the adjustment batch");
+			}
+		}
+		List<int[]> applied = new ArrayList<>();
+		for (int k = 0; k < rows.size(); k++) {
+			int[] row = rows.get(k);
+			int i = rowIndex.get(k);
+			if (counts[k] > 0) {
+				applied.add(row);
+				results[i] = adjustmentResult(i, adjustments.get(i), true, null);
+			} else {
+				if (row[2] < 0) reservations.adjusted(row[0], row[1], -row[2]);   // give back what was taken
+				String error = repo.findQuantity(row[0], row[1]).isPresent() ? "Insufficient stock" : ADJUST_NOT_FOUND;
+				results[i] = adjustmentResult(i, adjustments.get(i), false, error);
+			}
+		}
+		if (!applied.isEmpty()) {
+			// Increments reach the engine on commit; decrements were taken up front and go back on rollback
+			AfterCommit.run(
+					() -> applied.stream().filter(r -> r[2] > 0).forEach(r -> reservations.adjusted(r[0], r[1], r[2])),
+					() -> applied.stream().filter(r -> r[2] < 0).forEach(r -> reservations.adjusted(r[0], r[1], -r[2])));
+			events.publishEvent(new InventoryChangedEvent(applied.stream()
+					.map(r -> new InventoryChangedEvent.StockChange(r[0], r[1], null)).toList()));
+		}
+		return Arrays.asList(results);
+	}
+
+	private static InventoryDTO.AdjustmentResult adjustmentResult(int index, InventoryDTO.Adjustment a,
+			boolean applied, String error) {
+		return InventoryDTO.AdjustmentResult.builder().index(index)
+				.storeId(a != null ? a.getStoreId() : null)
+				.productId(a != null ? a.getProductId() : null)
+				.applied(applied).error(error).build();
 	}
 
 	// ---------------------------------------------------------
@@ -94,17 +255,38 @@ public class InventoryService {
 	// ---------------------------------------------------------
 	// /inventory/category/{category} : treat as brand OR colour
 	// ---------------------------------------------------------
+	@Transactional(readOnly = true)
 	public List<InventoryDTO> byCategoryRequired(String category) {
-		final String cat = category == null ? "" : category.trim();
-		List<InventoryDTO> list = repo.findAll().stream().filter(i -> i.getProduct() != null
-				&& ((i.getProduct().getBrand() != null && i.getProduct().getBrand().equalsIgnoreCase(cat))
-						|| (i.getProduct().getColour() != null && i.getProduct().getColour().equalsIgnoreCase(cat))))
-				.map(mapper::toDto).toList();
+		int[] ids = categoryIndex.inventoryIds(category);
+		if (ids.length == 0)
+			throw new NotFoundException("Inventory records for the specified category not found.");
+		return loadByIds(ids, 0, ids.length);
+	}
 
-		if (list.isEmpty())
+	@Transactional(readOnly = true)
+	public InventoryDTO.Page byCategoryPage(String category, Integer page, Integer size) {
+		int p = page == null ? 0 : page;
+		int n = size == null ? DEFAULT_CATEGORY_PAGE_SIZE : size;
+		if (p < 0 || n < 1 || n > MAX_CATEGORY_PAGE_SIZE)
+			throw new BadRequestException("page must be >= 0 and size between 1 and " + MAX_CATEGORY_PAGE_SIZE);
+		int[] ids = categoryIndex.inventoryIds(category);
+		if (ids.length == 0)
 			throw new NotFoundException("Inventory records for the specified category not found.");
-		return list;
+		int from = (int) Math.min((long) p * n, ids.length);
+		int to = Math.min(from + n, ids.length);
+		return InventoryDTO.Page.builder().items(loadByIds(ids, from, to)).page(p).size(n).total(ids.length).build();
+	}
+
+	/** ids[from, to) as DTOs in id order, IDS_CHUNK per statement. */
+	private List<InventoryDTO> loadByIds(int[] ids, int from, int to) {
+		List<InventoryDTO> out = new ArrayList<>(to - from);
+		for (int i = from; i < to; i += IDS_CHUNK) {
+			List<Integer> chunk = new ArrayList<>(IDS_CHUNK);
+			for (int k = i; k < Math.min(i + IDS_CHUNK, to); k++)
+				chunk.add(ids[k]);
+			out.addAll(repo.findDtosByIds(chunk));
+		}
+		return out;
 	}
 
-	
-}
\ No newline at end of file
+}
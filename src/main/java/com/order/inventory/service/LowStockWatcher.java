@@ -0,0 +1,135 @@
+package com.order.inventory.service;
+
+import com.order.inventory.dto.InventoryDTO;
+import com.order.inventory.event.InventoryChangedEvent;
+import com.order.inventory.exception.BadRequestException;
+import com.order.inventory.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-(store, product) reorder thresholds. Inventory changes only mark their keys as
+ * pending (a set, so a hot key touched 1000 times between checks is read once); a
+ * scheduled check re-reads the pending rows per store in one query, maintains the set
+ * of rows at or below threshold and queues an alert on every transition into it.
+ * Thresholds are kept in memory only.
+ */
+@Slf4j
+@Service
+public class LowStockWatcher {
+
+    private static final int QUERY_CHUNK = 1_000;
+
+    private final InventoryRepository repo;
+
+    private final Map<Long, Integer> thresholds = new ConcurrentHashMap<>();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final Map<Long, InventoryDTO.LowStock> low = new ConcurrentHashMap<>();
+    private final BlockingQueue<InventoryDTO.LowStock> alerts;
+
+    public LowStockWatcher(InventoryRepository repo,
+                           @Value("${inventory.low-stock.max-alerts:10000}") int maxAlerts) {
+        this.repo = repo;
+        this.alerts = new ArrayBlockingQueue<>(maxAlerts);
+    }
+
+    public void setThresholds(List<InventoryDTO.Threshold> list) {
+        if (list == null || list.isEmpty()) throw new BadRequestException("At least one threshold is required");
+        for (InventoryDTO.Threshold t : list) {
+            if (t == null || t.getStoreId() == null || t.getProductId() == null)
+                throw new BadRequestException("storeId and productId are required");
+            if (t.getThreshold() != null && t.getThreshold() < 0)
+                throw new BadRequestException("threshold cannot be negative");
+        }
+        for (InventoryDTO.Threshold t : list) {
+            long key = StockReservationEngine.key(t.getStoreId(), t.getProductId());
+            if (t.getThreshold() == null) {
+                thresholds.remove(key);
+                low.remove(key);
+            } else {
+                thresholds.put(key, t.getThreshold());
+                pending.add(key);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent e) {
+        for (InventoryChangedEvent.StockChange c : e.changes()) {
+            long key = StockReservationEngine.key(c.storeId(), c.productId());
+            if (thresholds.containsKey(key)) pending.add(key);
+        }
+    }
+
+    /** Rows currently at or below their threshold, optionally for one store; no DB access. */
+    public List<InventoryDTO.LowStock> lowStock(Integer storeId) {
+        return low.values().stream()
+                .filter(l -> storeId == null || storeId.equals(l.getStoreId()))
+                .sorted(Comparator.comparing(InventoryDTO.LowStock::getStoreId)
+                        .thenComparing(InventoryDTO.LowStock::getProductId))
+                .toList();
+    }
+
+    /** Removes and returns up to {@code max} alerts, oldest first. */
+    public List<InventoryDTO.LowStock> drainAlerts(int max) {
+        List<InventoryDTO.LowStock> out = new ArrayList<>(Math.min(max, alerts.size()));
+        alerts.drainTo(out, max);
+        return out;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.low-stock.check-ms:100}")
+    public void checkPending() {
+        if (pending.isEmpty()) return;
+        Map<Integer, List<Integer>> productsByStore = new HashMap<>();
+        for (Iterator<Long> it = pending.iterator(); it.hasNext(); ) {
+            long key = it.next();
+            it.remove();
+            productsByStore.computeIfAbsent((int) (key >>> 32), k -> new ArrayList<>()).add((int) key);
+        }
+        Instant now = Instant.now();
+        productsByStore.forEach((storeId, productIds) -> {
+            for (int from = 0; from < productIds.size(); from += QUERY_CHUNK) {
+                List<Integer> chunk = productIds.subList(from, Math.min(from + QUERY_CHUNK, productIds.size()));
+                Map<Integer, Integer> quantities = new HashMap<>();
+                try {
+                    for (Object[] r : repo.findQuantities(storeId, chunk)) quantities.put((Integer) r[0], (Integer) r[1]);
+                } catch (RuntimeException ex) {
+                    // Keys were already taken off pending: put them back for the next check
+                    for (Integer productId : chunk) pending.add(StockReservationEngine.key(storeId, productId));
+                    log.warn("Low-stock check of {} rows in store {} failed, retrying: {}", chunk.size(), storeId, ex.getMessage());
+                    continue;
+                }
+                for (Integer productId : chunk) evaluate(storeId, productId, quantities.get(productId), now);
+            }
+        });
+    }
+
+    private void evaluate(int storeId, int productId, Integer quantity, Instant now) {
+        long key = StockReservationEngine.key(storeId, productId);
+        Integer threshold = thresholds.get(key);
+        if (threshold == null || quantity == null || quantity > threshold) {
+            low.remove(key);
+            return;
+        }
+        InventoryDTO.LowStock before = low.get(key);
+        InventoryDTO.LowStock current = InventoryDTO.LowStock.builder()
+                .storeId(storeId).productId(productId).quantity(quantity).threshold(threshold)
+                .since(before != null ? before.getSince() : now)
+                .build();
+        low.put(key, current);
+        if (before == null && !alerts.offer(current)) {
+            // Full: drop the oldest so the queue always holds the most recent alerts
+            alerts.poll();
+            alerts.offer(current);
+        }
+    }
+}
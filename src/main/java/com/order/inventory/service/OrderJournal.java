@@ -0,0 +1,113 @@
+package com.order.inventory.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only journal behind {@link AsyncOrderWriter}, one event per line:
+ * <pre>
+ * A &lt;ticket&gt; &lt;customerId&gt; &lt;storeId&gt; &lt;STATUS&gt; &lt;orderTms&gt;   accepted
+ * C &lt;ticket&gt; &lt;orderId&gt;                                  committed to MySQL
+ * F &lt;ticket&gt;                                             rejected when flushed
+ * </pre>
+ * Accepted tickets without a C/F line are still open and are replayed on startup.
+ * {@link #sync} is group-committed: one fsync covers every line written before it started.
+ */
+final class OrderJournal implements Closeable {
+
+    private final Path path;
+    private final Object syncLock = new Object();   // lock order: syncLock, then this
+
+    private FileChannel channel;
+    private long written;                            // guarded by this
+    private long synced;                             // guarded by syncLock
+    private final Map<String, String> open = new LinkedHashMap<>();  // ticket -> A line, guarded by this
+
+    OrderJournal(Path path) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        if (Files.exists(path)) {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) track(line);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        written = channel.size();
+        synced = written;
+    }
+
+    /** A lines of tickets that were accepted but never committed or rejected. */
+    synchronized List<String> openEntries() {
+        return new ArrayList<>(open.values());
+    }
+
+    /** Appends one line; returns the journal position to pass to {@link #sync}. */
+    synchronized long append(String line) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buf.hasRemaining()) written += channel.write(buf);
+        track(line);
+        return written;
+    }
+
+    /** Returns once everything up to {@code position} is on disk. */
+    void sync(long position) throws IOException {
+        synchronized (syncLock) {
+            if (synced >= position) return;
+            long target;
+            synchronized (this) {
+                target = written;
+            }
+            channel.force(false);
+            synced = target;
+        }
+    }
+
+    synchronized long size() {
+        return written;
+    }
+
+    /** Rewrites the journal with only the open A lines. */
+    void compact() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+                Files.writeString(tmp, open.values().stream().map(l -> l + "\n").collect(Collectors.joining()), StandardCharsets.UTF_8);
+                try (FileChannel c = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    c.force(true);
+                }
+                channel.close();
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                written = channel.size();
+                synced = written;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                channel.force(false);
+                channel.close();
+            }
+        }
+    }
+
+    private void track(String line) {
+        if (line.length() < 3) return;
+        String ticket = line.split(" ", 3)[1];
+        if (line.charAt(0) == 'A') open.put(ticket, line);
+        else open.remove(ticket);
+    }
+}
@@ -1,5 +1,9 @@
 package com.order.inventory.service;
 
+import com.order.inventory.cache.CustomerIdCache;
+import com.order.inventory.cache.OrderDayIndex;
+import com.order.inventory.cache.OrderStatusCounters;
+import com.order.inventory.cache.StoreNameResolver;
 import com.order.inventory.dto.OrderDTO;
 import com.order.inventory.dto.OrderDTO.LineItem;
 import com.order.inventory.entity.Customer;
@@ -8,21 +12,27 @@ import com.order.inventory.entity.OrderStatus;
 import com.order.inventory.entity.Store;
 import com.order.inventory.exception.BadRequestException;
 import com.order.inventory.exception.NotFoundException;
-import com.order.inventory.mapper.OrderItemMapper;
 import com.order.inventory.mapper.OrderMapper;
 import com.order.inventory.repository.CustomerRepository;
-import com.order.inventory.repository.OrderItemRepository;
 import com.order.inventory.repository.OrderRepository;
 import com.order.inventory.repository.StoreRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.*;
 import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -30,18 +40,94 @@ import java.util.stream.Collectors;
 public class OrderService {
 
     private final OrderRepository orderRepo;
-    private final OrderItemRepository itemRepo;
     private final CustomerRepository customerRepo;
     private final StoreRepository storeRepo;
     private final OrderMapper orderMapper;
-    private final OrderItemMapper itemMapper;
+    private final TransactionTemplate txTemplate;
+    private final OrderStatusCounters statusCounters;
+    private final OrderDayIndex dayIndex;
+    private final StoreNameResolver storeNames;
+    private final CustomerIdCache customerIds;
+
+    static final int DEFAULT_PAGE_SIZE = 1000;
+    static final int MAX_PAGE_SIZE = 10_000;
+    static final int MAX_DETAILS_BATCH = 5_000;
+    static final int DETAILS_CHUNK = 1_000;   // IN-list size per statement
+    static final int MAX_BULK_ORDERS = 10_000;
+    static final int BULK_CHUNK = 500;        // one transaction / JDBC batch per chunk
+    static final int RANGE_PAGE_SIZE = 1_000;
+    static final String INSERT_FAILED = "Insert failed: ";   // BulkResult error for a row the DB rejected (constraint)
+    static final String INSERT_UNAVAILABLE = "Insert not committed, retry: ";   // ... for rows whose chunk hit a transient DB error
 
     // ---------------------------------------------------------------------
     // Basic CRUD / Reads
     // ---------------------------------------------------------------------
 
     public List<OrderDTO> all() {
-        return orderRepo.findAll().stream().map(orderMapper::toDto).toList();
+        return orderRepo.findAllSummaries();
+    }
+
+    /**
+     * Keyset page ordered by (orderTms, id). The cursor is opaque to clients; it encodes
+     * the sort key of the last row so the next page is a seek, not an OFFSET scan.
+     */
+    @Transactional(readOnly = true)
+    public OrderDTO.Page page(String cursor, Integer limit) {
+        return keysetPage(cursor, limit, orderRepo::findFirstPage,
+                (after, fetch) -> orderRepo.findPageAfter(after.getOrderTms(), after.getId(), fetch));
+    }
+
+    private OrderDTO.Page keysetPage(String cursor, Integer limit,
+                                     Function<Limit, List<OrderDTO>> firstPage,
+                                     BiFunction<OrderDTO, Limit, List<OrderDTO>> pageAfter) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        // Fetch one extra row to know whether another page exists
+        Limit fetch = Limit.of(size + 1);
+        List<OrderDTO> rows = (cursor == null || cursor.isBlank())
+                ? firstPage.apply(fetch)
+                : pageAfter.apply(decodeCursor(cursor), fetch);
+        if (rows.size() <= size) {
+            return OrderDTO.Page.builder().items(rows).build();
+        }
+        List<OrderDTO> items = rows.subList(0, size);
+        return OrderDTO.Page.builder()
+                .items(items)
+                .nextCursor(encodeCursor(items.get(size - 1)))
+                .build();
+    }
+
+    /**
+     * Pushes every order to the sink from a forward-only cursor; nothing is collected,
+     * so heap use does not depend on table size. Must run inside this transaction.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<OrderDTO> sink) {
+        try (Stream<OrderDTO> rows = orderRepo.streamAll()) {
+            rows.forEach(sink);
+        }
+    }
+
+    static String encodeCursor(OrderDTO last) {
+        Instant tms = last.getOrderTms();
+        String raw = tms.getEpochSecond() + ":" + tms.getNano() + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static OrderDTO decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3) throw new IllegalArgumentException(raw);
+            return OrderDTO.builder()
+                    .orderTms(Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])))
+                    .id(Integer.valueOf(parts[2]))
+                    .build();
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
     }
 
     public OrderDTO get(Integer id) {
@@ -67,11 +153,127 @@ public class OrderService {
             throw new BadRequestException("Invalid order status");
         }
         o.setOrderTms(dto.getOrderTms() != null ? dto.getOrderTms() : Instant.now());
-        return orderMapper.toDto(orderRepo.save(o));
+        Order saved = orderRepo.save(o);
+        statusCounters.recordCreated(saved.getOrderStatus());
+        dayIndex.recordCreated(saved.getOrderTms());
+        return orderMapper.toDto(saved);
+    }
+
+    /**
+     * Bulk create. Customers and stores are resolved once for the whole request, rows
+     * that fail validation are reported by index, and valid rows are inserted in chunks,
+     * each in its own transaction, so one bad chunk never undoes the others. A chunk
+     * rejected by a constraint is bisected until only the offending rows are reported.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderDTO.BulkResult createBulk(List<OrderDTO> dtos) {
+        if (dtos == null || dtos.isEmpty()) throw new BadRequestException("At least one order is required");
+        if (dtos.size() > MAX_BULK_ORDERS) {
+            throw new BadRequestException("At most " + MAX_BULK_ORDERS + " orders per request");
+        }
+
+        Set<Integer> customerIds = new HashSet<>();
+        Set<Integer> storeIds = new HashSet<>();
+        for (OrderDTO dto : dtos) {
+            if (dto == null) continue;
+            if (dto.getCustomerId() != null) customerIds.add(dto.getCustomerId());
+            if (dto.getStoreId() != null) storeIds.add(dto.getStoreId());
+        }
+        Set<Integer> knownCustomers = customerIds.isEmpty() ? Set.of() : new HashSet<>(customerRepo.findExistingIds(customerIds));
+        Set<Integer> knownStores = storeIds.isEmpty() ? Set.of() : new HashSet<>(storeRepo.findExistingIds(storeIds));
+
+        List<OrderDTO.RowError> errors = new ArrayList<>();
+        List<BulkRow> pending = new ArrayList<>();
+        Instant now = Instant.now();
+        for (int i = 0; i < dtos.size(); i++) {
+            OrderDTO dto = dtos.get(i);
+            String error = validateBulkRow(dto, knownCustomers, knownStores);
+            if (error != null) {
+                errors.add(OrderDTO.RowError.builder().index(i).error(error).build());
+                continue;
+            }
+            pending.add(new BulkRow(i, dto.getCustomerId(), dto.getStoreId(),
+                    OrderStatus.valueOf(dto.getStatus().toUpperCase()),
+                    dto.getOrderTms() != null ? dto.getOrderTms() : now));
+        }
+
+        List<Integer> createdIds = new ArrayList<>();
+        for (int from = 0; from < pending.size(); from += BULK_CHUNK) {
+            insertBulkRows(pending.subList(from, Math.min(from + BULK_CHUNK, pending.size())), createdIds, errors);
+        }
+        errors.sort(Comparator.comparing(OrderDTO.RowError::getIndex));
+
+        return OrderDTO.BulkResult.builder()
+                .received(dtos.size())
+                .created(createdIds.size())
+                .createdIds(createdIds)
+                .errors(errors)
+                .build();
+    }
+
+    private record BulkRow(int index, Integer customerId, Integer storeId, OrderStatus status, Instant orderTms) { }
+
+    /**
+     * Inserts the rows in one transaction. Entities and references are created inside it,
+     * so a retry never reuses proxies or ids from a rolled-back attempt. On a constraint
+     * violation the rows are split in halves and retried until the offending row is alone,
+     * which gets {@link #INSERT_FAILED}. Any other failure (deadlock, lock wait timeout,
+     * lost connection) marks the whole slice {@link #INSERT_UNAVAILABLE}: nothing is wrong
+     * with those rows and a later attempt may commit them.
+     */
+    private void insertBulkRows(List<BulkRow> rows, List<Integer> createdIds, List<OrderDTO.RowError> errors) {
+        try {
+            List<Order> saved = txTemplate.execute(status -> {
+                List<Order> orders = new ArrayList<>(rows.size());
+                for (BulkRow r : rows) {
+                    Order o = new Order();
+                    // References only: existence was checked up front, so no SELECT per row
+                    o.setCustomer(customerRepo.getReferenceById(r.customerId()));
+                    o.setStore(storeRepo.getReferenceById(r.storeId()));
+                    o.setOrderStatus(r.status());
+                    o.setOrderTms(r.orderTms());
+                    orders.add(o);
+                }
+                List<Order> out = orderRepo.saveAll(orders);
+                orderRepo.flush();
+                return out;
+            });
+            saved.forEach(o -> {
+                createdIds.add(o.getId());
+                statusCounters.recordCreated(o.getOrderStatus());
+                dayIndex.recordCreated(o.getOrderTms());
+            });
+        } catch (DataIntegrityViolationException ex) {
+            if (rows.size() > 1) {
+                int mid = rows.size() / 2;
+                insertBulkRows(rows.subList(0, mid), createdIds, errors);
+                insertBulkRows(rows.subList(mid, rows.size()), createdIds, errors);
+            } else {
+                errors.add(OrderDTO.RowError.builder().index(rows.get(0).index()).error(INSERT_FAILED + ex.getMessage()).build());
+            }
+        } catch (RuntimeException ex) {
+            String message = INSERT_UNAVAILABLE + ex.getMessage();
+            for (BulkRow r : rows) errors.add(OrderDTO.RowError.builder().index(r.index()).error(message).build());
+        }
+    }
+
+    private static String validateBulkRow(OrderDTO dto, Set<Integer> knownCustomers, Set<Integer> knownStores) {
+        if (dto == null || dto.getCustomerId() == null || dto.getStoreId() == null || dto.getStatus() == null)
+            return "customerId, storeId and status are required";
+        try {
+            OrderStatus.valueOf(dto.getStatus().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return "Invalid order status";
+        }
+        if (!knownCustomers.contains(dto.getCustomerId())) return "Customer not found";
+        if (!knownStores.contains(dto.getStoreId())) return "Store not found";
+        return null;
     }
 
     public OrderDTO update(Integer id, OrderDTO dto) {
         Order o = orderRepo.findById(id).orElseThrow(() -> new NotFoundException("Order not found"));
+        OrderStatus before = o.getOrderStatus();
+        Instant beforeTms = o.getOrderTms();
         if (dto.getStatus() != null) {
             try {
                 o.setOrderStatus(OrderStatus.valueOf(dto.getStatus().toUpperCase()));
@@ -93,21 +295,26 @@ public class OrderService {
                     .orElseThrow(() -> new NotFoundException("Store not found"));
             o.setStore(s);
         }
-        return orderMapper.toDto(orderRepo.save(o));
+        Order saved = orderRepo.save(o);
+        statusCounters.recordTransition(before, saved.getOrderStatus());
+        dayIndex.recordMoved(beforeTms, saved.getOrderTms());
+        return orderMapper.toDto(saved);
     }
 
     public void delete(Integer id) {
-        if (!orderRepo.existsById(id)) throw new NotFoundException("Order not found");
-        orderRepo.deleteById(id);
+        Order o = orderRepo.findById(id).orElseThrow(() -> new NotFoundException("Order not found"));
+        orderRepo.delete(o);
+        statusCounters.recordTransition(o.getOrderStatus(), null);
+        dayIndex.recordMoved(o.getOrderTms(), null);
     }
 
     // ---------------------------------------------------------------------
     // Aggregations / Filters
     // ---------------------------------------------------------------------
 
+    // Served from the in-memory counters; see OrderStatusCounters for how they stay in sync
     public Map<String, Long> countByStatus() {
-        return orderRepo.countOrdersByStatus().stream()
-                .collect(Collectors.toMap(r -> String.valueOf(r[0]), r -> ((Number) r[1]).longValue()));
+        return statusCounters.snapshot();
     }
 
     public List<OrderDTO> byStatus(String status) {
@@ -117,11 +324,11 @@ public class OrderService {
         } catch (IllegalArgumentException e) {
             throw new BadRequestException("Invalid status");
         }
-        return orderRepo.findByOrderStatus(st).stream().map(orderMapper::toDto).toList();
+        return orderRepo.findByOrderStatus(st);
     }
 
     public List<OrderDTO> byCustomer(Integer customerId) {
-        return orderRepo.findByCustomerId(customerId).stream().map(orderMapper::toDto).toList();
+        return orderRepo.findByCustomerId(customerId);
     }
 
     /**
@@ -137,19 +344,71 @@ public class OrderService {
     }
 
     public List<OrderDTO> byCustomerEmail(String email) {
-        return orderRepo.findByCustomerEmail(email).stream().map(orderMapper::toDto).toList();
+        return customerIds.resolve(email).map(orderRepo::findByCustomerId).orElse(List.of());
     }
 
     public List<OrderDTO> byStoreName(String storeName) {
-        return orderRepo.findByStoreName(storeName).stream().map(orderMapper::toDto).toList();
+        List<Integer> storeIds = storeNames.resolve(storeName);
+        if (storeIds.isEmpty()) return List.of();
+        return orderRepo.findByStoreIds(storeIds);
     }
 
+    /** Keyset page of a store's orders; same cursor format as {@link #page}. */
+    public OrderDTO.Page byStoreNamePage(String storeName, String cursor, Integer limit) {
+        List<Integer> storeIds = storeNames.resolve(storeName);
+        if (storeIds.isEmpty()) return OrderDTO.Page.builder().items(List.of()).build();
+        return keysetPage(cursor, limit, fetch -> orderRepo.findByStoreIdsFirstPage(storeIds, fetch),
+                (after, fetch) -> orderRepo.findByStoreIdsPageAfter(storeIds, after.getOrderTms(), after.getId(), fetch));
+    }
+
+    /** Orders in [startDate 00:00, endDate + 1 day 00:00) UTC, the same window the stream uses. */
     public List<OrderDTO> byDateRange(String startDate, String endDate) {
+        LocalDate[] range = parseRange(startDate, endDate);
+        return orderRepo.findByDateRange(startOf(range[0]), startOf(range[1].plusDays(1)));
+    }
+
+    private static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    /** Per-day counts for the range, answered from the day index (no SQL); an estimate between rebuilds. */
+    public OrderDTO.DayCounts dayCounts(String startDate, String endDate) {
+        LocalDate[] range = parseRange(startDate, endDate);
+        Map<LocalDate, Long> days = dayIndex.countsBetween(range[0], range[1]);
+        return OrderDTO.DayCounts.builder()
+                .startDate(range[0])
+                .endDate(range[1])
+                .total(days.values().stream().mapToLong(Long::longValue).sum())
+                .days(days)
+                .build();
+    }
+
+    /**
+     * Streams the range from the DB in short keyset pages over [start, end), so no statement
+     * or transaction spans the whole range. The day index is not consulted: it can miss
+     * orders written by other instances or since its last rebuild.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamByDateRange(String startDate, String endDate, Consumer<OrderDTO> sink) {
+        LocalDate[] range = parseRange(startDate, endDate);
+        Instant from = startOf(range[0]);
+        Instant to = startOf(range[1].plusDays(1));
+        Limit limit = Limit.of(RANGE_PAGE_SIZE);
+        List<OrderDTO> page = orderRepo.findRangeFirstPage(from, to, limit);
+        while (!page.isEmpty()) {
+            page.forEach(sink);
+            if (page.size() < RANGE_PAGE_SIZE) break;
+            OrderDTO last = page.get(page.size() - 1);
+            page = orderRepo.findRangePageAfter(from, to, last.getOrderTms(), last.getId(), limit);
+        }
+    }
+
+    private static LocalDate[] parseRange(String startDate, String endDate) {
         try {
-            Instant start = LocalDate.parse(startDate).atStartOfDay(ZoneOffset.UTC).toInstant();
-            Instant end = LocalDate.parse(endDate).plusDays(1).atStartOfDay(ZoneOffset.UTC).minusSeconds(1).toInstant();
+            LocalDate start = LocalDate.parse(startDate);
+            LocalDate end = LocalDate.parse(endDate);
             if (start.isAfter(end)) throw new BadRequestException("startDate must be <= endDate");
-            return orderRepo.findByDateRange(start, end).stream().map(orderMapper::toDto).toList();
+            return new LocalDate[]{start, end};
         } catch (DateTimeParseException ex) {
             throw new BadRequestException("Dates must be yyyy-MM-dd");
         }
@@ -160,25 +419,73 @@ public class OrderService {
     // ---------------------------------------------------------------------
 
     public OrderDTO.Details details(Integer orderId) {
-        Order o = orderRepo.findById(orderId).orElseThrow(() -> new NotFoundException("Order not found"));
-        List<LineItem> items = itemRepo.findByOrderId(orderId).stream().map(itemMapper::toLineItem).toList();
-        BigDecimal total = itemRepo.totalAmountByOrderId(orderId);
-        return OrderDTO.Details.builder()
-                .orderId(orderId)
-                .storeName(o.getStore().getStoreName())
-                .shipmentStatus(items.stream()
-                        .map(LineItem::getShipmentStatus)
-                        .filter(Objects::nonNull)
-                        .findFirst()
-                        .orElse(null))
-                .items(items)
-                .totalAmount(total)
-                .build();
+        List<OrderDTO.Details> out = loadDetails(List.of(orderId));
+        if (out.isEmpty()) throw new NotFoundException("Order not found");
+        return out.get(0);
+    }
+
+    /**
+     * Details for many orders, in request order; unknown ids are skipped.
+     * Ids are queried in chunks so each IN-list stays small enough for the optimizer.
+     */
+    public List<OrderDTO.Details> detailsBatch(List<Integer> orderIds) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            throw new BadRequestException("At least one order id is required");
+        }
+        if (orderIds.size() > MAX_DETAILS_BATCH) {
+            throw new BadRequestException("At most " + MAX_DETAILS_BATCH + " order ids per request");
+        }
+        if (orderIds.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("Order ids must not be null");
+        }
+        List<Integer> distinct = List.copyOf(new LinkedHashSet<>(orderIds));
+        Map<Integer, OrderDTO.Details> byId = new HashMap<>();
+        for (int from = 0; from < distinct.size(); from += DETAILS_CHUNK) {
+            List<Integer> chunk = distinct.subList(from, Math.min(from + DETAILS_CHUNK, distinct.size()));
+            loadDetails(chunk).forEach(d -> byId.put(d.getOrderId(), d));
+        }
+        return distinct.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    // One round trip per call: rows come back ordered by order id, one per line item
+    private List<OrderDTO.Details> loadDetails(Collection<Integer> orderIds) {
+        List<OrderDTO.Details> out = new ArrayList<>();
+        OrderDTO.Details current = null;
+        for (Object[] r : orderRepo.findDetailRows(orderIds)) {
+            Integer orderId = (Integer) r[0];
+            if (current == null || !current.getOrderId().equals(orderId)) {
+                current = OrderDTO.Details.builder()
+                        .orderId(orderId)
+                        .storeName((String) r[1])
+                        .items(new ArrayList<>())
+                        .totalAmount(BigDecimal.ZERO)
+                        .build();
+                out.add(current);
+            }
+            if (r[3] == null) continue; // order without line items
+            BigDecimal unitPrice = (BigDecimal) r[5];
+            Integer quantity = (Integer) r[6];
+            String shipmentStatus = r[7] != null ? String.valueOf(r[7]) : null;
+            current.getItems().add(LineItem.builder()
+                    .lineItemId((Integer) r[2])
+                    .productId((Integer) r[3])
+                    .productName((String) r[4])
+                    .unitPrice(unitPrice)
+                    .quantity(quantity)
+                    .shipmentStatus(shipmentStatus)
+                    .build());
+            current.setTotalAmount(current.getTotalAmount().add(unitPrice.multiply(BigDecimal.valueOf(quantity))));
+            if (current.getShipmentStatus() == null) current.setShipmentStatus(shipmentStatus);
+        }
+        return out;
     }
 
     public OrderDTO cancel(Integer id) {
         Order o = orderRepo.findById(id).orElseThrow(() -> new NotFoundException("Order not found"));
+        OrderStatus before = o.getOrderStatus();
         o.setOrderStatus(OrderStatus.CANCELLED);
-        return orderMapper.toDto(orderRepo.save(o));
+        Order saved = orderRepo.save(o);
+        statusCounters.recordTransition(before, OrderStatus.CANCELLED);
+        return orderMapper.toDto(saved);
     }
 }
\ No newline at end of file
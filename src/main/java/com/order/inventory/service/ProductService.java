@@ -1,18 +1,33 @@
 package com.order.inventory.service;
 
+import com.order.inventory.cache.ProductCatalog;
+import com.order.inventory.cache.ProductFacetIndex;
+import com.order.inventory.cache.ProductNameIndex;
+import com.order.inventory.cache.ProductPriceIndex;
+import com.order.inventory.cache.ProductSuggester;
 import com.order.inventory.dto.ProductDTO;
 import com.order.inventory.entity.Product;
+import com.order.inventory.event.ProductChangedEvent;
 import com.order.inventory.exception.BadRequestException;
 import com.order.inventory.exception.NotFoundException;
 import com.order.inventory.mapper.ProductMapper;
 import com.order.inventory.repository.ProductRepository;
+import com.order.inventory.repository.ProductSpecifications;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Service
@@ -22,6 +37,18 @@ public class ProductService {
 
     private final ProductRepository repo;
     private final ProductMapper mapper;
+    private final ApplicationEventPublisher events;
+    private final ProductNameIndex nameIndex;
+    private final ProductFacetIndex facetIndex;
+    private final ProductCatalog catalog;
+    private final ProductPriceIndex priceIndex;
+    private final ProductSuggester suggester;
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 1_000;
+    static final int ID_CHUNK = 1_000;   // IN-list size per statement
+    static final int DEFAULT_SUGGESTIONS = 10;
+    static final int MAX_SUGGESTIONS = 50;
 
     // Whitelist sort fields to avoid runtime errors on unknown properties
     private static final Set<String> ALLOWED_SORT_FIELDS = Set.of(
@@ -31,28 +58,67 @@ public class ProductService {
     /**
      * GET /products  – supports optional ?sort=field
      * If sort is provided and invalid, we throw 400 to match CSV guidance on invalid sort field.
+     * Served from the pre-sorted catalog snapshot; the DB only until its first load.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<ProductDTO> getAll(String sortField) {
+        String field = "id";
         Sort sort = Sort.unsorted();
         if (sortField != null && !sortField.isBlank()) {
             if (!ALLOWED_SORT_FIELDS.contains(sortField)) {
                 throw new BadRequestException("Invalid sort field. Allowed: " + ALLOWED_SORT_FIELDS);
             }
+            field = sortField;
             sort = Sort.by(sortField).ascending();
         }
+        ProductCatalog.View view = catalog.view();
+        if (view != null) return view.slice(field, false, 0, view.size());
         return repo.findAll(sort).stream().map(mapper::toDto).toList();
     }
 
     /**
      * GET /products/sort?field=value – explicit CSV endpoint, requires a valid field.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<ProductDTO> getAllStrict(String field) {
         if (field == null || field.isBlank() || !ALLOWED_SORT_FIELDS.contains(field)) {
             throw new BadRequestException("Invalid sort field. Allowed: " + ALLOWED_SORT_FIELDS);
         }
+        ProductCatalog.View view = catalog.view();
+        if (view != null) return view.slice(field, false, 0, view.size());
         return repo.findAll(Sort.by(field).ascending()).stream().map(mapper::toDto).toList();
     }
 
+    /**
+     * GET /products?sort&dir&page&size – one page in the given order (default id, asc).
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProductDTO.Page getPage(String sortField, String dir, Integer page, Integer size) {
+        String field = sortField == null || sortField.isBlank() ? "id" : sortField;
+        if (!ALLOWED_SORT_FIELDS.contains(field)) {
+            throw new BadRequestException("Invalid sort field. Allowed: " + ALLOWED_SORT_FIELDS);
+        }
+        if (dir != null && !dir.equalsIgnoreCase("asc") && !dir.equalsIgnoreCase("desc")) {
+            throw new BadRequestException("dir must be asc or desc");
+        }
+        boolean descending = "desc".equalsIgnoreCase(dir);
+        int p = page == null ? 0 : page;
+        int s = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (p < 0 || s < 1 || s > MAX_PAGE_SIZE)
+            throw new BadRequestException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        long from = (long) p * s;
+
+        ProductCatalog.View view = catalog.view();
+        if (view != null) {
+            List<ProductDTO> items = from >= view.size() ? List.of() : view.slice(field, descending, (int) from, (int) (from + s));
+            return new ProductDTO.Page(items, p, s, view.size());
+        }
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = field.equals("id") ? Sort.by(direction, "id") : Sort.by(direction, field, "id");
+        org.springframework.data.domain.Page<Product> rows = repo.findAll(PageRequest.of(p, s, sort));
+        return new ProductDTO.Page(rows.map(mapper::toDto).getContent(), p, s, (int) rows.getTotalElements());
+    }
+
     /**
      * POST /products – create
      */
@@ -64,7 +130,8 @@ public class ProductService {
             throw new BadRequestException("unitPrice cannot be negative");
         }
         Product e = mapper.toEntity(dto);
-        return mapper.toDto(repo.save(e));
+        Product saved = repo.save(e);
+        return publishChanged(saved);
     }
 
     /**
@@ -83,7 +150,8 @@ public class ProductService {
             }
             p.setUnitPrice(dto.getUnitPrice());
         }
-        return mapper.toDto(repo.save(p));
+        Product saved = repo.save(p);
+        return publishChanged(saved);
     }
 
     /**
@@ -92,8 +160,10 @@ public class ProductService {
     public void delete(Integer id) {
         if (!repo.existsById(id)) throw new NotFoundException("Product not found");
         repo.deleteById(id);
+        events.publishEvent(ProductChangedEvent.deleted(id));
     }
 
+
     /**
      * GET /products/brand/{brand}
      * 404 if none
@@ -116,24 +186,156 @@ public class ProductService {
 
     /**
      * GET /products/unitprice?min&max
+     * Cheapest first (ties by id) from the price index; the SQL range query until it is built.
      */
     public List<ProductDTO> byPrice(BigDecimal min, BigDecimal max) {
+        checkPriceRange(min, max);
+        if (priceIndex.isReady()) return byIds(ids(priceIndex.ids(min, max, 0, Integer.MAX_VALUE)));
+        return repo.findByUnitPriceBetween(min, max).stream().map(mapper::toDto).toList();
+    }
+
+    /**
+     * GET /products/unitprice?min&max&count=true
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProductDTO.PriceCount countByPrice(BigDecimal min, BigDecimal max) {
+        checkPriceRange(min, max);
+        long count = priceIndex.isReady() ? priceIndex.count(min, max) : repo.countByUnitPriceBetween(min, max);
+        return new ProductDTO.PriceCount(min, max, count);
+    }
+
+    /**
+     * GET /products/unitprice?min&max&page&size – one page, cheapest first, plus the total.
+     */
+    public ProductDTO.Page byPricePage(BigDecimal min, BigDecimal max, Integer page, Integer size) {
+        checkPriceRange(min, max);
+        int p = page == null ? 0 : page;
+        int s = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (p < 0 || s < 1 || s > MAX_PAGE_SIZE)
+            throw new BadRequestException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        if (priceIndex.isReady()) {
+            int offset = (int) Math.min(Integer.MAX_VALUE, (long) p * s);
+            return new ProductDTO.Page(byIds(ids(priceIndex.ids(min, max, offset, s))), p, s, priceIndex.count(min, max));
+        }
+        org.springframework.data.domain.Page<Product> rows =
+                repo.findByUnitPriceBetween(min, max, PageRequest.of(p, s, Sort.by("unitPrice", "id")));
+        return new ProductDTO.Page(rows.map(mapper::toDto).getContent(), p, s, (int) rows.getTotalElements());
+    }
+
+    private static void checkPriceRange(BigDecimal min, BigDecimal max) {
         if (min == null || max == null || min.compareTo(max) > 0) {
             throw new BadRequestException("Invalid min/max price");
         }
         if (min.compareTo(BigDecimal.ZERO) < 0) {
             throw new BadRequestException("min cannot be negative");
         }
-        return repo.findByUnitPriceBetween(min, max).stream().map(mapper::toDto).toList();
+    }
+
+    private static List<Integer> ids(int[] ids) {
+        return Arrays.stream(ids).boxed().toList();
     }
 
     /**
      * GET /products/{productname}
-     * 404 if none
+     * Ranked matches from the trigram index (SQL LIKE until it is built); 404 if none
      */
     public List<ProductDTO> byName(String name) {
-        List<ProductDTO> out = repo.searchByName(name).stream().map(mapper::toDto).toList();
+        List<ProductDTO> out = nameIndex.isReady()
+                ? byIds(nameIndex.search(name))
+                : repo.searchByName(name).stream().map(mapper::toDto).toList();
         if (out.isEmpty()) throw new NotFoundException("No products found matching name: " + name);
         return out;
     }
-}
\ No newline at end of file
+
+    /**
+     * GET /products/{productname}?page&size – one page of the ranked matches plus the
+     * total. Before the name index is built the LIKE query is paged in memory.
+     */
+    public ProductDTO.Page byNamePage(String name, Integer page, Integer size) {
+        int p = page == null ? 0 : page;
+        int s = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (p < 0 || s < 1 || s > MAX_PAGE_SIZE)
+            throw new BadRequestException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        long from = (long) p * s;
+        List<ProductDTO> items;
+        int total;
+        if (nameIndex.isReady()) {
+            List<Integer> ids = nameIndex.search(name);
+            total = ids.size();
+            items = byIds(ids.subList((int) Math.min(from, total), (int) Math.min(from + s, total)));
+        } else {
+            List<ProductDTO> all = repo.searchByName(name).stream().map(mapper::toDto).toList();
+            total = all.size();
+            items = all.subList((int) Math.min(from, total), (int) Math.min(from + s, total));
+        }
+        if (total == 0) throw new NotFoundException("No products found matching name: " + name);
+        return new ProductDTO.Page(items, p, s, total);
+    }
+
+    /**
+     * GET /products/search – brand/colour/size (any of, case-insensitive), minimum rating and
+     * price range, ANDed together. Pages are keyset by id: pass the returned nextAfter as
+     * {@code after}. Facet counts and the total come from the in-memory facet index.
+     */
+    @Transactional(readOnly = true)
+    public ProductDTO.SearchResult search(List<String> brands, List<String> colours, List<String> sizes,
+                                          Integer minRating, BigDecimal minPrice, BigDecimal maxPrice,
+                                          Integer after, Integer limit) {
+        int l = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (l < 1 || l > MAX_PAGE_SIZE) throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        if ((minPrice != null && minPrice.signum() < 0) || (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0))
+            throw new BadRequestException("Invalid min/max price");
+
+        Specification<Product> spec = Specification.allOf(
+                ProductSpecifications.brandIn(brands),
+                ProductSpecifications.colourIn(colours),
+                ProductSpecifications.sizeIn(sizes),
+                ProductSpecifications.ratingAtLeast(minRating),
+                ProductSpecifications.priceBetween(minPrice, maxPrice),
+                ProductSpecifications.idAfter(after));
+        List<Product> rows = repo.findBy(spec, q -> q.sortBy(Sort.by("id")).limit(l + 1).all());
+        boolean more = rows.size() > l;
+        List<ProductDTO> items = rows.subList(0, Math.min(l, rows.size())).stream().map(mapper::toDto).toList();
+
+        ProductFacetIndex.Counts counts = facetIndex.counts(
+                ProductFacetIndex.Filter.of(brands, colours, sizes, minRating, minPrice, maxPrice));
+        return ProductDTO.SearchResult.builder()
+                .items(items)
+                .nextAfter(more ? items.get(items.size() - 1).getId() : null)
+                .total(counts.total())
+                .facets(counts.facets())
+                .build();
+    }
+
+    /**
+     * GET /products/suggest?prefix&limit – autocomplete, best rated first; never touches the DB.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ProductDTO.Suggestion> suggest(String prefix, Integer limit) {
+        int l = limit == null ? DEFAULT_SUGGESTIONS : limit;
+        if (l < 1 || l > MAX_SUGGESTIONS) throw new BadRequestException("limit must be between 1 and " + MAX_SUGGESTIONS);
+        if (prefix == null || prefix.isBlank()) return List.of();
+        return suggester.suggest(prefix, l);
+    }
+
+    /** Products by id in the given order, ID_CHUNK ids per statement. */
+    private List<ProductDTO> byIds(List<Integer> ids) {
+        List<ProductDTO> out = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i += ID_CHUNK) {
+            List<Integer> chunk = ids.subList(i, Math.min(i + ID_CHUNK, ids.size()));
+            Map<Integer, Product> byId = new HashMap<>();
+            for (Product prod : repo.findAllById(chunk)) byId.put(prod.getId(), prod);
+            for (Integer id : chunk) {
+                Product prod = byId.get(id);
+                if (prod != null) out.add(mapper.toDto(prod));
+            }
+        }
+        return out;
+    }
+
+    private ProductDTO publishChanged(Product saved) {
+        ProductDTO dto = mapper.toDto(saved);
+        events.publishEvent(new ProductChangedEvent(saved.getId(), dto));
+        return dto;
+    }
+}
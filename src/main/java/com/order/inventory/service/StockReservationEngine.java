@@ -0,0 +1,310 @@
+package com.order.inventory.service;
+
+import com.order.inventory.dto.InventoryDTO;
+import com.order.inventory.event.InventoryChangedEvent;
+import com.order.inventory.exception.BadRequestException;
+import com.order.inventory.exception.NotFoundException;
+import com.order.inventory.repository.InventoryDeltaRepository;
+import com.order.inventory.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Reserve / commit / release stock per (store_id, product_id) without locking the
+ * inventory row. Each key gets a lazily loaded cell whose available count moves by CAS;
+ * cells live in hash-striped maps so hot SKUs do not share a map bin or dirty set.
+ * Committed quantities are accumulated per cell and written behind to {@code inventory}
+ * in one JDBC batch per flush through {@link InventoryDeltaRepository}; the batch runs in its
+ * own transaction, so a failed flush leaves every row untouched and is retried whole.
+ * <p>
+ * Stock adjustments made through InventoryService take decrements out of the cell first
+ * ({@link #take}) and fold increments in via {@link #adjusted}; absolute counts (CSV import)
+ * go through {@link #overwrite}, which keeps open reservations. Changes made to those rows
+ * by any other path are only seen after {@link #evict}.
+ */
+@Slf4j
+@Service
+public class StockReservationEngine {
+
+    private static final int STRIPES = 64;   // power of two
+
+    static final class Cell {
+        final int storeId;
+        final int productId;
+        final AtomicInteger available;                        // DB quantity - reserved - committed-not-flushed
+        final AtomicInteger reserved = new AtomicInteger();   // units held by open reservations
+        final AtomicInteger unflushed = new AtomicInteger();  // committed units not yet written to the row
+
+        Cell(int storeId, int productId, int quantity) {
+            this.storeId = storeId;
+            this.productId = productId;
+            this.available = new AtomicInteger(quantity);
+        }
+    }
+
+    private record Reservation(long key, int quantity, Instant expiresAt) { }
+
+    private static final class Stripe {
+        final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+        final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    }
+
+    private final InventoryRepository repo;
+    private final InventoryDeltaRepository deltaRepo;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate txTemplate;
+    private final long reservationTtlMs;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+    // Write-behind (exclusive) vs absolute overwrites (shared): an overwrite never lands between a flush taking units and writing them
+    private final ReadWriteLock writes = new ReentrantReadWriteLock();
+
+    public StockReservationEngine(InventoryRepository repo, InventoryDeltaRepository deltaRepo,
+                                  ApplicationEventPublisher events, TransactionTemplate txTemplate,
+                                  @Value("${inventory.reservations.ttl-ms:900000}") long reservationTtlMs) {
+        this.repo = repo;
+        this.deltaRepo = deltaRepo;
+        this.events = events;
+        this.txTemplate = txTemplate;
+        this.reservationTtlMs = reservationTtlMs;
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    static long key(int storeId, int productId) {
+        return ((long) storeId << 32) | (productId & 0xFFFFFFFFL);
+    }
+
+    /** Holds {@code quantity} units until commit, release or expiry; 400 when not enough are available. */
+    public InventoryDTO.Reservation reserve(Integer storeId, Integer productId, Integer quantity) {
+        if (storeId == null || productId == null || quantity == null || quantity <= 0)
+            throw new BadRequestException("storeId, productId and a positive quantity are required");
+        Cell cell = cell(storeId, productId);
+        // Counted before the CAS, so a concurrent overwrite errs towards less available stock, never more
+        cell.reserved.addAndGet(quantity);
+        int before = takeFrom(cell.available, quantity);
+        if (before < quantity) {
+            cell.reserved.addAndGet(-quantity);
+            throw new BadRequestException("Insufficient stock: " + before + " available");
+        }
+
+        String id = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plusMillis(reservationTtlMs);
+        reservations.put(id, new Reservation(key(storeId, productId), quantity, expiresAt));
+        return InventoryDTO.Reservation.builder()
+                .reservationId(id).storeId(storeId).productId(productId)
+                .quantity(quantity).expiresAt(expiresAt)
+                .build();
+    }
+
+    /** Turns the reservation into a stock decrement, written to the DB on the next flush. */
+    public void commit(String reservationId) {
+        Reservation r = take(reservationId);
+        long key = r.key();
+        Stripe stripe = stripe(key);
+        Cell cell = stripe.cells.get(key);
+        if (cell == null) throw new NotFoundException("Reservation not found");   // evicted meanwhile
+        cell.reserved.addAndGet(-r.quantity());
+        cell.unflushed.addAndGet(r.quantity());
+        stripe.dirty.add(key);
+    }
+
+    /** Returns the reserved units to the available count. */
+    public void release(String reservationId) {
+        Reservation r = take(reservationId);
+        Cell cell = stripe(r.key()).cells.get(r.key());
+        if (cell == null) return;
+        cell.reserved.addAndGet(-r.quantity());
+        cell.available.addAndGet(r.quantity());
+    }
+
+    /** Units that can still be reserved for the key (loads it on first use). */
+    public int available(Integer storeId, Integer productId) {
+        return cell(storeId, productId).available.get();
+    }
+
+    /**
+     * Takes {@code units} out of the key's available count for a direct stock decrement (loads it
+     * on first use), so reserved and committed-but-unflushed units cannot be sold a second time.
+     * Returns false, taking nothing, when fewer are available; give units back with {@link #adjusted}.
+     */
+    public boolean take(Integer storeId, Integer productId, int units) {
+        return takeFrom(cell(storeId, productId).available, units) >= units;
+    }
+
+    /** Folds a committed stock adjustment of the row into the cell, if it is loaded. */
+    public void adjusted(Integer storeId, Integer productId, int delta) {
+        long key = key(storeId, productId);
+        Cell cell = stripe(key).cells.get(key);
+        if (cell != null) cell.available.addAndGet(delta);
+    }
+
+    /**
+     * Runs {@code write}, which sets the given {storeId, productId, quantity} rows to absolute
+     * counts, with the write-behind held off, then moves loaded cells to those counts: available
+     * becomes quantity minus the units of open reservations, which stay valid. Committed units not
+     * yet flushed are dropped rather than applied on top, as the new count already reflects them.
+     * Overwrites of different rows may run concurrently.
+     */
+    public void overwrite(List<int[]> rows, Runnable write) {
+        Lock lock = writes.readLock();
+        lock.lock();
+        try {
+            write.run();
+            for (int[] r : rows) {
+                long key = key(r[0], r[1]);
+                Cell cell = stripe(key).cells.get(key);
+                if (cell == null) continue;   // loads the new count on first use
+                cell.unflushed.set(0);
+                int current;
+                do {
+                    current = cell.available.get();
+                } while (!cell.available.compareAndSet(current, r[2] - cell.reserved.get()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the cell so the next call reloads the row. Outstanding reservations on it are
+     * discarded and unflushed commits are written first; if that write fails the cell is
+     * put back with its unflushed units so the next flush retries them.
+     */
+    public void evict(Integer storeId, Integer productId) {
+        long key = key(storeId, productId);
+        Stripe stripe = stripe(key);
+        Cell cell = stripe.cells.remove(key);
+        if (cell == null) return;
+        reservations.values().removeIf(r -> r.key() == key);
+        int pending = cell.unflushed.getAndSet(0);
+        stripe.dirty.remove(key);
+        if (pending == 0) return;
+        Lock lock = writes.writeLock();
+        lock.lock();
+        try {
+            write(List.<int[]>of(new int[]{cell.storeId, cell.productId, -pending}));
+        } catch (RuntimeException ex) {
+            Cell current = stripe.cells.putIfAbsent(key, cell);
+            if (current == null) {
+                cell.unflushed.addAndGet(pending);
+            } else {
+                // Reloaded meanwhile from a row that still lacks these units
+                current.unflushed.addAndGet(pending);
+                current.available.addAndGet(-pending);
+            }
+            stripe.dirty.add(key);
+            throw ex;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Write-behind: one batched UPDATE per dirty key, all keys in a single JDBC batch. */
+    @Scheduled(fixedDelayString = "${inventory.reservations.flush-ms:200}")
+    public void flush() {
+        Lock lock = writes.writeLock();
+        lock.lock();
+        try {
+            flushLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        List<int[]> rows = new ArrayList<>();
+        List<Cell> flushed = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            for (Long key : stripe.dirty) {
+                stripe.dirty.remove(key);
+                Cell cell = stripe.cells.get(key);
+                if (cell == null) continue;
+                int units = cell.unflushed.getAndSet(0);
+                if (units == 0) continue;
+                rows.add(new int[]{cell.storeId, cell.productId, -units});
+                flushed.add(cell);
+            }
+        }
+        if (rows.isEmpty()) return;
+        try {
+            write(rows);
+        } catch (RuntimeException ex) {
+            log.warn("Inventory write-behind of {} rows failed, will retry: {}", rows.size(), ex.getMessage());
+            for (int i = 0; i < flushed.size(); i++) {
+                Cell cell = flushed.get(i);
+                cell.unflushed.addAndGet(-rows.get(i)[2]);
+                stripe(key(cell.storeId, cell.productId)).dirty.add(key(cell.storeId, cell.productId));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservations.expiry-check-ms:30000}")
+    public void releaseExpired() {
+        Instant now = Instant.now();
+        for (Map.Entry<String, Reservation> e : reservations.entrySet()) {
+            if (e.getValue().expiresAt().isBefore(now)) {
+                try {
+                    release(e.getKey());
+                } catch (NotFoundException ignored) {
+                    // committed or released concurrently
+                }
+            }
+        }
+    }
+
+    private void write(List<int[]> rows) {
+        txTemplate.execute(status -> deltaRepo.apply(rows));
+        events.publishEvent(new InventoryChangedEvent(rows.stream()
+                .map(r -> new InventoryChangedEvent.StockChange(r[0], r[1], null)).toList()));
+    }
+
+    /** CAS-decrements by {@code units} unless fewer are left; returns the count seen before. */
+    private static int takeFrom(AtomicInteger available, int units) {
+        int current;
+        do {
+            current = available.get();
+            if (current < units) return current;
+        } while (!available.compareAndSet(current, current - units));
+        return current;
+    }
+
+    private Reservation take(String reservationId) {
+        Reservation r = reservationId == null ? null : reservations.remove(reservationId);
+        if (r == null) throw new NotFoundException("Reservation not found");
+        return r;
+    }
+
+    private Stripe stripe(long key) {
+        return stripes[Long.hashCode(key * 0x9E3779B97F4A7C15L) & (STRIPES - 1)];
+    }
+
+    private Cell cell(int storeId, int productId) {
+        long key = key(storeId, productId);
+        Stripe stripe = stripe(key);
+        Cell cell = stripe.cells.get(key);
+        if (cell != null) return cell;
+        // Load outside the map so a slow query never blocks other keys in the same bin
+        Integer quantity = repo.findQuantity(storeId, productId)
+                .orElseThrow(() -> new NotFoundException("Inventory records for the specified product and store not found."));
+        Cell loaded = new Cell(storeId, productId, quantity);
+        Cell raced = stripe.cells.putIfAbsent(key, loaded);
+        return raced != null ? raced : loaded;
+    }
+}
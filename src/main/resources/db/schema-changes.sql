@@ -0,0 +1,35 @@
+-- ---------------------------------------------------------------------------
+-- Schema changes required by the application on top of the base dump.
+-- spring.jpa.hibernate.ddl-auto=none, so apply these by hand (in order).
+-- ---------------------------------------------------------------------------
+
+-- Keyset pagination / streaming of /api/v1/orders seeks on (order_tms, order_id)
+CREATE INDEX orders_tms_id_i ON orders (order_tms, order_id);
+
+-- Pooled id allocation for orders and customers (replaces AUTO_INCREMENT so inserts batch).
+-- Hibernate hands out (next_val - 99 .. next_val) per fetch, so seed with MAX(id) + allocationSize.
+CREATE TABLE id_generators (
+    gen_name VARCHAR(64) NOT NULL PRIMARY KEY,
+    next_val BIGINT      NOT NULL
+);
+INSERT INTO id_generators (gen_name, next_val)
+    SELECT 'orders', COALESCE(MAX(order_id), 0) + 100 FROM orders;
+INSERT INTO id_generators (gen_name, next_val)
+    SELECT 'customers', COALESCE(MAX(customer_id), 0) + 100 FROM customers;
+
+-- /api/v1/orders/{store}: store ids are resolved in memory, pages seek on (store_id, order_tms, order_id)
+CREATE INDEX orders_store_tms_id_i ON orders (store_id, order_tms, order_id);
+
+-- Optional DB tier of the Idempotency-Key store (idempotency.jdbc.enabled=true)
+CREATE TABLE idempotency_keys (
+    scope         VARCHAR(32)  NOT NULL,
+    idem_key      VARCHAR(255) NOT NULL,
+    request_hash  CHAR(64)     NOT NULL,
+    response_json TEXT         NOT NULL,
+    created_at    TIMESTAMP    NOT NULL,
+    PRIMARY KEY (scope, idem_key),
+    INDEX idempotency_keys_created_i (created_at)
+);
+
+-- Optimistic versioning of inventory rows; POST /api/v1/inventory/adjustments bumps it in SQL
+ALTER TABLE inventory ADD COLUMN version INT NOT NULL DEFAULT 0;
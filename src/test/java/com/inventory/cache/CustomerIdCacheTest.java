@@ -0,0 +1,99 @@
+package com.inventory.cache;
+
+import com.order.inventory.cache.CustomerIdCache;
+import com.order.inventory.repository.CustomerRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerIdCacheTest {
+
+    @Mock
+    private CustomerRepository customerRepo;
+
+    private CustomerIdCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CustomerIdCache(customerRepo, 2, 60_000);
+    }
+
+    @Test
+    void resolve_cachesHits_caseInsensitively() {
+        when(customerRepo.findIdByEmailAddress("veda@example.com")).thenReturn(Optional.of(7));
+
+        assertThat(cache.resolve(" Veda@Example.com")).contains(7);
+        assertThat(cache.resolve("veda@example.com")).contains(7);
+
+        // the DB is asked with the normalized key, so both spellings share one result
+        verify(customerRepo, times(1)).findIdByEmailAddress("veda@example.com");
+        assertThat(cache.stats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void resolve_cachesUnknownEmails_untilInvalidated() {
+        when(customerRepo.findIdByEmailAddress("new@example.com"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(9));
+
+        assertThat(cache.resolve("new@example.com")).isEmpty();
+        assertThat(cache.resolve("new@example.com")).isEmpty();
+        assertThat(cache.stats()).containsEntry("negativeHits", 1L);
+
+        cache.invalidateEmail("NEW@example.com");
+
+        assertThat(cache.resolve("new@example.com")).contains(9);
+    }
+
+    @Test
+    void invalidateCustomer_dropsEveryEmailMappedToIt() {
+        when(customerRepo.findIdByEmailAddress("a@example.com")).thenReturn(Optional.of(1));
+        cache.resolve("a@example.com");
+
+        cache.invalidateCustomer(1);
+        cache.resolve("a@example.com");
+
+        verify(customerRepo, times(2)).findIdByEmailAddress("a@example.com");
+    }
+
+    @Test
+    void invalidateCustomer_onlyDropsThatCustomersEmails_evenAfterEvictions() {
+        when(customerRepo.findIdByEmailAddress("a@example.com")).thenReturn(Optional.of(1));
+        when(customerRepo.findIdByEmailAddress("b@example.com")).thenReturn(Optional.of(2));
+        when(customerRepo.findIdByEmailAddress("c@example.com")).thenReturn(Optional.of(1));
+        cache.resolve("a@example.com");
+        cache.resolve("b@example.com");
+        cache.resolve("c@example.com");       // evicts a
+
+        cache.invalidateCustomer(1);
+        cache.resolve("b@example.com");
+        cache.resolve("c@example.com");
+
+        verify(customerRepo, times(1)).findIdByEmailAddress("b@example.com");
+        verify(customerRepo, times(2)).findIdByEmailAddress("c@example.com");
+        assertThat(cache.stats()).containsEntry("size", 2);
+    }
+
+    @Test
+    void resolve_evictsLeastRecentlyUsed_whenFull() {
+        when(customerRepo.findIdByEmailAddress(anyString())).thenReturn(Optional.of(1));
+
+        cache.resolve("a@example.com");
+        cache.resolve("b@example.com");
+        cache.resolve("a@example.com");       // b is now eldest
+        cache.resolve("c@example.com");       // evicts b
+
+        assertThat(cache.stats()).containsEntry("evictions", 1L).containsEntry("size", 2);
+        cache.resolve("a@example.com");
+        verify(customerRepo, times(1)).findIdByEmailAddress("a@example.com");
+    }
+}
@@ -0,0 +1,93 @@
+package com.inventory.cache;
+
+import com.order.inventory.cache.IdempotencyStore;
+import com.order.inventory.dto.CustomerDTO;
+import com.order.inventory.exception.BadRequestException;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private final IdempotencyStore store = new IdempotencyStore(new ObjectMapper(), null, false, 100, 60_000);
+
+    private static CustomerDTO request(String email) {
+        return CustomerDTO.builder().email(email).fullName("Veda Sri").build();
+    }
+
+    @Test
+    void sameKey_returnsFirstResponse_withoutRunningAgain() {
+        AtomicInteger calls = new AtomicInteger();
+        CustomerDTO req = request("veda@example.com");
+
+        CustomerDTO first = store.execute("customers", "k1", req, CustomerDTO.class,
+                () -> CustomerDTO.builder().id(calls.incrementAndGet()).build());
+        CustomerDTO second = store.execute("customers", "k1", request("veda@example.com"), CustomerDTO.class,
+                () -> CustomerDTO.builder().id(calls.incrementAndGet()).build());
+
+        assertThat(second).isSameAs(first);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void noKey_alwaysRuns() {
+        AtomicInteger calls = new AtomicInteger();
+        store.execute("customers", null, request("a@b.c"), Integer.class, calls::incrementAndGet);
+        store.execute("customers", null, request("a@b.c"), Integer.class, calls::incrementAndGet);
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void reusedKey_withDifferentRequest_isRejected() {
+        store.execute("customers", "k1", request("a@example.com"), Integer.class, () -> 1);
+
+        assertThatThrownBy(() -> store.execute("customers", "k1", request("b@example.com"), Integer.class, () -> 2))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("different request");
+    }
+
+    @Test
+    void failures_areNotCached() {
+        assertThatThrownBy(() -> store.execute("orders", "k1", request("a@b.c"), Integer.class, () -> {
+            throw new BadRequestException("Store not found");
+        })).hasMessage("Store not found");
+
+        assertThat(store.execute("orders", "k1", request("a@b.c"), Integer.class, () -> 7)).isEqualTo(7);
+    }
+
+    @Test
+    void concurrentDuplicates_collapseOntoOneExecution() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] results = new Future<?>[8];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = pool.submit(() -> store.execute("orders", "k1", request("a@b.c"), Integer.class, () -> {
+                    calls.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return 42;
+                }));
+            }
+            Thread.sleep(50);
+            release.countDown();
+            for (Future<?> f : results) assertThat(f.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(calls).hasValue(1);
+    }
+}
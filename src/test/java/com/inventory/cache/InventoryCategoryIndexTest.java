@@ -0,0 +1,92 @@
+package com.inventory.cache;
+
+import com.order.inventory.cache.InventoryCategoryIndex;
+import com.order.inventory.dto.ProductDTO;
+import com.order.inventory.event.InventoryChangedEvent;
+import com.order.inventory.event.ProductChangedEvent;
+import com.order.inventory.repository.InventoryRepository;
+import com.order.inventory.repository.ProductRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryCategoryIndexTest {
+
+    @Mock
+    private ProductRepository productRepo;
+
+    @Mock
+    private InventoryRepository inventoryRepo;
+
+    @InjectMocks
+    private InventoryCategoryIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(productRepo.findAllIdsBrandsAndColours()).thenReturn(List.of(
+                new Object[]{10, "ACME", "Red"},
+                new Object[]{11, "Globex", "Blue"},
+                new Object[]{12, null, "red"}));
+        when(inventoryRepo.findAllIdsAndProductIds()).thenReturn(List.of(
+                new Object[]{103, 10}, new Object[]{100, 10}, new Object[]{101, 11}, new Object[]{102, 12}));
+    }
+
+    @Test
+    void inventoryIds_matchBrandOrColour_caseInsensitive_sorted() {
+        assertThat(index.inventoryIds(" red ")).containsExactly(100, 102, 103);
+        assertThat(index.inventoryIds("acme")).containsExactly(100, 103);
+        assertThat(index.inventoryIds("green")).isEmpty();
+
+        verify(productRepo, times(1)).findAllIdsBrandsAndColours();
+    }
+
+    @Test
+    void productChanges_moveItsInventoryBetweenCategories() {
+        index.inventoryIds("red");
+
+        index.onProductChanged(new ProductChangedEvent(10, ProductDTO.builder().id(10).brand("ACME").colour("Green").build()));
+        assertThat(index.inventoryIds("red")).containsExactly(102);
+        assertThat(index.inventoryIds("green")).containsExactly(100, 103);
+
+        index.onProductChanged(ProductChangedEvent.deleted(11));
+        assertThat(index.inventoryIds("globex")).isEmpty();
+    }
+
+    @Test
+    void inventoryIds_areSortedOnce_notPerRequest() {
+        int[] first = index.inventoryIds("red");
+        assertThat(index.inventoryIds("RED")).isSameAs(first);
+
+        index.onProductChanged(new ProductChangedEvent(11, ProductDTO.builder().id(11).brand("Globex").colour("Red").build()));
+        int[] next = index.inventoryIds("red");
+        assertThat(next).containsExactly(100, 101, 102, 103);
+        assertThat(index.inventoryIds("red")).isSameAs(next);
+    }
+
+    @Test
+    void importedRows_areIndexed_relativeUpdatesAreIgnored() {
+        index.inventoryIds("red");
+        when(inventoryRepo.findIdsAndProductIdsByProductIds(anyCollection())).thenReturn(List.of(
+                new Object[]{102, 12}, new Object[]{104, 12}));
+
+        index.onInventoryChanged(new InventoryChangedEvent(List.of(
+                new InventoryChangedEvent.StockChange(2, 12, 7))));
+        index.onInventoryChanged(new InventoryChangedEvent(List.of(
+                new InventoryChangedEvent.StockChange(1, 10, null))));
+
+        assertThat(index.inventoryIds("red")).containsExactly(100, 102, 103, 104);
+        verify(inventoryRepo, times(1)).findIdsAndProductIdsByProductIds(argThat(ids -> ids.equals(Set.of(12))));
+    }
+}
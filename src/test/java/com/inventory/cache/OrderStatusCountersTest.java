@@ -0,0 +1,88 @@
+package com.inventory.cache;
+
+import com.order.inventory.cache.OrderStatusCounters;
+import com.order.inventory.entity.OrderStatus;
+import com.order.inventory.repository.OrderRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStatusCountersTest {
+
+    @Mock
+    private OrderRepository orderRepo;
+
+    @InjectMocks
+    private OrderStatusCounters counters;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void snapshot_loadsOnce_thenServesFromMemory() {
+        when(orderRepo.countOrdersByStatus()).thenReturn(List.of(
+                new Object[]{OrderStatus.NEW, 3L},
+                new Object[]{OrderStatus.COMPLETE, 7}));
+
+        assertThat(counters.snapshot()).containsExactlyInAnyOrderEntriesOf(Map.of("NEW", 3L, "COMPLETE", 7L));
+        assertThat(counters.snapshot()).hasSize(2);
+
+        verify(orderRepo, times(1)).countOrdersByStatus();
+    }
+
+    @Test
+    void transitions_adjustCounts_andDropEmptyStatuses() {
+        when(orderRepo.countOrdersByStatus()).thenReturn(List.<Object[]>of(new Object[]{OrderStatus.NEW, 1L}));
+        counters.reconcile();
+
+        counters.recordCreated(OrderStatus.NEW);
+        counters.recordTransition(OrderStatus.NEW, OrderStatus.CANCELLED);
+        counters.recordTransition(OrderStatus.NEW, OrderStatus.CANCELLED);
+        counters.recordTransition(OrderStatus.PAID, OrderStatus.PAID);
+
+        assertThat(counters.snapshot()).containsExactlyInAnyOrderEntriesOf(Map.of("CANCELLED", 2L));
+    }
+
+    @Test
+    void transitions_insideTransaction_applyOnlyAfterCommit() {
+        when(orderRepo.countOrdersByStatus()).thenReturn(List.of());
+        counters.reconcile();
+        TransactionSynchronizationManager.initSynchronization();
+
+        counters.recordCreated(OrderStatus.OPEN);
+        assertThat(counters.snapshot()).isEmpty();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(counters.snapshot()).containsEntry("OPEN", 1L);
+    }
+
+    @Test
+    void reconcile_overwritesDrift() {
+        when(orderRepo.countOrdersByStatus())
+                .thenReturn(List.<Object[]>of(new Object[]{OrderStatus.NEW, 1L}))
+                .thenReturn(List.<Object[]>of(new Object[]{OrderStatus.NEW, 5L}));
+        counters.reconcile();
+        counters.recordCreated(OrderStatus.NEW);
+
+        counters.reconcile();
+
+        assertThat(counters.snapshot()).containsExactlyInAnyOrderEntriesOf(Map.of("NEW", 5L));
+    }
+}
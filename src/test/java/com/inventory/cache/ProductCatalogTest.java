@@ -0,0 +1,141 @@
+package com.inventory.cache;
+
+import com.order.inventory.cache.ProductCatalog;
+import com.order.inventory.dto.ProductDTO;
+import com.order.inventory.entity.Product;
+import com.order.inventory.event.ProductChangedEvent;
+import com.order.inventory.mapper.ProductMapper;
+import com.order.inventory.repository.ProductRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCatalogTest {
+
+    @Mock
+    private ProductRepository repo;
+
+    private ProductCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new ProductCatalog(repo, Mappers.getMapper(ProductMapper.class));
+        lenient().when(repo.findAll(Sort.by("id"))).thenReturn(List.of(
+                product(1, "banana", "3.00", "Zeta", 4),
+                product(2, "Apple", "1.50", null, 5),
+                product(3, "cherry", "3.00", "acme", null),
+                product(4, "apple pie", "0.99", "Acme", 4)));
+    }
+
+    private static Product product(int id, String name, String price, String brand, Integer rating) {
+        return Product.builder().id(id).productName(name).unitPrice(new BigDecimal(price)).brand(brand).rating(rating).build();
+    }
+
+    private static List<Integer> ids(List<ProductDTO> products) {
+        return products.stream().map(ProductDTO::getId).toList();
+    }
+
+    @Test
+    void noView_untilRefreshed() {
+        assertThat(catalog.view()).isNull();
+
+        catalog.refresh();
+
+        assertThat(catalog.view().size()).isEqualTo(4);
+    }
+
+    @Test
+    void slices_followTheFieldOrder_nullsFirst_tiesById() {
+        catalog.refresh();
+        ProductCatalog.View v = catalog.view();
+
+        assertThat(ids(v.slice("productName", false, 0, 4))).containsExactly(2, 4, 1, 3);
+        assertThat(ids(v.slice("unitPrice", false, 0, 4))).containsExactly(4, 2, 1, 3);
+        assertThat(ids(v.slice("brand", false, 0, 4))).containsExactly(2, 3, 4, 1);
+        assertThat(ids(v.slice("rating", false, 0, 4))).containsExactly(3, 1, 4, 2);
+        assertThat(ids(v.slice("rating", true, 0, 4))).containsExactly(2, 4, 1, 3);
+    }
+
+    @Test
+    void slices_arePagedAndClamped() {
+        catalog.refresh();
+        ProductCatalog.View v = catalog.view();
+
+        assertThat(ids(v.slice("id", false, 1, 3))).containsExactly(2, 3);
+        assertThat(ids(v.slice("id", true, 2, 10))).containsExactly(2, 1);
+        assertThat(v.slice("id", false, 5, 10)).isEmpty();
+        assertThatThrownBy(() -> v.slice("unknown", false, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void writes_areAppliedToACopy_withoutAReload() {
+        catalog.refresh();
+        ProductCatalog.View before = catalog.view();
+        ProductMapper mapper = Mappers.getMapper(ProductMapper.class);
+
+        catalog.onProductChanged(ProductChangedEvent.deleted(1));
+        catalog.onProductChanged(new ProductChangedEvent(5, mapper.toDto(product(5, "avocado", "2.00", "Zeta", 3))));
+        catalog.onProductChanged(new ProductChangedEvent(3, mapper.toDto(product(3, "cherry", "0.50", "acme", 5))));
+
+        ProductCatalog.View v = catalog.view();
+        assertThat(ids(v.slice("id", false, 0, 10))).containsExactly(2, 3, 4, 5);
+        assertThat(ids(v.slice("productName", false, 0, 10))).containsExactly(2, 4, 5, 3);
+        assertThat(ids(v.slice("unitPrice", false, 0, 10))).containsExactly(3, 4, 2, 5);
+        assertThat(ids(v.slice("rating", false, 0, 10))).containsExactly(5, 4, 2, 3);
+        assertThat(ids(before.slice("id", false, 0, 10))).containsExactly(1, 2, 3, 4);
+        verify(repo, times(1)).findAll(Sort.by("id"));
+    }
+
+    @Test
+    void randomWrites_matchAFullReload() {
+        ProductMapper mapper = Mappers.getMapper(ProductMapper.class);
+        Random rnd = new Random(42);
+        String[] brands = {null, "acme", "Acme", "zeta", "Globex"};
+        Map<Integer, Product> current = new TreeMap<>();
+        for (int id = 1; id <= 50; id++) current.put(id * 2, randomProduct(rnd, id * 2, brands));
+        when(repo.findAll(Sort.by("id"))).thenAnswer(inv -> List.copyOf(current.values()));
+        catalog.refresh();
+
+        for (int i = 0; i < 300; i++) {
+            int id = 1 + rnd.nextInt(120);
+            if (rnd.nextInt(4) == 0) {
+                current.remove(id);
+                catalog.onProductChanged(ProductChangedEvent.deleted(id));
+            } else {
+                Product p = randomProduct(rnd, id, brands);
+                current.put(id, p);
+                catalog.onProductChanged(new ProductChangedEvent(id, mapper.toDto(p)));
+            }
+        }
+        ProductCatalog.View applied = catalog.view();
+        catalog.refresh();
+        ProductCatalog.View reloaded = catalog.view();
+
+        for (String field : List.of("id", "productName", "unitPrice", "brand", "colour", "size", "rating")) {
+            assertThat(ids(applied.slice(field, false, 0, 1_000))).as(field)
+                    .isEqualTo(ids(reloaded.slice(field, false, 0, 1_000)));
+        }
+    }
+
+    private static Product randomProduct(Random rnd, int id, String[] brands) {
+        Product p = product(id, "p" + rnd.nextInt(20), rnd.nextInt(10) + ".00", brands[rnd.nextInt(brands.length)],
+                rnd.nextInt(3) == 0 ? null : rnd.nextInt(5));
+        p.setColour(rnd.nextBoolean() ? null : "c" + rnd.nextInt(4));
+        return p;
+    }
+}
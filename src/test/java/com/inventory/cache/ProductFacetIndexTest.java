@@ -0,0 +1,137 @@
+package com.inventory.cache;
+
+import com.order.inventory.cache.ProductFacetIndex;
+import com.order.inventory.dto.ProductDTO;
+import com.order.inventory.event.ProductChangedEvent;
+import com.order.inventory.repository.ProductRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFacetIndexTest {
+
+    @Mock
+    private ProductRepository productRepo;
+
+    @InjectMocks
+    private ProductFacetIndex index;
+
+    private static Object[] row(int id, String brand, String colour, String size, Integer rating, String price) {
+        return new Object[]{id, brand, colour, size, rating, price == null ? null : new BigDecimal(price)};
+    }
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> rows = new ArrayList<>(List.of(
+                row(1, "Acme", "Red", "M", 4, "19.99"),
+                row(2, "ACME", "Blue", "L", 5, "49.99"),
+                row(3, "Zeta", "Red", "M", 3, "120.00"),
+                row(4, "Zeta", "Green", "S", 2, "600.00"),
+                row(5, null, "Red", null, null, null)));
+        lenient().when(productRepo.findAllFacetRows()).thenReturn(rows);
+    }
+
+    private static ProductFacetIndex.Filter filter(List<String> brands, List<String> colours, Integer minRating) {
+        return ProductFacetIndex.Filter.of(brands, colours, null, minRating, null, null);
+    }
+
+    @Test
+    void unfiltered_countsEveryValue() {
+        ProductFacetIndex.Counts c = index.counts(filter(null, null, null));
+
+        assertThat(c.total()).isEqualTo(5);
+        assertThat(c.facets().get("brand")).containsExactly(entry("Acme", 2L), entry("Zeta", 2L));
+        assertThat(c.facets().get("colour")).containsExactly(entry("Red", 3L), entry("Blue", 1L), entry("Green", 1L));
+        assertThat(c.facets().get("rating")).containsExactly(entry("2", 1L), entry("3", 1L), entry("4", 1L), entry("5", 1L));
+        assertThat(c.facets().get("price")).containsExactly(
+                entry("0-25", 1L), entry("25-50", 1L), entry("100-250", 1L), entry("500+", 1L));
+    }
+
+    @Test
+    void counts_areDisjunctive_perDimension() {
+        ProductFacetIndex.Counts c = index.counts(filter(List.of("acme"), List.of("red"), null));
+
+        assertThat(c.total()).isEqualTo(1);                                                          // product 1
+        assertThat(c.facets().get("brand")).containsExactly(entry("Acme", 1L), entry("Zeta", 1L));   // red only
+        assertThat(c.facets().get("colour")).containsExactly(entry("Blue", 1L), entry("Red", 1L));   // acme only
+        assertThat(c.facets().get("size")).containsExactly(entry("M", 1L));                          // both filters
+    }
+
+    @Test
+    void minRating_andPrice_filter() {
+        ProductFacetIndex.Counts c = index.counts(ProductFacetIndex.Filter.of(
+                null, null, null, 4, new BigDecimal("10"), new BigDecimal("50")));
+
+        assertThat(c.total()).isEqualTo(2);
+        assertThat(c.facets().get("rating")).containsExactly(entry("4", 1L), entry("5", 1L));
+        // price facet ignores the price filter but applies the rating one
+        assertThat(c.facets().get("price")).containsExactly(entry("0-25", 1L), entry("25-50", 1L));
+    }
+
+    @Test
+    void productChanges_areVisible_beforeTheNextRebuild() {
+        index.rebuild();
+        index.onProductChanged(new ProductChangedEvent(3, ProductDTO.builder().id(3).brand("acme").colour("Red")
+                .size("M").rating(5).unitPrice(new BigDecimal("30")).build()));
+        index.onProductChanged(new ProductChangedEvent(6, ProductDTO.builder().id(6).brand("Nova").colour("Red").build()));
+        index.onProductChanged(ProductChangedEvent.deleted(4));
+
+        ProductFacetIndex.Counts c = index.counts(filter(null, null, null));
+
+        assertThat(c.total()).isEqualTo(5);
+        assertThat(c.facets().get("brand")).containsExactly(entry("Acme", 3L), entry("nova", 1L));
+        assertThat(c.facets().get("price")).containsExactly(entry("0-25", 1L), entry("25-50", 2L));
+        verify(productRepo, times(1)).findAllFacetRows();
+    }
+
+    @Test
+    void rebuild_replacesTheOverlay() {
+        index.rebuild();
+        index.onProductChanged(ProductChangedEvent.deleted(1));
+        assertThat(index.counts(filter(null, null, null)).total()).isEqualTo(4);
+
+        index.rebuild();   // repository still has product 1
+
+        Map<String, Long> brands = index.counts(filter(null, null, null)).facets().get("brand");
+        assertThat(brands).containsEntry("Acme", 2L);
+    }
+
+    @Test
+    void firstRequest_duringTheScheduledRebuild_waitsForItInsteadOfLoadingAgain() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1), release = new CountDownLatch(1);
+        List<Object[]> rows = productRepo.findAllFacetRows();
+        clearInvocations(productRepo);
+        when(productRepo.findAllFacetRows()).thenAnswer(inv -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return rows;
+        });
+
+        CompletableFuture<Void> scheduled = CompletableFuture.runAsync(index::rebuild);
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<ProductFacetIndex.Counts> request =
+                CompletableFuture.supplyAsync(() -> index.counts(filter(null, null, null)));
+        Thread.sleep(50);
+        release.countDown();
+
+        scheduled.get(5, TimeUnit.SECONDS);
+        assertThat(request.get(5, TimeUnit.SECONDS).total()).isEqualTo(5);
+        verify(productRepo, times(1)).findAllFacetRows();
+    }
+}
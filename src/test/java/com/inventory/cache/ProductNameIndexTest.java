@@ -0,0 +1,101 @@
+package com.inventory.cache;
+
+import com.order.inventory.cache.ProductNameIndex;
+import com.order.inventory.dto.ProductDTO;
+import com.order.inventory.event.ProductChangedEvent;
+import com.order.inventory.repository.ProductRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductNameIndexTest {
+
+    @Mock
+    private ProductRepository productRepo;
+
+    @InjectMocks
+    private ProductNameIndex index;
+
+    private static List<Object[]> rows(Object... idNamePairs) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < idNamePairs.length; i += 2) rows.add(new Object[]{idNamePairs[i], idNamePairs[i + 1]});
+        return rows;
+    }
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(productRepo.findAllIdsAndNames()).thenReturn(rows(
+                1, "Smart Phone Case",
+                2, "Phone",
+                3, "Headphones",
+                4, "Phone Charger",
+                5, "Laptop Stand",
+                6, null));
+    }
+
+    @Test
+    void notReady_untilBuilt() {
+        assertThat(index.isReady()).isFalse();
+        assertThatThrownBy(() -> index.search("phone")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void substringMatches_areRanked_exactPrefixWordAnywhere() {
+        index.rebuild();
+
+        assertThat(index.search("PHONE")).containsExactly(2, 4, 1, 3);
+        assertThat(index.search("ph")).containsExactly(2, 4, 1, 3);   // short query: scan
+        assertThat(index.search("tablet")).isEmpty();
+        assertThat(index.search("  ")).isEmpty();
+    }
+
+    @Test
+    void writes_areVisibleImmediately_andSurviveARebuild() {
+        index.rebuild();
+        index.onProductChanged(new ProductChangedEvent(5, ProductDTO.builder().id(5).name("Phone Stand").build()));
+        index.onProductChanged(new ProductChangedEvent(7, ProductDTO.builder().id(7).name("Phone").build()));
+        index.onProductChanged(ProductChangedEvent.deleted(4));
+
+        assertThat(index.search("phone")).containsExactly(2, 7, 5, 1, 3);
+
+        when(productRepo.findAllIdsAndNames()).thenReturn(rows(1, "Smart Phone Case", 2, "Phone", 3, "Headphones",
+                5, "Phone Stand", 7, "Phone"));
+        index.rebuild();
+        assertThat(index.search("phone")).containsExactly(2, 7, 5, 1, 3);
+    }
+
+    @Test
+    void matchesAFullScan_onRandomNames() {
+        Random rnd = new Random(7);
+        String[] words = {"red", "phone", "case", "blue", "laptop", "stand", "usb", "cable", "charger", "pro"};
+        List<Object[]> catalog = new ArrayList<>();
+        for (int id = 1; id <= 5_000; id++) {
+            String name = IntStream.range(0, 1 + rnd.nextInt(4)).mapToObj(i -> words[rnd.nextInt(words.length)])
+                    .reduce((a, b) -> a + " " + b).orElseThrow();
+            catalog.add(new Object[]{id, name});
+        }
+        when(productRepo.findAllIdsAndNames()).thenReturn(catalog);
+        index.rebuild();
+
+        for (String q : List.of("phone ca", "ble", "o c", "stand usb", "pro pro", "zzz")) {
+            List<Integer> expected = catalog.stream()
+                    .filter(r -> ((String) r[1]).toLowerCase(Locale.ROOT).contains(q))
+                    .map(r -> (Integer) r[0]).sorted().toList();
+            assertThat(index.search(q)).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+}
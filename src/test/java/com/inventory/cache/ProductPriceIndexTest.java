@@ -0,0 +1,120 @@
+package com.inventory.cache;
+
+import com.order.inventory.cache.ProductPriceIndex;
+import com.order.inventory.dto.ProductDTO;
+import com.order.inventory.event.ProductChangedEvent;
+import com.order.inventory.repository.ProductRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductPriceIndexTest {
+
+    @Mock
+    private ProductRepository productRepo;
+
+    @InjectMocks
+    private ProductPriceIndex index;
+
+    private final Map<Integer, BigDecimal> prices = new TreeMap<>();
+
+    @BeforeEach
+    void setUp() {
+        prices.put(1, new BigDecimal("10.00"));
+        prices.put(2, new BigDecimal("5.50"));
+        prices.put(3, new BigDecimal("10.00"));
+        prices.put(4, new BigDecimal("99.99"));
+        prices.put(5, null);
+        lenient().when(productRepo.findAllIdsAndPrices()).thenAnswer(inv -> {
+            List<Object[]> rows = new ArrayList<>();
+            prices.forEach((id, price) -> rows.add(new Object[]{id, price}));
+            return rows;
+        });
+    }
+
+    private static BigDecimal d(String v) {
+        return new BigDecimal(v);
+    }
+
+    private static ProductChangedEvent priced(int id, String price) {
+        return new ProductChangedEvent(id, ProductDTO.builder().id(id).unitPrice(price == null ? null : d(price)).build());
+    }
+
+    @Test
+    void notReady_untilBuilt() {
+        assertThat(index.isReady()).isFalse();
+        assertThatThrownBy(() -> index.count(d("0"), d("1"))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void range_isInclusive_cheapestFirst_tiesById() {
+        index.rebuild();
+
+        assertThat(index.ids(d("0"), d("1000"), 0, 10)).containsExactly(2, 1, 3, 4);
+        assertThat(index.ids(d("5.50"), d("10"), 0, 10)).containsExactly(2, 1, 3);
+        assertThat(index.ids(d("5.501"), d("9.999"), 0, 10)).isEmpty();
+        assertThat(index.count(d("10"), d("1E30"))).isEqualTo(3);
+        assertThat(index.ids(d("0"), d("1000"), 1, 2)).containsExactly(1, 3);
+        assertThat(index.ids(d("0"), d("1000"), 4, 2)).isEmpty();
+    }
+
+    @Test
+    void priceChanges_areAppliedIncrementally() {
+        index.rebuild();
+
+        index.onProductChanged(priced(4, "1.00"));         // moved
+        index.onProductChanged(priced(5, "10.00"));        // priced for the first time
+        index.onProductChanged(priced(6, "7.25"));         // created
+        index.onProductChanged(ProductChangedEvent.deleted(2));
+        index.onProductChanged(priced(3, null));           // price cleared
+
+        assertThat(index.ids(d("0"), d("1000"), 0, 10)).containsExactly(4, 6, 1, 5);
+        verify(productRepo, times(1)).findAllIdsAndPrices();
+    }
+
+    @Test
+    void randomUpdates_matchAFullScan() {
+        Random rnd = new Random(42);
+        prices.clear();
+        for (int id = 1; id <= 2_000; id++) prices.put(id, BigDecimal.valueOf(rnd.nextInt(5_000), 2));
+        index.rebuild();
+
+        for (int i = 0; i < 1_000; i++) {
+            int id = 1 + rnd.nextInt(2_500);
+            if (rnd.nextInt(10) == 0) {
+                prices.remove(id);
+                index.onProductChanged(ProductChangedEvent.deleted(id));
+            } else {
+                BigDecimal price = BigDecimal.valueOf(rnd.nextInt(5_000), 2);
+                prices.put(id, price);
+                index.onProductChanged(new ProductChangedEvent(id, ProductDTO.builder().id(id).unitPrice(price).build()));
+            }
+        }
+
+        for (int q = 0; q < 50; q++) {
+            BigDecimal min = BigDecimal.valueOf(rnd.nextInt(5_000), 2), max = min.add(BigDecimal.valueOf(rnd.nextInt(2_000), 2));
+            List<Integer> expected = prices.entrySet().stream()
+                    .filter(e -> e.getValue().compareTo(min) >= 0 && e.getValue().compareTo(max) <= 0)
+                    .sorted(Map.Entry.<Integer, BigDecimal>comparingByValue().thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                    .map(Map.Entry::getKey).toList();
+            assertThat(index.count(min, max)).isEqualTo(expected.size());
+            assertThat(index.ids(min, max, 0, Integer.MAX_VALUE)).containsExactly(expected.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+}
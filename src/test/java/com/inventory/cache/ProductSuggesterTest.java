@@ -0,0 +1,81 @@
+package com.inventory.cache;
+
+import com.order.inventory.cache.ProductSuggester;
+import com.order.inventory.dto.ProductDTO;
+import com.order.inventory.event.ProductChangedEvent;
+import com.order.inventory.repository.ProductRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSuggesterTest {
+
+    @Mock
+    private ProductRepository productRepo;
+
+    @InjectMocks
+    private ProductSuggester suggester;
+
+    private final List<Object[]> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        rows.add(new Object[]{1, "Phone Case", 3});
+        rows.add(new Object[]{2, "Smart Phone", 5});
+        rows.add(new Object[]{3, "Phone Charger", 5});
+        rows.add(new Object[]{4, "Headphones", 5});
+        rows.add(new Object[]{5, "Phone Phone", null});
+        rows.add(new Object[]{6, null, 4});
+        lenient().when(productRepo.findAllIdsNamesAndRatings()).thenReturn(rows);
+    }
+
+    private List<Integer> ids(String prefix, int limit) {
+        return suggester.suggest(prefix, limit).stream().map(ProductDTO.Suggestion::getId).toList();
+    }
+
+    @Test
+    void wordPrefixes_bestRatedFirst_eachProductOnce() {
+        assertThat(ids("PHO", 10)).containsExactly(2, 3, 1, 5);   // "phone" < "phone charger"; not Headphones
+        assertThat(ids("  smart p", 10)).containsExactly(2);
+        assertThat(ids("ph", 2)).containsExactly(2, 3);
+        assertThat(ids("x", 10)).isEmpty();
+
+        ProductDTO.Suggestion top = suggester.suggest("charg", 1).get(0);
+        assertThat(top.getName()).isEqualTo("Phone Charger");
+        assertThat(top.getRating()).isEqualTo(5);
+    }
+
+    @Test
+    void prefixesLongerThanAWordsRemainder_doNotMatchIt() {
+        rows.add(new Object[]{7, "Phon", 5});
+
+        assertThat(ids("phon", 10)).containsExactly(7, 2, 3, 1, 5);
+        assertThat(ids("phone c", 10)).containsExactly(3, 1);
+        assertThat(ids("phone charger x", 10)).isEmpty();
+    }
+
+    @Test
+    void changes_showUpAfterTheNextRefresh_only() {
+        suggester.refresh();
+        rows.add(new Object[]{7, "Photo Frame", 5});
+
+        suggester.refresh();   // not dirty: keeps the snapshot
+        assertThat(ids("photo", 10)).isEmpty();
+
+        suggester.onProductChanged(ProductChangedEvent.deleted(99));
+        suggester.refresh();
+        assertThat(ids("photo", 10)).containsExactly(7);
+        verify(productRepo, times(2)).findAllIdsNamesAndRatings();
+    }
+}
@@ -0,0 +1,49 @@
+package com.inventory.cache;
+
+import com.order.inventory.cache.ShippedProducts;
+import com.order.inventory.repository.OrderItemRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShippedProductsTest {
+
+    @Mock
+    private OrderItemRepository itemRepo;
+
+    @InjectMocks
+    private ShippedProducts shippedProducts;
+
+    @Test
+    void snapshot_loadsOnce_fromShippedProductIds() {
+        when(itemRepo.findShippedProductIds()).thenReturn(List.of(3, 70));
+
+        BitSet first = shippedProducts.snapshot();
+        BitSet second = shippedProducts.snapshot();
+
+        assertThat(first.stream()).containsExactly(3, 70);
+        assertThat(second).isSameAs(first);
+        verify(itemRepo, times(1)).findShippedProductIds();
+    }
+
+    @Test
+    void refresh_publishesANewSet_leavingOldSnapshotsUntouched() {
+        when(itemRepo.findShippedProductIds()).thenReturn(List.of(3)).thenReturn(List.of(3, 5));
+        BitSet before = shippedProducts.snapshot();
+
+        shippedProducts.refresh();
+
+        assertThat(before.stream()).containsExactly(3);
+        assertThat(shippedProducts.snapshot().stream()).containsExactly(3, 5);
+    }
+}
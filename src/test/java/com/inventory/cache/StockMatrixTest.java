@@ -0,0 +1,118 @@
+package com.inventory.cache;
+
+import com.order.inventory.cache.StockMatrix;
+import com.order.inventory.event.InventoryChangedEvent;
+import com.order.inventory.repository.InventoryRepository;
+import com.order.inventory.repository.ProductRepository;
+import com.order.inventory.repository.StoreRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockMatrixTest {
+
+    @Mock private InventoryRepository repo;
+    @Mock private StoreRepository storeRepo;
+    @Mock private ProductRepository productRepo;
+    @Mock private TransactionTemplate txTemplate;
+
+    @InjectMocks
+    private StockMatrix matrix;
+
+    @BeforeEach
+    void setUp() {
+        when(txTemplate.execute(any())).thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        when(storeRepo.findAllIds()).thenReturn(List.of(30, 1, 7));
+        when(productRepo.findAllIds()).thenReturn(List.of(10, 500_000, 11));
+        when(repo.streamAllQuantities()).thenAnswer(inv -> Stream.of(
+                new Object[]{1, 10, 5}, new Object[]{30, 10, 2}, new Object[]{7, 500_000, 9}));
+    }
+
+    private static InventoryChangedEvent change(int storeId, int productId, Integer quantity) {
+        return new InventoryChangedEvent(List.of(new InventoryChangedEvent.StockChange(storeId, productId, quantity)));
+    }
+
+    @Test
+    void remapsSparseIds_andServesCellsAndRows() {
+        assertThat(matrix.quantity(1, 10)).isEqualTo(5);
+        assertThat(matrix.quantity(7, 500_000)).isEqualTo(9);
+        assertThat(matrix.quantity(7, 11)).isZero();        // row never allocated
+        assertThat(matrix.quantity(99, 10)).isZero();       // unknown store
+
+        List<int[]> stores = new ArrayList<>();
+        long total = matrix.forEachStore(10, (storeId, qty) -> stores.add(new int[]{storeId, qty}));
+
+        assertThat(total).isEqualTo(7);
+        assertThat(stores).extracting(s -> s[0]).containsExactly(1, 30);
+        verify(repo, times(1)).streamAllQuantities();
+    }
+
+    @Test
+    void changes_areAppliedOrReRead() {
+        matrix.reload();
+        matrix.onInventoryChanged(change(7, 11, 3));
+        matrix.onInventoryChanged(change(1, 10, null));
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{10, 1, 2});
+        when(repo.findQuantities(1, List.of(10))).thenReturn(rows);
+
+        assertThat(matrix.quantity(7, 11)).isEqualTo(3);
+        matrix.refreshStale();
+        assertThat(matrix.quantity(1, 10)).isEqualTo(1);
+    }
+
+    @Test
+    void changeForAnUnmappedProduct_triggersAReload() {
+        matrix.reload();
+        when(productRepo.findAllIds()).thenReturn(List.of(10, 11, 12, 500_000));
+        when(repo.streamAllQuantities()).thenAnswer(inv -> Stream.<Object[]>of(new Object[]{1, 12, 8}));
+
+        matrix.onInventoryChanged(change(1, 12, 8));
+        assertThat(matrix.quantity(1, 12)).isZero();
+        matrix.refreshStale();
+
+        assertThat(matrix.quantity(1, 12)).isEqualTo(8);
+    }
+
+    @Test
+    void changesCommittedDuringAReload_areReReadIntoTheNewLayout() throws Exception {
+        matrix.reload();
+        CountDownLatch streaming = new CountDownLatch(1), release = new CountDownLatch(1);
+        when(repo.streamAllQuantities()).thenAnswer(inv -> {
+            streaming.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Stream.<Object[]>of(new Object[]{1, 10, 5});   // streamed before the change below
+        });
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{10, 4, 2});
+        when(repo.findQuantities(1, List.of(10))).thenReturn(rows);
+
+        CompletableFuture<Void> reload = CompletableFuture.runAsync(matrix::reload);
+        assertThat(streaming.await(5, TimeUnit.SECONDS)).isTrue();
+        matrix.onInventoryChanged(change(1, 10, 4));
+        CompletableFuture<Void> refresh = CompletableFuture.runAsync(matrix::refreshStale);
+        Thread.sleep(50);
+        release.countDown();
+        reload.get(5, TimeUnit.SECONDS);
+        refresh.get(5, TimeUnit.SECONDS);
+
+        assertThat(matrix.quantity(1, 10)).isEqualTo(4);
+    }
+}
@@ -0,0 +1,103 @@
+package com.inventory.cache;
+
+import com.order.inventory.cache.StoreInventorySnapshots;
+import com.order.inventory.dto.InventoryDTO;
+import com.order.inventory.event.InventoryChangedEvent;
+import com.order.inventory.event.InventoryChangedEvent.StockChange;
+import com.order.inventory.event.ProductChangedEvent;
+import com.order.inventory.repository.InventoryRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StoreInventorySnapshotsTest {
+
+    @Mock
+    private InventoryRepository repo;
+
+    private StoreInventorySnapshots snapshots;
+
+    private final InventoryDTO row = InventoryDTO.builder().inventoryId(1).storeId(1).productId(10).quantity(5).build();
+
+    @BeforeEach
+    void setUp() {
+        snapshots = new StoreInventorySnapshots(repo, 2);
+    }
+
+    @Test
+    void get_servesSameSnapshot_untilTheStoreChanges() {
+        when(repo.findDtosByStoreId(1)).thenReturn(List.of(row));
+
+        StoreInventorySnapshots.Snapshot first = snapshots.get(1);
+        assertThat(snapshots.get(1)).isSameAs(first);
+        assertThat(snapshots.etag(1)).isEqualTo(first.etag());
+
+        snapshots.onInventoryChanged(new InventoryChangedEvent(List.of(new StockChange(1, 10, null))));
+
+        assertThat(snapshots.etag(1)).isNotEqualTo(first.etag());
+        assertThat(snapshots.get(1)).isNotSameAs(first);
+        verify(repo, times(2)).findDtosByStoreId(1);
+    }
+
+    @Test
+    void changesInOtherStores_keepTheSnapshot() {
+        when(repo.findDtosByStoreId(1)).thenReturn(List.of(row));
+        String etag = snapshots.get(1).etag();
+
+        snapshots.onInventoryChanged(new InventoryChangedEvent(List.of(new StockChange(2, 10, 7))));
+
+        assertThat(snapshots.etag(1)).isEqualTo(etag);
+        verify(repo, times(1)).findDtosByStoreId(1);
+    }
+
+    @Test
+    void productChange_invalidatesEverySnapshot() {
+        when(repo.findDtosByStoreId(anyInt())).thenReturn(List.of(row));
+        String etag1 = snapshots.get(1).etag();
+        String etag2 = snapshots.get(2).etag();
+
+        snapshots.onProductChanged(ProductChangedEvent.deleted(10));
+
+        assertThat(snapshots.etag(1)).isNotEqualTo(etag1);
+        assertThat(snapshots.etag(2)).isNotEqualTo(etag2);
+        snapshots.get(1);
+        snapshots.get(2);
+        verify(repo, times(2)).findDtosByStoreId(1);
+        verify(repo, times(2)).findDtosByStoreId(2);
+    }
+
+    @Test
+    void storesWithoutRows_areNotCached() {
+        when(repo.findDtosByStoreId(99)).thenReturn(List.of());
+
+        assertThat(snapshots.get(99).items()).isEmpty();
+        assertThat(snapshots.get(99).items()).isEmpty();
+
+        verify(repo, times(2)).findDtosByStoreId(99);
+    }
+
+    @Test
+    void leastRecentlyReadStore_isEvicted_pastTheBound() {
+        when(repo.findDtosByStoreId(anyInt())).thenReturn(List.of(row));
+        snapshots.get(1);
+        snapshots.get(2);
+        snapshots.get(1);
+
+        snapshots.get(3);   // evicts 2
+        snapshots.get(1);
+        snapshots.get(2);
+
+        verify(repo, times(1)).findDtosByStoreId(1);
+        verify(repo, times(2)).findDtosByStoreId(2);
+    }
+}
@@ -0,0 +1,94 @@
+package com.inventory.cache;
+
+import com.order.inventory.cache.StoreLocationIndex;
+import com.order.inventory.repository.StoreRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StoreLocationIndexTest {
+
+    @Mock
+    private StoreRepository storeRepo;
+
+    @InjectMocks
+    private StoreLocationIndex index;
+
+    private static Object[] store(int id, double lat, double lon) {
+        return new Object[]{id, BigDecimal.valueOf(lat), BigDecimal.valueOf(lon)};
+    }
+
+    @Test
+    void nearest_matchesAFullScan_for5kStores() {
+        Random rnd = new Random(42);
+        List<Object[]> stores = new ArrayList<>();
+        for (int id = 1; id <= 5_000; id++) {
+            // clustered like a real network: most stores within a few hundred km of a few cities
+            double[] city = List.of(new double[]{40.7, -74.0}, new double[]{51.5, -0.1}, new double[]{-33.9, 151.2})
+                    .get(id % 3);
+            stores.add(store(id, city[0] + rnd.nextGaussian() * 3, city[1] + rnd.nextGaussian() * 3));
+        }
+        when(storeRepo.findAllLocations()).thenReturn(stores);
+
+        for (int q = 0; q < 200; q++) {
+            double lat = -60 + rnd.nextDouble() * 130, lon = -180 + rnd.nextDouble() * 360;
+            List<Integer> expected = stores.stream()
+                    .sorted(Comparator.comparingDouble(s -> StoreLocationIndex.distanceKm(lat, lon,
+                            ((BigDecimal) s[1]).doubleValue(), ((BigDecimal) s[2]).doubleValue())))
+                    .limit(10).map(s -> (Integer) s[0]).toList();
+
+            assertThat(index.nearest(lat, lon, 10)).extracting(StoreLocationIndex.Nearby::storeId)
+                    .containsExactlyElementsOf(expected);
+        }
+        verify(storeRepo, times(1)).findAllLocations();
+    }
+
+    @Test
+    void nearest_matchesAFullScan_nearThePole() {
+        Random rnd = new Random(7);
+        List<Object[]> stores = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            stores.add(store(id, 70 + rnd.nextDouble() * 19.9, -179 + rnd.nextDouble() * 358));
+        }
+        when(storeRepo.findAllLocations()).thenReturn(stores);
+
+        for (int q = 0; q < 100; q++) {
+            double lat = 75 + rnd.nextDouble() * 14, lon = -170 + rnd.nextDouble() * 340;
+            List<Integer> expected = stores.stream()
+                    .sorted(Comparator.comparingDouble(s -> StoreLocationIndex.distanceKm(lat, lon,
+                            ((BigDecimal) s[1]).doubleValue(), ((BigDecimal) s[2]).doubleValue())))
+                    .limit(5).map(s -> (Integer) s[0]).toList();
+
+            assertThat(index.nearest(lat, lon, 5)).extracting(StoreLocationIndex.Nearby::storeId)
+                    .containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void fewerStoresThanLimit_returnsAllOfThem() {
+        when(storeRepo.findAllLocations()).thenReturn(List.of(store(1, 10, 10), store(2, 10.2, 10.2)));
+
+        assertThat(index.nearest(10.1, 10.1, 50)).hasSize(2);
+        assertThat(index.nearest(0, 0, 1)).singleElement()
+                .satisfies(n -> assertThat(n.storeId()).isEqualTo(1));
+    }
+
+    @Test
+    void distanceKm_isHaversine() {
+        // London -> Paris, about 344 km
+        assertThat(StoreLocationIndex.distanceKm(51.5074, -0.1278, 48.8566, 2.3522)).isBetween(340.0, 348.0);
+    }
+}
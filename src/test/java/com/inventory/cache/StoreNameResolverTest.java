@@ -0,0 +1,62 @@
+package com.inventory.cache;
+
+import com.order.inventory.cache.StoreNameResolver;
+import com.order.inventory.repository.StoreRepository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StoreNameResolverTest {
+
+    @Mock
+    private StoreRepository storeRepo;
+
+    @InjectMocks
+    private StoreNameResolver resolver;
+
+    @Test
+    void resolve_isCaseInsensitive_andKeepsDuplicateNames() {
+        when(storeRepo.findAllIdsAndNames()).thenReturn(List.of(
+                new Object[]{1, "Main Store"},
+                new Object[]{2, "MAIN STORE"},
+                new Object[]{3, "Outlet"},
+                new Object[]{4, null}));
+
+        assertThat(resolver.resolve("  main store ")).containsExactly(1, 2);
+        assertThat(resolver.resolve("outlet")).containsExactly(3);
+
+        verify(storeRepo, times(1)).findAllIdsAndNames();
+    }
+
+    @Test
+    void resolve_unknownName_doesNotReloadOnEveryMiss() {
+        when(storeRepo.findAllIdsAndNames()).thenReturn(List.<Object[]>of(new Object[]{1, "Main Store"}));
+
+        assertThat(resolver.resolve("nope")).isEmpty();
+        assertThat(resolver.resolve("still nope")).isEmpty();
+
+        verify(storeRepo, times(1)).findAllIdsAndNames();
+    }
+
+    @Test
+    void refresh_picksUpRenamedStores() {
+        when(storeRepo.findAllIdsAndNames())
+                .thenReturn(List.<Object[]>of(new Object[]{1, "Old Name"}))
+                .thenReturn(List.<Object[]>of(new Object[]{1, "New Name"}));
+        assertThat(resolver.resolve("old name")).containsExactly(1);
+
+        resolver.refresh();
+
+        assertThat(resolver.resolve("old name")).isEmpty();
+        assertThat(resolver.resolve("new name")).containsExactly(1);
+    }
+}
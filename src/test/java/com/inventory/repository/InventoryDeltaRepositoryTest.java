@@ -0,0 +1,128 @@
+package com.inventory.repository;
+
+import com.order.inventory.OrderInventorySystemApplication;
+import com.order.inventory.repository.InventoryDeltaRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Guarded relative UPDATEs against a real database: concurrent writers never lose
+ * updates and stock never goes negative. Runs outside the test transaction so every
+ * thread sees committed rows.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@ContextConfiguration(classes = OrderInventorySystemApplication.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryDeltaRepositoryTest {
+
+    @Autowired private DataSource dataSource;
+
+    private JdbcTemplate jdbc;
+    private InventoryDeltaRepository deltaRepo;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(dataSource);
+        deltaRepo = new InventoryDeltaRepository(jdbc);
+        jdbc.update("INSERT INTO stores (store_id, store_name) VALUES (1, 'Main Store')");
+        jdbc.update("INSERT INTO products (product_id, product_name) VALUES (10, 'Phone'), (11, 'Laptop')");
+        jdbc.update("INSERT INTO inventory (store_id, product_id, product_inventory, version) VALUES (1, 10, 100, 0), (1, 11, 5, 0)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.update("DELETE FROM inventory");
+        jdbc.update("DELETE FROM products");
+        jdbc.update("DELETE FROM stores");
+    }
+
+    private int quantity(int productId) {
+        return jdbc.queryForObject("SELECT product_inventory FROM inventory WHERE store_id = 1 AND product_id = ?",
+                Integer.class, productId);
+    }
+
+    @Test
+    void applyGuarded_rejectsRowsThatWouldGoNegative_orDoNotExist() {
+        int[] counts = deltaRepo.applyGuarded(List.of(
+                new int[]{1, 10, -30},
+                new int[]{1, 11, -6},
+                new int[]{1, 99, 1}));
+
+        assertThat(counts).containsExactly(1, 0, 0);
+        assertThat(quantity(10)).isEqualTo(70);
+        assertThat(quantity(11)).isEqualTo(5);
+        assertThat(jdbc.queryForObject("SELECT version FROM inventory WHERE product_id = 10", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void upsert_setsExistingRows_insertsMissingOnes() throws Exception {
+        jdbc.update("INSERT INTO products (product_id, product_name) VALUES (12, 'Tablet')");
+        // ON DUPLICATE KEY UPDATE is MySQL syntax; H2 accepts it in MySQL mode
+        try (Connection c = dataSource.getConnection()) {
+            SingleConnectionDataSource mysql = new SingleConnectionDataSource(c, true);
+            new JdbcTemplate(mysql).execute("SET MODE MySQL");
+            try {
+                new InventoryDeltaRepository(new JdbcTemplate(mysql)).upsert(List.of(
+                        new int[]{1, 10, 7},
+                        new int[]{1, 12, 40}));
+            } finally {
+                new JdbcTemplate(mysql).execute("SET MODE REGULAR");
+            }
+        }
+
+        assertThat(quantity(10)).isEqualTo(7);
+        assertThat(quantity(11)).isEqualTo(5);
+        assertThat(quantity(12)).isEqualTo(40);
+        assertThat(jdbc.queryForObject("SELECT version FROM inventory WHERE product_id = 10", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentAdjustments_loseNoUpdates() throws Exception {
+        int threads = 16, batchesPerThread = 50;
+        AtomicInteger appliedSum = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Callable<Void> worker = () -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                for (int b = 0; b < batchesPerThread; b++) {
+                    List<int[]> batch = List.of(
+                            new int[]{1, 10, rnd.nextInt(-5, 4)},
+                            new int[]{1, 10, rnd.nextInt(-5, 4)});
+                    int[] counts = deltaRepo.applyGuarded(batch);
+                    for (int k = 0; k < counts.length; k++) {
+                        if (counts[k] > 0) appliedSum.addAndGet(batch.get(k)[2]);
+                    }
+                }
+                return null;
+            };
+            List<Future<Void>> futures = pool.invokeAll(Collections.nCopies(threads, worker));
+            for (Future<Void> f : futures) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(quantity(10)).isEqualTo(100 + appliedSum.get()).isGreaterThanOrEqualTo(0);
+    }
+}
@@ -0,0 +1,144 @@
+package com.inventory.repository;
+
+import com.order.inventory.OrderInventorySystemApplication;
+import com.order.inventory.dto.OrderDTO;
+import com.order.inventory.entity.Customer;
+import com.order.inventory.entity.Order;
+import com.order.inventory.entity.OrderStatus;
+import com.order.inventory.entity.Store;
+import com.order.inventory.repository.CustomerRepository;
+import com.order.inventory.repository.OrderRepository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Every OrderService list endpoint must be served by exactly one SQL statement,
+ * whatever the number of distinct stores in the result.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ContextConfiguration(classes = OrderInventorySystemApplication.class)
+class OrderRepositoryStatementCountTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private OrderRepository orderRepo;
+    @Autowired private CustomerRepository customerRepo;
+
+    private Statistics stats;
+
+    @BeforeEach
+    void setUp() {
+        Customer cust = em.persist(Customer.builder().fullName("Veda Sri").emailAddress("veda@example.com").build());
+        for (int s = 1; s <= 3; s++) {
+            Store store = em.persist(Store.builder().id(s).storeName("Store " + s)
+                    .webAddress("https://s" + s + ".example.com").logo(new byte[1024]).build());
+            for (int i = 0; i < 2; i++) {
+                em.persist(Order.builder().customer(cust).store(store).orderStatus(OrderStatus.NEW)
+                        .orderTms(Instant.parse("2025-01-0" + s + "T10:00:00Z")).build());
+            }
+        }
+        em.flush();
+        em.clear();
+        stats = em.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void all_runsOneStatement() {
+        assertSingleStatement(() -> orderRepo.findAllSummaries(), 6);
+    }
+
+    @Test
+    void byStatus_runsOneStatement() {
+        assertSingleStatement(() -> orderRepo.findByOrderStatus(OrderStatus.NEW), 6);
+    }
+
+    @Test
+    void byCustomer_runsOneStatement() {
+        Integer custId = orderRepo.findAllSummaries().get(0).getCustomerId();
+        assertSingleStatement(() -> orderRepo.findByCustomerId(custId), 6);
+    }
+
+    @Test
+    void byDateRange_runsOneStatement() {
+        assertSingleStatement(() -> orderRepo.findByDateRange(
+                Instant.parse("2025-01-01T00:00:00Z"), Instant.parse("2025-01-03T00:00:00Z")), 4);
+    }
+
+    @Test
+    void byStoreIds_runsOneStatement() {
+        Integer storeId = orderRepo.findAllSummaries().get(0).getStoreId();
+        assertSingleStatement(() -> orderRepo.findByStoreIds(List.of(storeId)), 2);
+        assertSingleStatement(() -> orderRepo.findByStoreIdsFirstPage(List.of(storeId), Limit.of(1)), 1);
+        OrderDTO first = orderRepo.findByStoreIdsFirstPage(List.of(storeId), Limit.of(1)).get(0);
+        assertSingleStatement(() -> orderRepo.findByStoreIdsPageAfter(
+                List.of(storeId), first.getOrderTms(), first.getId(), Limit.of(5)), 1);
+    }
+
+    @Test
+    void customerIdByEmail_loadsNoEntity() {
+        stats.clear();
+        assertThat(customerRepo.findIdByEmailAddress("veda@example.com")).isPresent();
+        assertThat(customerRepo.findIdByEmailAddress("nobody@example.com")).isEmpty();
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(stats.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void keysetPages_runOneStatementEach() {
+        assertSingleStatement(() -> orderRepo.findFirstPage(Limit.of(4)), 4);
+        OrderDTO last = orderRepo.findFirstPage(Limit.of(4)).get(3);
+        assertSingleStatement(() -> orderRepo.findPageAfter(last.getOrderTms(), last.getId(), Limit.of(4)), 2);
+    }
+
+    @Test
+    void dayBuckets_groupByUtcDay() {
+        List<Object[]> rows = orderRepo.countOrdersByDay();
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows).allSatisfy(r -> {
+            assertThat(r[0]).isInstanceOf(java.time.LocalDate.class);
+            assertThat(((Number) r[1]).longValue()).isEqualTo(2L);
+        });
+    }
+
+    @Test
+    void rangePages_stayInsideWindow() {
+        Instant from = Instant.parse("2025-01-02T00:00:00Z");
+        Instant to = Instant.parse("2025-01-03T00:00:00Z");
+        assertSingleStatement(() -> orderRepo.findRangeFirstPage(from, to, Limit.of(1)), 1);
+        OrderDTO first = orderRepo.findRangeFirstPage(from, to, Limit.of(1)).get(0);
+        assertSingleStatement(() -> orderRepo.findRangePageAfter(from, to, first.getOrderTms(), first.getId(), Limit.of(5)), 1);
+    }
+
+    private void assertSingleStatement(Supplier<List<OrderDTO>> call, int expectedRows) {
+        em.clear();
+        stats.clear();
+
+        List<OrderDTO> rows = call.get();
+
+        assertThat(rows).hasSize(expectedRows);
+        assertThat(rows).allSatisfy(o -> {
+            assertThat(o.getStoreName()).startsWith("Store ");
+            assertThat(o.getWebAddress()).isNotBlank();
+            assertThat(o.getStatus()).isEqualTo("NEW");
+        });
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(stats.getEntityLoadCount()).isZero();
+    }
+}
@@ -0,0 +1,67 @@
+package com.inventory.repository;
+
+import com.order.inventory.OrderInventorySystemApplication;
+import com.order.inventory.entity.Product;
+import com.order.inventory.repository.ProductRepository;
+import com.order.inventory.repository.ProductSpecifications;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@ContextConfiguration(classes = OrderInventorySystemApplication.class)
+class ProductSpecificationsTest {
+
+    @Autowired private TestEntityManager em;
+    @Autowired private ProductRepository repo;
+
+    @BeforeEach
+    void setUp() {
+        String[] brands = {"ACME", "Zeta", "acme", null};
+        String[] colours = {"Red", "Blue"};
+        for (int id = 1; id <= 20; id++) {
+            em.persist(Product.builder().id(id).productName("P" + id)
+                    .brand(brands[id % 4]).colour(colours[id % 2]).size(id % 3 == 0 ? "L" : "M")
+                    .rating(id % 5 + 1).unitPrice(BigDecimal.valueOf(id * 10L)).build());
+        }
+        em.flush();
+        em.clear();
+    }
+
+    private List<Integer> ids(Specification<Product> spec, int limit) {
+        return repo.findBy(spec, q -> q.sortBy(Sort.by("id")).limit(limit).all()).stream().map(Product::getId).toList();
+    }
+
+    @Test
+    void filters_combine_caseInsensitively() {
+        Specification<Product> spec = Specification.allOf(
+                ProductSpecifications.brandIn(List.of("acme")),
+                ProductSpecifications.colourIn(List.of("RED", "green")),
+                ProductSpecifications.sizeIn(null),
+                ProductSpecifications.ratingAtLeast(2),
+                ProductSpecifications.priceBetween(new BigDecimal("50"), null));
+
+        // brand ACME/acme: id % 4 in {0, 2}; Red: even; rating >= 2: id % 5 != 0; price >= 50: id >= 5
+        assertThat(ids(spec, 100)).containsExactly(6, 8, 12, 14, 16, 18);
+    }
+
+    @Test
+    void keyset_pagesThroughAllMatches() {
+        Specification<Product> base = ProductSpecifications.priceBetween(null, new BigDecimal("150"));
+
+        assertThat(ids(base.and(ProductSpecifications.idAfter(null)), 6)).containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(ids(base.and(ProductSpecifications.idAfter(6)), 6)).containsExactly(7, 8, 9, 10, 11, 12);
+        assertThat(ids(base.and(ProductSpecifications.idAfter(12)), 6)).containsExactly(13, 14, 15);
+    }
+}
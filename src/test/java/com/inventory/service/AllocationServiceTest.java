@@ -0,0 +1,110 @@
+package com.inventory.service;
+
+import com.order.inventory.cache.StockMatrix;
+import com.order.inventory.cache.StoreLocationIndex;
+import com.order.inventory.dto.InventoryDTO;
+import com.order.inventory.exception.BadRequestException;
+import com.order.inventory.exception.NotFoundException;
+import com.order.inventory.repository.OrderItemRepository;
+import com.order.inventory.service.AllocationService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AllocationServiceTest {
+
+    @Mock private StoreLocationIndex locations;
+    @Mock private StockMatrix stock;
+    @Mock private OrderItemRepository itemRepo;
+
+    private AllocationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AllocationService(locations, stock, itemRepo, 50);
+    }
+
+    private static InventoryDTO.AllocationRequest request(InventoryDTO.AllocationLine... lines) {
+        return InventoryDTO.AllocationRequest.builder().latitude(51.5).longitude(-0.1).items(List.of(lines)).build();
+    }
+
+    private static InventoryDTO.AllocationLine line(int productId, int quantity) {
+        return new InventoryDTO.AllocationLine(productId, quantity);
+    }
+
+    private void nearby(int... storeIds) {
+        List<StoreLocationIndex.Nearby> list = new ArrayList<>();
+        for (int i = 0; i < storeIds.length; i++) list.add(new StoreLocationIndex.Nearby(storeIds[i], i * 10.0));
+        when(locations.nearest(51.5, -0.1, 50)).thenReturn(list);
+    }
+
+    @Test
+    void nearestStoreThatHasEverything_shipsTheWholeOrder() {
+        nearby(1, 2);
+        when(stock.quantity(anyInt(), anyInt())).thenReturn(0);
+        when(stock.quantity(2, 10)).thenReturn(5);
+        when(stock.quantity(2, 11)).thenReturn(5);
+
+        InventoryDTO.Allocation out = service.allocate(request(line(10, 2), line(11, 1), line(10, 1)));
+
+        assertThat(out.isComplete()).isTrue();
+        assertThat(out.getShipments()).singleElement().satisfies(s -> {
+            assertThat(s.getStoreId()).isEqualTo(2);
+            assertThat(s.getLines()).extracting(InventoryDTO.AllocationLine::getQuantity).containsExactly(3, 1);
+        });
+    }
+
+    @Test
+    void otherwiseLinesAreSplit_nearestFirst_andShortfallReported() {
+        nearby(1, 2, 3);
+        when(stock.quantity(anyInt(), anyInt())).thenReturn(0);
+        when(stock.quantity(1, 10)).thenReturn(4);
+        when(stock.quantity(2, 10)).thenReturn(10);
+        when(stock.quantity(2, 11)).thenReturn(1);
+
+        InventoryDTO.Allocation out = service.allocate(request(line(10, 6), line(11, 2)));
+
+        assertThat(out.isComplete()).isFalse();
+        assertThat(out.getShipments()).extracting(InventoryDTO.AllocatedShipment::getStoreId).containsExactly(1, 2);
+        assertThat(out.getShipments().get(1).getLines())
+                .extracting(InventoryDTO.AllocationLine::getProductId, InventoryDTO.AllocationLine::getQuantity)
+                .containsExactly(tuple(10, 2), tuple(11, 1));
+        assertThat(out.getUnallocated()).singleElement()
+                .satisfies(l -> assertThat(l.getQuantity()).isEqualTo(1));
+    }
+
+    @Test
+    void orderId_usesTheOrderLines() {
+        nearby(1);
+        when(itemRepo.findProductQuantitiesByOrderId(7)).thenReturn(List.<Object[]>of(new Object[]{10, 2}));
+        when(stock.quantity(1, 10)).thenReturn(2);
+
+        InventoryDTO.Allocation out = service.allocate(
+                InventoryDTO.AllocationRequest.builder().latitude(51.5).longitude(-0.1).orderId(7).build());
+
+        assertThat(out.isComplete()).isTrue();
+    }
+
+    @Test
+    void invalidRequests_areRejected() {
+        assertThatThrownBy(() -> service.allocate(InventoryDTO.AllocationRequest.builder().items(List.of(line(1, 1))).build()))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.allocate(request(line(1, 0))))
+                .isInstanceOf(BadRequestException.class);
+        when(itemRepo.findProductQuantitiesByOrderId(8)).thenReturn(List.of());
+        assertThatThrownBy(() -> service.allocate(
+                InventoryDTO.AllocationRequest.builder().latitude(0.0).longitude(0.0).orderId(8).build()))
+                .isInstanceOf(NotFoundException.class);
+    }
+}
@@ -0,0 +1,181 @@
+package com.inventory.service;
+
+import com.order.inventory.dto.OrderDTO;
+import com.order.inventory.exception.BadRequestException;
+import com.order.inventory.exception.ServiceUnavailableException;
+import com.order.inventory.service.AsyncOrderWriter;
+import com.order.inventory.service.OrderService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncOrderWriterTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @TempDir
+    Path dir;
+
+    private final List<AsyncOrderWriter> started = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AsyncOrderWriter w : started) w.stop();
+    }
+
+    private AsyncOrderWriter writer(boolean enabled) throws Exception {
+        AsyncOrderWriter w = new AsyncOrderWriter(orderService, enabled, dir.resolve("journal.log").toString(),
+                500, 5, 100, 1 << 20, 60_000, 3);
+        w.start();
+        if (enabled) started.add(w);
+        return w;
+    }
+
+    private static OrderDTO order(int customerId) {
+        return OrderDTO.builder().customerId(customerId).storeId(1).status("new").build();
+    }
+
+    private static OrderDTO.BulkResult created(Integer... ids) {
+        return OrderDTO.BulkResult.builder().received(ids.length).created(ids.length)
+                .createdIds(List.of(ids)).errors(List.of()).build();
+    }
+
+    private static OrderDTO.AsyncTicket awaitDone(AsyncOrderWriter w, String ticket) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            OrderDTO.AsyncTicket t = w.status(ticket);
+            if (!"PENDING".equals(t.getState())) return t;
+            Thread.sleep(10);
+        }
+        return w.status(ticket);
+    }
+
+    @Test
+    void submit_returnsPendingTicket_thenCommitsThroughBulkPath() throws Exception {
+        when(orderService.createBulk(anyList())).thenReturn(created(42));
+        AsyncOrderWriter w = writer(true);
+
+        OrderDTO.AsyncTicket t = w.submit(order(7));
+
+        assertThat(t.getState()).isEqualTo("PENDING");
+        OrderDTO.AsyncTicket done = awaitDone(w, t.getTicket());
+        assertThat(done.getState()).isEqualTo("COMMITTED");
+        assertThat(done.getOrderId()).isEqualTo(42);
+    }
+
+    @Test
+    void validationErrorFromBulkPath_marksTicketFailed() throws Exception {
+        when(orderService.createBulk(anyList())).thenReturn(OrderDTO.BulkResult.builder()
+                .received(1).created(0).createdIds(List.of())
+                .errors(List.of(OrderDTO.RowError.builder().index(0).error("Customer not found").build()))
+                .build());
+        AsyncOrderWriter w = writer(true);
+
+        OrderDTO.AsyncTicket done = awaitDone(w, w.submit(order(999)).getTicket());
+
+        assertThat(done.getState()).isEqualTo("FAILED");
+        assertThat(done.getError()).isEqualTo("Customer not found");
+    }
+
+    @Test
+    void dbFailure_isRetried_untilCommitted() throws Exception {
+        when(orderService.createBulk(anyList()))
+                .thenThrow(new RuntimeException("Connection refused"))
+                .thenReturn(created(5));
+        AsyncOrderWriter w = writer(true);
+
+        OrderDTO.AsyncTicket done = awaitDone(w, w.submit(order(7)).getTicket());
+
+        assertThat(done.getState()).isEqualTo("COMMITTED");
+        verify(orderService, times(2)).createBulk(anyList());
+    }
+
+    @Test
+    void rowRejectedByTheDb_failsAfterMaxAttempts_andJournalsF() throws Exception {
+        when(orderService.createBulk(anyList())).thenReturn(OrderDTO.BulkResult.builder()
+                .received(1).created(0).createdIds(List.of())
+                .errors(List.of(OrderDTO.RowError.builder().index(0).error("Insert failed: duplicate key").build()))
+                .build());
+        AsyncOrderWriter w = writer(true);
+
+        OrderDTO.AsyncTicket done = awaitDone(w, w.submit(order(7)).getTicket());
+
+        assertThat(done.getState()).isEqualTo("FAILED");
+        assertThat(done.getError()).contains("duplicate key");
+        verify(orderService, times(3)).createBulk(anyList());
+        assertThat(Files.readString(dir.resolve("journal.log"))).contains("F " + done.getTicket());
+    }
+
+    @Test
+    void transientRowErrors_areRetriedPastMaxAttempts() throws Exception {
+        OrderDTO.BulkResult deadlocked = OrderDTO.BulkResult.builder()
+                .received(1).created(0).createdIds(List.of())
+                .errors(List.of(OrderDTO.RowError.builder().index(0).error("Insert not committed, retry: deadlock").build()))
+                .build();
+        when(orderService.createBulk(anyList()))
+                .thenReturn(deadlocked, deadlocked, deadlocked, deadlocked)
+                .thenReturn(created(8));
+        AsyncOrderWriter w = writer(true);
+
+        OrderDTO.AsyncTicket done = awaitDone(w, w.submit(order(7)).getTicket());
+        for (int i = 0; i < 300 && "PENDING".equals(done.getState()); i++) {
+            Thread.sleep(10);
+            done = w.status(done.getTicket());
+        }
+
+        assertThat(done.getState()).isEqualTo("COMMITTED");
+        verify(orderService, times(5)).createBulk(anyList());
+    }
+
+    @Test
+    void fullQueue_is503_notAClientError() throws Exception {
+        AsyncOrderWriter w = new AsyncOrderWriter(orderService, true, dir.resolve("journal.log").toString(),
+                500, 5, 0, 1 << 20, 60_000, 3);
+        w.start();
+        started.add(w);
+
+        assertThatThrownBy(() -> w.submit(order(7)))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessageContaining("full");
+    }
+
+    @Test
+    void openJournalEntries_areReplayedOnStartup() throws Exception {
+        Files.writeString(dir.resolve("journal.log"), """
+                A t-1 7 1 NEW 2025-01-01T10:00:00Z
+                A t-2 8 1 NEW 2025-01-01T10:00:01Z
+                C t-2 11
+                """);
+        when(orderService.createBulk(anyList())).thenReturn(created(12));
+        AsyncOrderWriter w = writer(true);
+
+        assertThat(awaitDone(w, "t-1").getOrderId()).isEqualTo(12);
+        assertThatThrownBy(() -> w.status("t-2")).hasMessageContaining("Unknown ticket");
+        verify(orderService).createBulk(argThat(l -> l.size() == 1 && l.get(0).getCustomerId() == 7));
+    }
+
+    @Test
+    void submit_rejectsInvalidOrders_andDisabledMode() throws Exception {
+        assertThatThrownBy(() -> writer(true).submit(OrderDTO.builder().customerId(1).storeId(1).status("nope").build()))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Invalid order status");
+        assertThatThrownBy(() -> writer(false).submit(order(1)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("disabled");
+        verifyNoInteractions(orderService);
+    }
+}
@@ -1,5 +1,6 @@
 package com.inventory.service;
 
+import com.order.inventory.cache.CustomerIdCache;
 import com.order.inventory.dto.CustomerDTO;
 import com.order.inventory.dto.ShipmentDTO;
 import com.order.inventory.entity.Customer;
@@ -37,6 +38,9 @@ class CustomerServiceTest {
     @Mock
     private CustomerMapper mapper;
 
+    @Mock
+    private CustomerIdCache customerIds;
+
     @InjectMocks
     private CustomerService service;
 
@@ -192,6 +196,7 @@ class CustomerServiceTest {
 
         verify(customerRepo).existsById(1);
         verify(customerRepo).deleteById(1);
+        verify(customerIds).invalidateCustomer(1);
         verifyNoMoreInteractions(customerRepo);
     }
 
@@ -0,0 +1,161 @@
+package com.inventory.service;
+
+import com.order.inventory.dto.InventoryDTO;
+import com.order.inventory.event.InventoryChangedEvent;
+import com.order.inventory.exception.ServiceUnavailableException;
+import com.order.inventory.repository.InventoryRepository;
+import com.order.inventory.service.InventoryChangeFeed;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryChangeFeedTest {
+
+    @Mock
+    private InventoryRepository repo;
+
+    private InventoryChangeFeed feed;
+
+    /** Records the delta batches instead of writing to a response. */
+    static class RecordingEmitter extends SseEmitter {
+        final List<InventoryDTO.StockDelta> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch gate;
+
+        RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                gate.await();
+            } catch (InterruptedException ex) {
+                throw new IOException(ex);
+            }
+            builder.build().stream()
+                    .filter(d -> d.getData() instanceof List)
+                    .forEach(d -> received.addAll((List<InventoryDTO.StockDelta>) d.getData()));
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        feed = new InventoryChangeFeed(repo, 10_000, 3, 8, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.stop();
+    }
+
+    private static InventoryChangedEvent changed(int storeId, int... productIds) {
+        return new InventoryChangedEvent(IntStream.of(productIds)
+                .mapToObj(p -> new InventoryChangedEvent.StockChange(storeId, p, null)).toList());
+    }
+
+    private static void awaitUntil(long timeoutMs, BooleanSupplier done) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!done.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    private void stubRows() {
+        // quantity = productId * 10, version = 7 for every requested product
+        lenient().when(repo.findQuantities(anyInt(), anyCollection())).thenAnswer(inv -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (Integer p : inv.<Collection<Integer>>getArgument(1)) rows.add(new Object[]{p, p * 10, 7});
+            return rows;
+        });
+    }
+
+    @Test
+    void noSubscribers_noQuery() {
+        feed.onInventoryChanged(changed(1, 10));
+        feed.publish();
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void subscriberCap_is503_withRetryAfter() {
+        InventoryChangeFeed capped = new InventoryChangeFeed(repo, 1, 3, 1, 60_000);
+        try {
+            capped.subscribe(null, new RecordingEmitter(new CountDownLatch(0)));
+
+            assertThatThrownBy(() -> capped.subscribe(null, new RecordingEmitter(new CountDownLatch(0))))
+                    .isInstanceOfSatisfying(ServiceUnavailableException.class,
+                            ex -> assertThat(ex.getRetryAfterSeconds()).isPositive());
+            assertThat(capped.subscriberCount()).isEqualTo(1);
+        } finally {
+            capped.stop();
+        }
+    }
+
+    @Test
+    void repeatedChanges_areCoalesced_andFilteredByStore() throws Exception {
+        stubRows();
+        RecordingEmitter store1 = new RecordingEmitter(new CountDownLatch(0));
+        RecordingEmitter everyStore = new RecordingEmitter(new CountDownLatch(0));
+        feed.subscribe(1, store1);
+        feed.subscribe(null, everyStore);
+
+        for (int i = 0; i < 100; i++) {
+            feed.onInventoryChanged(changed(1, 10));
+            feed.onInventoryChanged(changed(2, 20));
+        }
+        feed.publish();
+
+        awaitUntil(5_000, () -> everyStore.received.size() == 2);
+        awaitUntil(5_000, () -> store1.received.size() == 1);
+        InventoryDTO.StockDelta d = store1.received.get(0);
+        assertThat(d.getStoreId()).isEqualTo(1);
+        assertThat(d.getQuantity()).isEqualTo(100);
+        assertThat(d.getVersion()).isEqualTo(7);
+        verify(repo, times(2)).findQuantities(anyInt(), anyCollection());
+    }
+
+    @Test
+    void fiveThousandSubscribers_slowOneIsDropped_othersKeepReceiving() throws Exception {
+        stubRows();
+        CountDownLatch stuck = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(stuck);
+        feed.subscribe(null, slow);
+        List<RecordingEmitter> fast = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            RecordingEmitter e = new RecordingEmitter(new CountDownLatch(0));
+            fast.add(e);
+            feed.subscribe(null, e);
+        }
+
+        feed.onInventoryChanged(changed(1, 1));
+        feed.publish();                       // slow subscriber's send now blocks
+        awaitUntil(10_000, () -> fast.stream().allMatch(e -> e.received.size() == 1));
+        feed.onInventoryChanged(changed(1, 2, 3, 4, 5));
+        feed.publish();                       // its backlog passes max-pending (3 keys)
+
+        awaitUntil(10_000, () -> fast.stream().allMatch(e -> e.received.size() == 5));
+        assertThat(feed.subscriberCount()).isEqualTo(5_000);
+        stuck.countDown();
+    }
+}
@@ -0,0 +1,145 @@
+package com.inventory.service;
+
+import com.order.inventory.dto.InventoryDTO;
+import com.order.inventory.event.InventoryChangedEvent;
+import com.order.inventory.repository.InventoryDeltaRepository;
+import com.order.inventory.repository.ProductRepository;
+import com.order.inventory.repository.StoreRepository;
+import com.order.inventory.service.InventoryImportService;
+import com.order.inventory.service.StockReservationEngine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryImportServiceTest {
+
+    @Mock private StoreRepository storeRepo;
+    @Mock private ProductRepository productRepo;
+    @Mock private InventoryDeltaRepository deltaRepo;
+    @Mock private StockReservationEngine reservations;
+    @Mock private TransactionTemplate txTemplate;
+    @Mock private ApplicationEventPublisher events;
+
+    private InventoryImportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new InventoryImportService(storeRepo, productRepo, deltaRepo, reservations, txTemplate, events, 3, 100);
+        lenient().doAnswer(inv -> {
+            inv.<Runnable>getArgument(1).run();
+            return null;
+        }).when(reservations).overwrite(anyList(), any());
+        when(storeRepo.findAllIds()).thenReturn(List.of(1, 2, 3, 4, 5));
+        when(productRepo.findAllIds()).thenReturn(IntStream.rangeClosed(1, 1_000).boxed().toList());
+    }
+
+    private static ByteArrayInputStream csv(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void runTransactions() {
+        when(txTemplate.execute(any())).thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    void validRows_areUpsertedInBatches_andInvalidOnesReported() {
+        runTransactions();
+        Map<String, Integer> written = new ConcurrentHashMap<>();
+        doAnswer(inv -> {
+            for (int[] r : inv.<List<int[]>>getArgument(0)) written.put(r[0] + ":" + r[1], r[2]);
+            return null;
+        }).when(deltaRepo).upsert(anyList());
+
+        String rows = IntStream.rangeClosed(1, 1_000)
+                .mapToObj(p -> (p % 5 + 1) + "," + p + "," + p * 2)
+                .collect(Collectors.joining("\n"));
+        InventoryDTO.ImportResult out = service.importCsv(csv(
+                "store_id,product_id,quantity\n" + rows + "\n9,1,1\n1,5000,1\n1,x,1\n1,2,-3\n\n"));
+
+        assertThat(out.getRowsRead()).isEqualTo(1_004);
+        assertThat(out.getRowsUpserted()).isEqualTo(1_000);
+        assertThat(out.getRowsRejected()).isEqualTo(4);
+        assertThat(out.getErrors()).containsExactly(
+                "line 1002: unknown store 9",
+                "line 1003: unknown product 5000",
+                "line 1004: expected store_id,product_id,quantity",
+                "line 1005: expected store_id,product_id,quantity");
+        assertThat(written).hasSize(1_000).containsEntry("1:5", 10);
+        verify(deltaRepo, atLeast(10)).upsert(argThat(batch -> batch.size() <= 100));
+        verify(reservations).overwrite(argThat(batch -> batch.stream().anyMatch(r -> r[0] == 1 && r[1] == 5 && r[2] == 10)), any());
+        verify(reservations, never()).evict(anyInt(), anyInt());
+        verify(events, atLeast(10)).publishEvent(any(InventoryChangedEvent.class));
+    }
+
+    @Test
+    void sameStoreUsesOneLane_soTheLastLineForAKeyWins() {
+        runTransactions();
+        List<int[]> seen = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> seen.addAll(inv.getArgument(0))).when(deltaRepo).upsert(anyList());
+
+        String body = IntStream.rangeClosed(1, 500).mapToObj(q -> "2,7," + q).collect(Collectors.joining("\n"));
+        service.importCsv(csv(body));
+
+        assertThat(seen).hasSize(500);
+        assertThat(seen.get(seen.size() - 1)[2]).isEqualTo(500);
+    }
+
+    @Test
+    void failedBatch_isCountedAsRejected() {
+        when(txTemplate.execute(any())).thenThrow(new IllegalStateException("deadlock"));
+
+        InventoryDTO.ImportResult out = service.importCsv(csv("1,1,5\n1,2,6\n"));
+
+        assertThat(out.getRowsUpserted()).isZero();
+        assertThat(out.getRowsRejected()).isEqualTo(2);
+        assertThat(out.getErrors()).singleElement().asString().contains("deadlock");
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void deadlockedBatch_isRetried() {
+        when(txTemplate.execute(any()))
+                .thenThrow(new PessimisticLockingFailureException("deadlock"))
+                .thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+
+        InventoryDTO.ImportResult out = service.importCsv(csv("1,1,5\n1,2,6\n"));
+
+        assertThat(out.getRowsUpserted()).isEqualTo(2);
+        assertThat(out.getRowsRejected()).isZero();
+        verify(deltaRepo).upsert(anyList());
+        verify(events).publishEvent(any(InventoryChangedEvent.class));
+    }
+
+    @Test
+    void batchStillLocked_afterEveryAttempt_isRejected() {
+        when(txTemplate.execute(any())).thenThrow(new CannotAcquireLockException("lock wait timeout"));
+
+        InventoryDTO.ImportResult out = service.importCsv(csv("1,1,5\n"));
+
+        assertThat(out.getRowsRejected()).isEqualTo(1);
+        assertThat(out.getErrors()).singleElement().asString().contains("lock wait timeout");
+        verify(txTemplate, times(3)).execute(any());
+    }
+}
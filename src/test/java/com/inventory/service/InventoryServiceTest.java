@@ -1,7 +1,12 @@
 package com.inventory.service;
 
+import com.order.inventory.cache.InventoryCategoryIndex;
+import com.order.inventory.cache.ShippedProducts;
+import com.order.inventory.cache.StockMatrix;
+import com.order.inventory.cache.StoreInventorySnapshots;
 import com.order.inventory.dto.InventoryDTO;
 import com.order.inventory.entity.Customer;
+import com.order.inventory.event.InventoryChangedEvent;
 import com.order.inventory.entity.Inventory;
 import com.order.inventory.entity.Order;
 import com.order.inventory.entity.OrderItem;
@@ -10,12 +15,15 @@ import com.order.inventory.entity.Product;
 import com.order.inventory.entity.Shipment;
 import com.order.inventory.entity.ShipmentStatus;
 import com.order.inventory.entity.Store;
+import com.order.inventory.exception.BadRequestException;
 import com.order.inventory.exception.NotFoundException;
 import com.order.inventory.mapper.InventoryMapper;
+import com.order.inventory.repository.InventoryDeltaRepository;
 import com.order.inventory.repository.InventoryRepository;
 import com.order.inventory.repository.OrderItemRepository;
 import com.order.inventory.repository.OrderRepository;
 import com.order.inventory.service.InventoryService;
+import com.order.inventory.service.StockReservationEngine;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -25,11 +33,15 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
+import java.sql.Statement;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -49,6 +61,27 @@ class InventoryServiceTest {
     @Mock
     private OrderItemRepository itemRepo;
 
+    @Mock
+    private InventoryCategoryIndex categoryIndex;
+
+    @Mock
+    private ShippedProducts shippedProducts;
+
+    @Mock
+    private StoreInventorySnapshots storeSnapshots;
+
+    @Mock
+    private StockMatrix stockMatrix;
+
+    @Mock
+    private InventoryDeltaRepository deltaRepo;
+
+    @Mock
+    private StockReservationEngine reservations;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
     @InjectMocks
     private InventoryService service;
 
@@ -145,26 +178,23 @@ class InventoryServiceTest {
     // byStoreRequired(storeId)
     // ---------------------------------------------------------
     @Test
-    void byStoreRequired_returnsList_whenFound() {
-        when(repo.findByStoreId(1)).thenReturn(List.of(inv1));
-        when(mapper.toDto(inv1)).thenReturn(dto1);
+    void byStoreRequired_returnsSnapshotItems_whenFound() {
+        when(storeSnapshots.get(1)).thenReturn(new StoreInventorySnapshots.Snapshot("\"v1\"", List.of(dto1)));
 
         List<InventoryDTO> out = service.byStoreRequired(1);
 
         assertThat(out).containsExactly(dto1);
-        verify(repo).findByStoreId(1);
-        verify(mapper).toDto(inv1);
+        verifyNoInteractions(repo, mapper);
     }
 
     @Test
     void byStoreRequired_throws_whenEmpty() {
-        when(repo.findByStoreId(99)).thenReturn(List.of());
+        when(storeSnapshots.get(99)).thenReturn(new StoreInventorySnapshots.Snapshot("\"v1\"", List.of()));
 
         assertThatThrownBy(() -> service.byStoreRequired(99))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("store ID not found");
 
-        verify(repo).findByStoreId(99);
         verifyNoInteractions(mapper);
     }
 
@@ -199,15 +229,62 @@ class InventoryServiceTest {
     // inventoriesWithShipments()
     // ---------------------------------------------------------
     @Test
-    void inventoriesWithShipments_returnsMappedList() {
-        when(repo.findInventoriesWithAnyShipmentForTheirProduct()).thenReturn(List.of(inv2));
-        when(mapper.toDto(inv2)).thenReturn(dto2);
+    void inventoriesWithShipments_queriesOnlyShippedProducts() {
+        BitSet shipped = new BitSet();
+        shipped.set(dto2.getProductId());
+        when(shippedProducts.snapshot()).thenReturn(shipped);
+        when(repo.findDtosByProductIds(List.of(dto2.getProductId()))).thenReturn(List.of(dto2));
 
         List<InventoryDTO> out = service.inventoriesWithShipments();
 
         assertThat(out).containsExactly(dto2);
-        verify(repo).findInventoriesWithAnyShipmentForTheirProduct();
-        verify(mapper).toDto(inv2);
+        verifyNoInteractions(mapper);
+    }
+
+    @Test
+    void inventoriesWithShipments_splitsShippedProductsIntoInLists() {
+        BitSet shipped = new BitSet();
+        shipped.set(1, 2_501);
+        when(shippedProducts.snapshot()).thenReturn(shipped);
+        when(repo.findDtosByProductIds(anyList())).thenReturn(List.of());
+
+        service.inventoriesWithShipments();
+
+        verify(repo, times(2)).findDtosByProductIds(argThat(ids -> ids.size() == 1_000));
+        verify(repo).findDtosByProductIds(argThat(ids -> ids.size() == 500 && ids.iterator().next() == 2_001));
+    }
+
+    @Test
+    void inventoriesWithShipments_skipsQuery_whenNothingShipped() {
+        when(shippedProducts.snapshot()).thenReturn(new BitSet());
+
+        assertThat(service.inventoriesWithShipments()).isEmpty();
+        verify(repo, never()).findDtosByProductIds(any());
+    }
+
+    @Test
+    void availability_readsEachProductRowFromTheMatrix() {
+        when(stockMatrix.forEachStore(eq(10), any())).thenAnswer(inv -> {
+            StockMatrix.StoreQuantityConsumer c = inv.getArgument(1);
+            c.accept(1, 4);
+            c.accept(3, 6);
+            return 10L;
+        });
+        when(stockMatrix.forEachStore(eq(99), any())).thenReturn(0L);
+
+        List<InventoryDTO.Availability> out = service.availability(List.of(10, 99));
+
+        assertThat(out).extracting(InventoryDTO.Availability::getProductId, InventoryDTO.Availability::getTotal)
+                .containsExactly(tuple(10, 10L), tuple(99, 0L));
+        assertThat(out.get(0).getStores()).extracting(InventoryDTO.StoreQuantity::getStoreId).containsExactly(1, 3);
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void availability_rejectsEmptyAndOversizedRequests() {
+        assertThatThrownBy(() -> service.availability(List.of())).isInstanceOf(BadRequestException.class);
+        List<Integer> tooMany = IntStream.rangeClosed(1, 1_001).boxed().toList();
+        assertThatThrownBy(() -> service.availability(tooMany)).isInstanceOf(BadRequestException.class);
     }
 
     // ---------------------------------------------------------
@@ -335,40 +412,109 @@ class InventoryServiceTest {
     // byCategoryRequired(category)
     // ---------------------------------------------------------
     @Test
-    void byCategoryRequired_returnsByBrand_caseInsensitive_trimmed() {
-        when(repo.findAll()).thenReturn(List.of(inv1, inv2));
-        when(mapper.toDto(inv1)).thenReturn(dto1); // inv1 brand = "ACME"
+    void byCategoryRequired_resolvesIdsFromIndex_thenLoadsDtosInOneQuery() {
+        when(categoryIndex.inventoryIds("  acme ")).thenReturn(new int[]{100, 101});
+        when(repo.findDtosByIds(List.of(100, 101))).thenReturn(List.of(dto1, dto2));
 
         List<InventoryDTO> out = service.byCategoryRequired("  acme ");
 
-        assertThat(out).containsExactly(dto1);
-        verify(repo).findAll();
-        verify(mapper).toDto(inv1);
-        verifyNoMoreInteractions(mapper);
+        assertThat(out).containsExactly(dto1, dto2);
+        verify(repo, never()).findAll();
+        verifyNoInteractions(mapper);
     }
 
     @Test
-    void byCategoryRequired_returnsByColour_caseInsensitive() {
-        when(repo.findAll()).thenReturn(List.of(inv1, inv2));
-        when(mapper.toDto(inv2)).thenReturn(dto2); // inv2 colour = "Blue"
+    void byCategoryPage_returnsRequestedSlice_withTotal() {
+        when(categoryIndex.inventoryIds("blue")).thenReturn(new int[]{100, 101, 102});
+        when(repo.findDtosByIds(List.of(102))).thenReturn(List.of(dto2));
 
-        List<InventoryDTO> out = service.byCategoryRequired("blue");
+        InventoryDTO.Page page = service.byCategoryPage("blue", 1, 2);
 
-        assertThat(out).containsExactly(dto2);
-        verify(repo).findAll();
-        verify(mapper).toDto(inv2);
-        verifyNoMoreInteractions(mapper);
+        assertThat(page.getItems()).containsExactly(dto2);
+        assertThat(page.getTotal()).isEqualTo(3);
+        assertThat(page.getPage()).isEqualTo(1);
     }
 
     @Test
     void byCategoryRequired_throws_whenNoMatch() {
-        when(repo.findAll()).thenReturn(List.of(inv1, inv2));
+        when(categoryIndex.inventoryIds("green")).thenReturn(new int[0]);
 
         assertThatThrownBy(() -> service.byCategoryRequired("green"))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("category not found");
 
-        verify(repo).findAll();
-        verifyNoInteractions(mapper);
+        verifyNoInteractions(repo, mapper);
+    }
+
+    // ---------------------------------------------------------
+    // adjust(adjustments)
+    // ---------------------------------------------------------
+    @Test
+    void adjust_appliesBatch_andReportsEachRow() {
+        when(reservations.take(1, 10, 3)).thenReturn(true);
+        when(reservations.take(1, 11, 5)).thenReturn(false);
+        when(reservations.take(8, 8, 1)).thenThrow(new NotFoundException("not loaded"));
+        when(deltaRepo.applyGuarded(anyList())).thenReturn(new int[]{1, 0, 1});
+        when(repo.findQuantity(9, 9)).thenReturn(Optional.empty());
+
+        List<InventoryDTO.AdjustmentResult> out = service.adjust(List.of(
+                InventoryDTO.Adjustment.builder().storeId(1).productId(10).delta(-3).build(),
+                InventoryDTO.Adjustment.builder().storeId(1).productId(11).delta(-5).build(),
+                InventoryDTO.Adjustment.builder().storeId(1).productId(12).build(),
+                InventoryDTO.Adjustment.builder().storeId(9).productId(9).delta(1).build(),
+                InventoryDTO.Adjustment.builder().storeId(8).productId(8).delta(-1).build(),
+                InventoryDTO.Adjustment.builder().storeId(1).productId(14).delta(4).build()));
+
+        assertThat(out).extracting(InventoryDTO.AdjustmentResult::getIndex, InventoryDTO.AdjustmentResult::getApplied)
+                .containsExactly(tuple(0, true), tuple(1, false), tuple(2, false), tuple(3, false),
+                        tuple(4, false), tuple(5, true));
+        assertThat(out.get(1).getError()).isEqualTo("Insufficient stock");
+        assertThat(out.get(2).getError()).contains("required");
+        assertThat(out.get(3).getError()).contains("not found");
+        assertThat(out.get(4).getError()).contains("not found");
+        verify(deltaRepo).applyGuarded(argThat(rows -> rows.size() == 3));
+        // the decrement was taken up front; only the increment is folded in on commit
+        verify(reservations).adjusted(1, 14, 4);
+        verify(reservations, never()).adjusted(eq(1), eq(10), anyInt());
+        verify(events).publishEvent(argThat((InventoryChangedEvent e) -> e.changes().equals(List.of(
+                new InventoryChangedEvent.StockChange(1, 10, null),
+                new InventoryChangedEvent.StockChange(1, 14, null)))));
+    }
+
+    @Test
+    void adjust_givesTakenUnitsBack_whenTheRowRejectsTheDecrement() {
+        when(reservations.take(1, 10, 3)).thenReturn(true);
+        when(deltaRepo.applyGuarded(anyList())).thenReturn(new int[]{0});
+        when(repo.findQuantity(1, 10)).thenReturn(Optional.of(2));
+
+        List<InventoryDTO.AdjustmentResult> out = service.adjust(List.of(
+                InventoryDTO.Adjustment.builder().storeId(1).productId(10).delta(-3).build()));
+
+        assertThat(out.get(0).getApplied()).isFalse();
+        assertThat(out.get(0).getError()).isEqualTo("Insufficient stock");
+        verify(reservations).adjusted(1, 10, 3);
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void adjust_withoutPerRowCounts_givesTakenUnitsBack_andFails() {
+        when(reservations.take(1, 10, 3)).thenReturn(true);
+        when(deltaRepo.applyGuarded(anyList())).thenReturn(new int[]{Statement.SUCCESS_NO_INFO, 1});
+
+        assertThatThrownBy(() -> service.adjust(List.of(
+                InventoryDTO.Adjustment.builder().storeId(1).productId(10).delta(-3).build(),
+                InventoryDTO.Adjustment.builder().storeId(1).productId(11).delta(2).build())))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(reservations).adjusted(1, 10, 3);
+        verify(reservations, never()).adjusted(1, 11, 2);
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void adjust_rejectsEmptyRequest() {
+        assertThatThrownBy(() -> service.adjust(List.of()))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(deltaRepo);
     }
 }
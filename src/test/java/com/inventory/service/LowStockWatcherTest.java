@@ -0,0 +1,143 @@
+package com.inventory.service;
+
+import com.order.inventory.dto.InventoryDTO;
+import com.order.inventory.event.InventoryChangedEvent;
+import com.order.inventory.exception.BadRequestException;
+import com.order.inventory.repository.InventoryRepository;
+import com.order.inventory.service.LowStockWatcher;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LowStockWatcherTest {
+
+    @Mock
+    private InventoryRepository repo;
+
+    private LowStockWatcher watcher;
+
+    @BeforeEach
+    void setUp() {
+        watcher = new LowStockWatcher(repo, 2);
+    }
+
+    private static InventoryDTO.Threshold threshold(int storeId, int productId, Integer threshold) {
+        return InventoryDTO.Threshold.builder().storeId(storeId).productId(productId).threshold(threshold).build();
+    }
+
+    private static InventoryChangedEvent changed(int storeId, int... productIds) {
+        return new InventoryChangedEvent(IntStream.of(productIds)
+                .mapToObj(p -> new InventoryChangedEvent.StockChange(storeId, p, null)).toList());
+    }
+
+    private static List<Object[]> rows(int productId, int quantity) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{productId, quantity});
+        return rows;
+    }
+
+    @Test
+    void newThreshold_isEvaluated_andAlertsOnce() {
+        watcher.setThresholds(List.of(threshold(1, 10, 5)));
+        when(repo.findQuantities(1, List.of(10))).thenReturn(rows(10, 3));
+
+        watcher.checkPending();
+        watcher.onInventoryChanged(changed(1, 10));
+        watcher.checkPending();   // still low: no second alert
+
+        assertThat(watcher.lowStock(null)).singleElement()
+                .satisfies(l -> assertThat(l.getQuantity()).isEqualTo(3));
+        assertThat(watcher.drainAlerts(10)).hasSize(1);
+        assertThat(watcher.drainAlerts(10)).isEmpty();
+    }
+
+    @Test
+    void onlyWatchedKeysAreRead_andRepeatedChangesCoalesce() {
+        watcher.setThresholds(List.of(threshold(1, 10, 5)));
+        when(repo.findQuantities(1, List.of(10))).thenReturn(rows(10, 9));
+        watcher.checkPending();
+
+        for (int i = 0; i < 1_000; i++) watcher.onInventoryChanged(changed(1, 10, 11, 12));
+        watcher.checkPending();
+        watcher.checkPending();   // nothing pending: no query
+
+        verify(repo, times(2)).findQuantities(anyInt(), anyCollection());
+        assertThat(watcher.lowStock(null)).isEmpty();
+    }
+
+    @Test
+    void failedQuery_keepsTheKeysPending() {
+        watcher.setThresholds(List.of(threshold(1, 10, 5)));
+        when(repo.findQuantities(1, List.of(10)))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenReturn(rows(10, 3));
+
+        watcher.checkPending();
+        assertThat(watcher.lowStock(null)).isEmpty();
+
+        watcher.checkPending();
+        assertThat(watcher.lowStock(null)).singleElement()
+                .satisfies(l -> assertThat(l.getQuantity()).isEqualTo(3));
+    }
+
+    @Test
+    void restockedRow_leavesTheSet() {
+        watcher.setThresholds(List.of(threshold(1, 10, 5)));
+        when(repo.findQuantities(1, List.of(10))).thenReturn(rows(10, 0)).thenReturn(rows(10, 50));
+
+        watcher.checkPending();
+        assertThat(watcher.lowStock(1)).hasSize(1);
+
+        watcher.onInventoryChanged(changed(1, 10));
+        watcher.checkPending();
+        assertThat(watcher.lowStock(1)).isEmpty();
+    }
+
+    @Test
+    void nullThreshold_unsubscribes() {
+        watcher.setThresholds(List.of(threshold(1, 10, 5)));
+        when(repo.findQuantities(1, List.of(10))).thenReturn(rows(10, 0));
+        watcher.checkPending();
+
+        watcher.setThresholds(List.of(threshold(1, 10, null)));
+        watcher.onInventoryChanged(changed(1, 10));
+        watcher.checkPending();
+
+        assertThat(watcher.lowStock(null)).isEmpty();
+        verify(repo, times(1)).findQuantities(anyInt(), anyCollection());
+    }
+
+    @Test
+    void fullAlertQueue_dropsTheOldest() {
+        watcher.setThresholds(List.of(threshold(1, 1, 5), threshold(1, 2, 5), threshold(1, 3, 5)));
+        when(repo.findQuantities(eq(1), anyCollection())).thenReturn(List.of(
+                new Object[]{1, 0}, new Object[]{2, 0}, new Object[]{3, 0}));
+
+        watcher.checkPending();
+
+        assertThat(watcher.lowStock(1)).hasSize(3);
+        List<InventoryDTO.LowStock> alerts = watcher.drainAlerts(10);
+        assertThat(alerts).hasSize(2);
+        assertThat(alerts).extracting(InventoryDTO.LowStock::getProductId).doesNotContainNull();
+    }
+
+    @Test
+    void invalidThresholds_areRejected() {
+        assertThatThrownBy(() -> watcher.setThresholds(List.of()))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> watcher.setThresholds(List.of(threshold(1, 10, -1))))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
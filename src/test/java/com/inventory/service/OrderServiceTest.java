@@ -1,5 +1,9 @@
 package com.inventory.service;
 
+import com.order.inventory.cache.CustomerIdCache;
+import com.order.inventory.cache.OrderDayIndex;
+import com.order.inventory.cache.OrderStatusCounters;
+import com.order.inventory.cache.StoreNameResolver;
 import com.order.inventory.dto.OrderDTO;
 
 import com.order.inventory.dto.OrderDTO.Details;
@@ -24,9 +28,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -43,6 +50,11 @@ class OrderServiceTest {
     @Mock private StoreRepository storeRepo;
     @Mock private OrderMapper orderMapper;
     @Mock private OrderItemMapper itemMapper;
+    @Mock private TransactionTemplate txTemplate;
+    @Mock private OrderStatusCounters statusCounters;
+    @Mock private OrderDayIndex dayIndex;
+    @Mock private StoreNameResolver storeNames;
+    @Mock private CustomerIdCache customerIds;
 
     @InjectMocks
     private OrderService service;
@@ -95,17 +107,67 @@ class OrderServiceTest {
     // all()
     // ---------------------------------------------------------------------
     @Test
-    void all_returnsMappedList() {
-        when(orderRepo.findAll()).thenReturn(List.of(order1, order2));
-        when(orderMapper.toDto(order1)).thenReturn(dto1);
-        when(orderMapper.toDto(order2)).thenReturn(dto2);
+    void all_returnsProjectedList() {
+        when(orderRepo.findAllSummaries()).thenReturn(List.of(dto1, dto2));
 
         List<OrderDTO> out = service.all();
 
         assertThat(out).containsExactly(dto1, dto2);
-        verify(orderRepo).findAll();
-        verify(orderMapper).toDto(order1);
-        verify(orderMapper).toDto(order2);
+        verify(orderRepo).findAllSummaries();
+        verifyNoInteractions(orderMapper);
+    }
+
+    // ---------------------------------------------------------------------
+    // page(cursor, limit) / streamAll(sink)
+    // ---------------------------------------------------------------------
+    @Test
+    void page_firstPage_returnsCursor_whenMoreRowsExist() {
+        when(orderRepo.findFirstPage(org.springframework.data.domain.Limit.of(2)))
+                .thenReturn(new java.util.ArrayList<>(List.of(dto1, dto2)));
+
+        OrderDTO.Page out = service.page(null, 1);
+
+        assertThat(out.getItems()).containsExactly(dto1);
+        assertThat(out.getNextCursor()).isNotBlank();
+    }
+
+    @Test
+    void page_followsCursor_andEndsWithoutCursor() {
+        when(orderRepo.findFirstPage(org.springframework.data.domain.Limit.of(2)))
+                .thenReturn(List.of(dto1, dto2));
+        String cursor = service.page(null, 1).getNextCursor();
+
+        when(orderRepo.findPageAfter(dto1.getOrderTms(), dto1.getId(), org.springframework.data.domain.Limit.of(2)))
+                .thenReturn(List.of(dto2));
+
+        OrderDTO.Page out = service.page(cursor, 1);
+
+        assertThat(out.getItems()).containsExactly(dto2);
+        assertThat(out.getNextCursor()).isNull();
+    }
+
+    @Test
+    void page_throws_whenCursorOrLimitInvalid() {
+        assertThatThrownBy(() -> service.page("not-a-cursor", 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Invalid cursor");
+        assertThatThrownBy(() -> service.page(null, 0))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("limit must be between");
+        assertThatThrownBy(() -> service.page(null, 10_001))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(orderRepo);
+    }
+
+    @Test
+    void streamAll_pushesEveryRowToSink() {
+        when(orderRepo.streamAll()).thenReturn(java.util.stream.Stream.of(dto1, dto2));
+        List<OrderDTO> seen = new java.util.ArrayList<>();
+
+        service.streamAll(seen::add);
+
+        assertThat(seen).containsExactly(dto1, dto2);
+        verifyNoInteractions(orderMapper);
     }
 
     // ---------------------------------------------------------------------
@@ -165,6 +227,8 @@ class OrderServiceTest {
         assertThat(saved.getOrderStatus()).isEqualTo(OrderStatus.NEW);
         assertThat(saved.getOrderTms()).isNotNull();
         verify(orderMapper).toDto(saved);
+        verify(statusCounters).recordCreated(OrderStatus.NEW);
+        verify(dayIndex).recordCreated(saved.getOrderTms());
     }
 
     @Test
@@ -225,6 +289,95 @@ class OrderServiceTest {
         verifyNoInteractions(orderRepo, orderMapper);
     }
 
+    // ---------------------------------------------------------------------
+    // createBulk(dtos)
+    // ---------------------------------------------------------------------
+    @Test
+    void createBulk_createsValidRows_andReportsInvalidOnesByIndex() {
+        List<OrderDTO> input = List.of(
+                OrderDTO.builder().customerId(100).storeId(10).status("new").build(),
+                OrderDTO.builder().customerId(100).storeId(10).status("BOGUS").build(),
+                OrderDTO.builder().customerId(999).storeId(10).status("NEW").build(),
+                OrderDTO.builder().customerId(100).storeId(10).status("PAID").build(),
+                OrderDTO.builder().storeId(10).status("PAID").build());
+        when(customerRepo.findExistingIds(anyCollection())).thenReturn(List.of(100));
+        when(storeRepo.findExistingIds(anyCollection())).thenReturn(List.of(10));
+        when(customerRepo.getReferenceById(100)).thenReturn(cust1);
+        when(storeRepo.getReferenceById(10)).thenReturn(store1);
+        when(txTemplate.execute(any())).thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        java.util.concurrent.atomic.AtomicInteger ids = new java.util.concurrent.atomic.AtomicInteger(500);
+        when(orderRepo.saveAll(anyList())).thenAnswer(inv -> {
+            List<Order> chunk = inv.getArgument(0);
+            chunk.forEach(o -> o.setId(ids.incrementAndGet()));
+            return chunk;
+        });
+
+        OrderDTO.BulkResult out = service.createBulk(input);
+
+        assertThat(out.getReceived()).isEqualTo(5);
+        assertThat(out.getCreated()).isEqualTo(2);
+        assertThat(out.getCreatedIds()).containsExactly(501, 502);
+        assertThat(out.getErrors()).extracting(OrderDTO.RowError::getIndex).containsExactly(1, 2, 4);
+        assertThat(out.getErrors()).extracting(OrderDTO.RowError::getError)
+                .containsExactly("Invalid order status", "Customer not found", "customerId, storeId and status are required");
+        // customers and stores resolved once for the whole batch, never row by row
+        verify(customerRepo).findExistingIds(anyCollection());
+        verify(storeRepo).findExistingIds(anyCollection());
+        verify(customerRepo, never()).findById(any());
+        verify(storeRepo, never()).findById(any());
+        verify(orderRepo).flush();
+    }
+
+    @Test
+    void createBulk_reportsRowsOfFailedChunk_withoutFailingTheRequest() {
+        List<OrderDTO> input = List.of(OrderDTO.builder().customerId(100).storeId(10).status("NEW").build());
+        when(customerRepo.findExistingIds(anyCollection())).thenReturn(List.of(100));
+        when(storeRepo.findExistingIds(anyCollection())).thenReturn(List.of(10));
+        when(txTemplate.execute(any())).thenThrow(new IllegalStateException("deadlock"));
+
+        OrderDTO.BulkResult out = service.createBulk(input);
+
+        assertThat(out.getCreated()).isZero();
+        assertThat(out.getErrors()).singleElement()
+                .satisfies(e -> assertThat(e.getError()).startsWith("Insert not committed, retry: ").contains("deadlock"));
+    }
+
+    @Test
+    void createBulk_bisectsAChunkRejectedByAConstraint_andReportsOnlyTheBadRow() {
+        List<OrderDTO> input = new ArrayList<>();
+        for (int i = 0; i < 5; i++) input.add(OrderDTO.builder().customerId(100).storeId(10).status("NEW")
+                .orderTms(Instant.parse("2025-01-0" + (i + 1) + "T00:00:00Z")).build());
+        Instant poison = input.get(3).getOrderTms();
+        when(customerRepo.findExistingIds(anyCollection())).thenReturn(List.of(100));
+        when(storeRepo.findExistingIds(anyCollection())).thenReturn(List.of(10));
+        when(txTemplate.execute(any())).thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        java.util.concurrent.atomic.AtomicInteger ids = new java.util.concurrent.atomic.AtomicInteger(500);
+        when(orderRepo.saveAll(anyList())).thenAnswer(inv -> {
+            List<Order> chunk = inv.getArgument(0);
+            if (chunk.stream().anyMatch(o -> o.getOrderTms().equals(poison)))
+                throw new org.springframework.dao.DataIntegrityViolationException("duplicate key");
+            chunk.forEach(o -> o.setId(ids.incrementAndGet()));
+            return chunk;
+        });
+
+        OrderDTO.BulkResult out = service.createBulk(input);
+
+        assertThat(out.getCreatedIds()).containsExactly(501, 502, 503, 504);
+        assertThat(out.getErrors()).singleElement().satisfies(e -> {
+            assertThat(e.getIndex()).isEqualTo(3);
+            assertThat(e.getError()).contains("duplicate key");
+        });
+        // references are resolved inside each attempt's transaction
+        verify(customerRepo, atLeast(5 + 4)).getReferenceById(100);
+    }
+
+    @Test
+    void createBulk_throws_whenEmpty() {
+        assertThatThrownBy(() -> service.createBulk(List.of()))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(orderRepo, customerRepo, storeRepo);
+    }
+
     // ---------------------------------------------------------------------
     // update(id, dto)
     // ---------------------------------------------------------------------
@@ -277,6 +430,8 @@ class OrderServiceTest {
         verify(storeRepo).findById(store2.getId());
         verify(orderRepo).save(existing);
         verify(orderMapper).toDto(saved);
+        verify(statusCounters).recordTransition(OrderStatus.NEW, OrderStatus.COMPLETE);
+        verify(dayIndex).recordMoved(Instant.parse("2025-01-01T00:00:00Z"), patch.getOrderTms());
     }
 
     @Test
@@ -332,53 +487,54 @@ class OrderServiceTest {
     // delete(id)
     // ---------------------------------------------------------------------
     @Test
-    void delete_deletes_whenExists() {
-        when(orderRepo.existsById(1)).thenReturn(true);
+    void delete_deletes_andUpdatesCountersAndDayIndex_whenExists() {
+        Order existing = new Order();
+        existing.setId(1);
+        existing.setOrderStatus(OrderStatus.PAID);
+        existing.setOrderTms(Instant.parse("2025-01-01T10:00:00Z"));
+        when(orderRepo.findById(1)).thenReturn(Optional.of(existing));
 
         service.delete(1);
 
-        verify(orderRepo).existsById(1);
-        verify(orderRepo).deleteById(1);
+        verify(orderRepo).delete(existing);
+        verify(statusCounters).recordTransition(OrderStatus.PAID, null);
+        verify(dayIndex).recordMoved(Instant.parse("2025-01-01T10:00:00Z"), null);
     }
 
     @Test
     void delete_throws_whenNotFound() {
-        when(orderRepo.existsById(99)).thenReturn(false);
+        when(orderRepo.findById(99)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> service.delete(99))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("Order not found");
 
-        verify(orderRepo).existsById(99);
-        verify(orderRepo, never()).deleteById(anyInt());
+        verify(orderRepo, never()).delete(any());
+        verifyNoInteractions(statusCounters, dayIndex);
     }
 
     // ---------------------------------------------------------------------
     // countByStatus()
     // ---------------------------------------------------------------------
     @Test
-    void countByStatus_mapsToStringLong() {
-        List<Object[]> rows = List.of(
-                new Object[]{OrderStatus.NEW, 3L},
-                new Object[]{OrderStatus.COMPLETE, 7}
-        );
-        when(orderRepo.countOrdersByStatus()).thenReturn(rows);
+    void countByStatus_readsCounters_notTheDatabase() {
+        when(statusCounters.snapshot()).thenReturn(Map.of("NEW", 3L, "COMPLETE", 7L));
 
         Map<String, Long> out = service.countByStatus();
 
         assertThat(out).containsEntry("NEW", 3L)
                        .containsEntry("COMPLETE", 7L)
                        .hasSize(2);
-        verify(orderRepo).countOrdersByStatus();
+        verify(statusCounters).snapshot();
+        verifyNoInteractions(orderRepo);
     }
 
     // ---------------------------------------------------------------------
     // byStatus(status)
     // ---------------------------------------------------------------------
     @Test
-    void byStatus_returnsMappedList_whenValidStatus() {
-        when(orderRepo.findByOrderStatus(OrderStatus.NEW)).thenReturn(List.of(order1));
-        when(orderMapper.toDto(order1)).thenReturn(dto1);
+    void byStatus_returnsProjectedList_whenValidStatus() {
+        when(orderRepo.findByOrderStatus(OrderStatus.NEW)).thenReturn(List.of(dto1));
 
         List<OrderDTO> out = service.byStatus("new");
 
@@ -399,10 +555,8 @@ class OrderServiceTest {
     // byCustomer(customerId) / byCustomerRequired(customerId)
     // ---------------------------------------------------------------------
     @Test
-    void byCustomer_returnsMappedList() {
-        when(orderRepo.findByCustomerId(100)).thenReturn(List.of(order1, order2));
-        when(orderMapper.toDto(order1)).thenReturn(dto1);
-        when(orderMapper.toDto(order2)).thenReturn(dto2);
+    void byCustomer_returnsProjectedList() {
+        when(orderRepo.findByCustomerId(100)).thenReturn(List.of(dto1, dto2));
 
         List<OrderDTO> out = service.byCustomer(100);
 
@@ -412,8 +566,7 @@ class OrderServiceTest {
 
     @Test
     void byCustomerRequired_returns_whenNonEmpty_elseThrows() {
-        when(orderRepo.findByCustomerId(100)).thenReturn(List.of(order1));
-        when(orderMapper.toDto(order1)).thenReturn(dto1);
+        when(orderRepo.findByCustomerId(100)).thenReturn(List.of(dto1));
 
         List<OrderDTO> ok = service.byCustomerRequired(100);
         assertThat(ok).containsExactly(dto1);
@@ -428,38 +581,65 @@ class OrderServiceTest {
     // byCustomerEmail(email)
     // ---------------------------------------------------------------------
     @Test
-    void byCustomerEmail_returnsMappedList() {
-        when(orderRepo.findByCustomerEmail("veda@example.com")).thenReturn(List.of(order1));
-        when(orderMapper.toDto(order1)).thenReturn(dto1);
+    void byCustomerEmail_resolvesId_thenQueriesByCustomerId() {
+        when(customerIds.resolve("veda@example.com")).thenReturn(Optional.of(100));
+        when(orderRepo.findByCustomerId(100)).thenReturn(List.of(dto1));
 
         List<OrderDTO> out = service.byCustomerEmail("veda@example.com");
 
         assertThat(out).containsExactly(dto1);
-        verify(orderRepo).findByCustomerEmail("veda@example.com");
+        verify(orderRepo).findByCustomerId(100);
+    }
+
+    @Test
+    void byCustomerEmail_unknownEmail_skipsOrderQuery() {
+        when(customerIds.resolve("nobody@example.com")).thenReturn(Optional.empty());
+
+        assertThat(service.byCustomerEmail("nobody@example.com")).isEmpty();
+        verifyNoInteractions(orderRepo);
     }
 
     // ---------------------------------------------------------------------
     // byStoreName(storeName)
     // ---------------------------------------------------------------------
     @Test
-    void byStoreName_returnsMappedList() {
-        when(orderRepo.findByStoreName("Main Store")).thenReturn(List.of(order1));
-        when(orderMapper.toDto(order1)).thenReturn(dto1);
+    void byStoreName_resolvesIds_thenQueriesByStoreId() {
+        when(storeNames.resolve("Main Store")).thenReturn(List.of(10));
+        when(orderRepo.findByStoreIds(List.of(10))).thenReturn(List.of(dto1));
 
         List<OrderDTO> out = service.byStoreName("Main Store");
 
         assertThat(out).containsExactly(dto1);
-        verify(orderRepo).findByStoreName("Main Store");
+        verify(orderRepo).findByStoreIds(List.of(10));
+    }
+
+    @Test
+    void byStoreName_unknownName_skipsDatabase() {
+        when(storeNames.resolve("Nowhere")).thenReturn(List.of());
+
+        assertThat(service.byStoreName("Nowhere")).isEmpty();
+        assertThat(service.byStoreNamePage("Nowhere", null, 10).getItems()).isEmpty();
+        verifyNoInteractions(orderRepo);
+    }
+
+    @Test
+    void byStoreNamePage_usesKeysetOnStoreIds() {
+        when(storeNames.resolve("main store")).thenReturn(List.of(10));
+        when(orderRepo.findByStoreIdsFirstPage(List.of(10), org.springframework.data.domain.Limit.of(2)))
+                .thenReturn(List.of(dto1, dto2));
+
+        OrderDTO.Page out = service.byStoreNamePage("main store", null, 1);
+
+        assertThat(out.getItems()).containsExactly(dto1);
+        assertThat(out.getNextCursor()).isNotNull();
     }
 
     // ---------------------------------------------------------------------
     // byDateRange(startDate, endDate)
     // ---------------------------------------------------------------------
     @Test
-    void byDateRange_returnsMappedList_whenValidDates_andStartLeEnd() {
-        when(orderRepo.findByDateRange(any(Instant.class), any(Instant.class))).thenReturn(List.of(order1, order2));
-        when(orderMapper.toDto(order1)).thenReturn(dto1);
-        when(orderMapper.toDto(order2)).thenReturn(dto2);
+    void byDateRange_returnsProjectedList_whenValidDates_andStartLeEnd() {
+        when(orderRepo.findByDateRange(any(Instant.class), any(Instant.class))).thenReturn(List.of(dto1, dto2));
 
         List<OrderDTO> out = service.byDateRange("2025-01-01", "2025-01-02");
 
@@ -469,7 +649,8 @@ class OrderServiceTest {
         ArgumentCaptor<Instant> startCap = ArgumentCaptor.forClass(Instant.class);
         ArgumentCaptor<Instant> endCap = ArgumentCaptor.forClass(Instant.class);
         verify(orderRepo).findByDateRange(startCap.capture(), endCap.capture());
-        assertThat(startCap.getValue()).isBeforeOrEqualTo(endCap.getValue());
+        assertThat(startCap.getValue()).isEqualTo(Instant.parse("2025-01-01T00:00:00Z"));
+        assertThat(endCap.getValue()).isEqualTo(Instant.parse("2025-01-03T00:00:00Z"));   // exclusive
     }
 
     @Test
@@ -489,90 +670,124 @@ class OrderServiceTest {
     }
 
     // ---------------------------------------------------------------------
-    // details(orderId)
+    // dayCounts / streamByDateRange
     // ---------------------------------------------------------------------
     @Test
-    void details_returnsComposedDetails() {
-        // Arrange
-        Order o = new Order();
-        o.setId(1);
-        o.setStore(store1); // assumes store1 is initialized in @BeforeEach with name "Main Store"
+    void dayCounts_comesFromIndex_withoutSql() {
+        java.time.LocalDate d1 = java.time.LocalDate.parse("2025-01-01");
+        java.time.LocalDate d3 = java.time.LocalDate.parse("2025-01-03");
+        when(dayIndex.countsBetween(d1, d3)).thenReturn(new java.util.LinkedHashMap<>(Map.of(d1, 4L, d3, 6L)));
 
-        // Expected DTOs from mapper
-        LineItem li1 = LineItem.builder()
-                .lineItemId(11).productId(100).productName("Phone X")
-                .unitPrice(new BigDecimal("199.99")).quantity(2)
-                .shipmentStatus("PENDING")
-                .build();
+        OrderDTO.DayCounts out = service.dayCounts("2025-01-01", "2025-01-03");
 
-        LineItem li2 = LineItem.builder()
-                .lineItemId(12).productId(200).productName("Laptop Z")
-                .unitPrice(new BigDecimal("999.00")).quantity(1)
-                .shipmentStatus(null)
-                .build();
+        assertThat(out.getTotal()).isEqualTo(10L);
+        assertThat(out.getDays()).containsOnlyKeys(d1, d3);
+        verifyNoInteractions(orderRepo);
+    }
 
-        when(orderRepo.findById(1)).thenReturn(Optional.of(o));
-
-        // ✅ Real domain objects instead of casting Object -> OrderItem
-        com.order.inventory.entity.OrderItem oi1 = new com.order.inventory.entity.OrderItem();
-        oi1.setId(11);
-        oi1.setOrder(o);
-        com.order.inventory.entity.Product p1 = new com.order.inventory.entity.Product();
-        p1.setId(100);
-        p1.setProductName("Phone X");
-        oi1.setProduct(p1);
-        oi1.setUnitPrice(new BigDecimal("199.99"));
-        oi1.setQuantity(2);
-        com.order.inventory.entity.Shipment shp = new com.order.inventory.entity.Shipment();
-        shp.setShipmentStatus(com.order.inventory.entity.ShipmentStatus.PENDING);
-        oi1.setShipment(shp);
-
-        com.order.inventory.entity.OrderItem oi2 = new com.order.inventory.entity.OrderItem();
-        oi2.setId(12);
-        oi2.setOrder(o);
-        com.order.inventory.entity.Product p2 = new com.order.inventory.entity.Product();
-        p2.setId(200);
-        p2.setProductName("Laptop Z");
-        oi2.setProduct(p2);
-        oi2.setUnitPrice(new BigDecimal("999.00"));
-        oi2.setQuantity(1);
-        oi2.setShipment(null);
-
-        when(itemRepo.findByOrderId(1)).thenReturn(java.util.List.of(oi1, oi2));
-        when(itemMapper.toLineItem(oi1)).thenReturn(li1);
-        when(itemMapper.toLineItem(oi2)).thenReturn(li2);
-        // 199.99*2 + 999.00 = 1398.98
-        when(itemRepo.totalAmountByOrderId(1)).thenReturn(new BigDecimal("1398.98"));
+    @Test
+    void streamByDateRange_pagesTheWholeRangeFromTheDb_ignoringTheDayIndex() {
+        Instant from = Instant.parse("2025-01-01T00:00:00Z");
+        Instant to = Instant.parse("2025-01-06T00:00:00Z");
+        when(orderRepo.findRangeFirstPage(eq(from), eq(to), any())).thenReturn(List.of(dto1, dto2));
+        List<OrderDTO> seen = new java.util.ArrayList<>();
+
+        service.streamByDateRange("2025-01-01", "2025-01-05", seen::add);
+
+        assertThat(seen).containsExactly(dto1, dto2);
+        verify(orderRepo).findRangeFirstPage(eq(from), eq(to), any());
+        verifyNoMoreInteractions(orderRepo); // short page: no follow-up query
+        verifyNoInteractions(dayIndex);
+    }
+
+        // ---------------------------------------------------------------------
+    // details(orderId)
+    // ---------------------------------------------------------------------
+    @Test
+    void details_returnsComposedDetails_fromSingleQuery() {
+        // [orderId, storeName, lineItemId, productId, productName, unitPrice, quantity, shipmentStatus]
+        List<Object[]> rows = List.of(
+                new Object[]{1, "Main Store", 11, 100, "Phone X", new BigDecimal("199.99"), 2,
+                        com.order.inventory.entity.ShipmentStatus.PENDING},
+                new Object[]{1, "Main Store", 12, 200, "Laptop Z", new BigDecimal("999.00"), 1, null});
+        when(orderRepo.findDetailRows(List.of(1))).thenReturn(rows);
 
-        // Act
         OrderDTO.Details out = service.details(1);
 
-        // Assert
         assertThat(out.getOrderId()).isEqualTo(1);
         assertThat(out.getStoreName()).isEqualTo("Main Store");
-        assertThat(out.getItems()).containsExactly(li1, li2);
+        assertThat(out.getItems()).extracting(LineItem::getLineItemId).containsExactly(11, 12);
+        assertThat(out.getItems()).extracting(LineItem::getProductName).containsExactly("Phone X", "Laptop Z");
+        assertThat(out.getItems()).extracting(LineItem::getShipmentStatus).containsExactly("PENDING", null);
         assertThat(out.getShipmentStatus()).isEqualTo("PENDING"); // first non-null in items
+        // 199.99*2 + 999.00 = 1398.98
         assertThat(out.getTotalAmount()).isEqualByComparingTo("1398.98");
 
-        verify(orderRepo).findById(1);
-        verify(itemRepo).findByOrderId(1);
-        verify(itemMapper).toLineItem(oi1);
-        verify(itemMapper).toLineItem(oi2);
-        verify(itemRepo).totalAmountByOrderId(1);
+        verify(orderRepo).findDetailRows(List.of(1));
+        verifyNoMoreInteractions(orderRepo);
+        verifyNoInteractions(itemRepo, itemMapper);
+    }
+
+    @Test
+    void details_returnsEmptyItems_andZeroTotal_whenOrderHasNoLines() {
+        List<Object[]> rows = List.<Object[]>of(new Object[]{1, "Main Store", null, null, null, null, null, null});
+        when(orderRepo.findDetailRows(List.of(1))).thenReturn(rows);
+
+        OrderDTO.Details out = service.details(1);
+
+        assertThat(out.getItems()).isEmpty();
+        assertThat(out.getShipmentStatus()).isNull();
+        assertThat(out.getTotalAmount()).isEqualByComparingTo("0");
     }
-    
+
     @Test
     void details_throws_whenOrderMissing() {
-        when(orderRepo.findById(404)).thenReturn(Optional.empty());
+        when(orderRepo.findDetailRows(List.of(404))).thenReturn(List.of());
 
         assertThatThrownBy(() -> service.details(404))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("Order not found");
 
-        verify(orderRepo).findById(404);
+        verify(orderRepo).findDetailRows(List.of(404));
         verifyNoInteractions(itemRepo, itemMapper);
     }
 
+    // ---------------------------------------------------------------------
+    // detailsBatch(orderIds)
+    // ---------------------------------------------------------------------
+    @Test
+    void detailsBatch_returnsRequestOrder_skipsUnknown_andDeduplicates() {
+        when(orderRepo.findDetailRows(List.of(2, 1, 99))).thenReturn(List.of(
+                new Object[]{1, "Main Store", 11, 100, "Phone X", new BigDecimal("10.00"), 1, null},
+                new Object[]{2, "Outlet", 21, 200, "Laptop Z", new BigDecimal("5.00"), 3, null}));
+
+        List<OrderDTO.Details> out = service.detailsBatch(List.of(2, 1, 99, 2));
+
+        assertThat(out).extracting(OrderDTO.Details::getOrderId).containsExactly(2, 1);
+        assertThat(out.get(0).getTotalAmount()).isEqualByComparingTo("15.00");
+    }
+
+    @Test
+    void detailsBatch_chunksLargeIdLists() {
+        List<Integer> ids = java.util.stream.IntStream.rangeClosed(1, 2_500).boxed().toList();
+        when(orderRepo.findDetailRows(anyCollection())).thenReturn(List.of());
+
+        service.detailsBatch(ids);
+
+        verify(orderRepo, times(3)).findDetailRows(anyCollection());
+    }
+
+    @Test
+    void detailsBatch_throws_whenEmptyOrTooLarge() {
+        assertThatThrownBy(() -> service.detailsBatch(List.of()))
+                .isInstanceOf(BadRequestException.class);
+        List<Integer> tooMany = java.util.stream.IntStream.rangeClosed(1, 5_001).boxed().toList();
+        assertThatThrownBy(() -> service.detailsBatch(tooMany))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("At most");
+        verifyNoInteractions(orderRepo);
+    }
+
     // ---------------------------------------------------------------------
     // cancel(id)
     // ---------------------------------------------------------------------
@@ -596,6 +811,7 @@ class OrderServiceTest {
         verify(orderRepo).findById(1);
         verify(orderRepo).save(existing);
         verify(orderMapper).toDto(existing);
+        verify(statusCounters).recordTransition(OrderStatus.NEW, OrderStatus.CANCELLED);
     }
 
     @Test
@@ -1,7 +1,13 @@
 package com.inventory.service;
 
+import com.order.inventory.cache.ProductCatalog;
+import com.order.inventory.cache.ProductFacetIndex;
+import com.order.inventory.cache.ProductNameIndex;
+import com.order.inventory.cache.ProductPriceIndex;
+import com.order.inventory.cache.ProductSuggester;
 import com.order.inventory.dto.ProductDTO;
 import com.order.inventory.entity.Product;
+import com.order.inventory.event.ProductChangedEvent;
 import com.order.inventory.exception.BadRequestException;
 import com.order.inventory.exception.NotFoundException;
 import com.order.inventory.mapper.ProductMapper;
@@ -13,10 +19,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -31,6 +41,24 @@ class ProductServiceTest {
     @Mock
     private ProductMapper mapper;
 
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private ProductNameIndex nameIndex;
+
+    @Mock
+    private ProductFacetIndex facetIndex;
+
+    @Mock
+    private ProductCatalog catalog;
+
+    @Mock
+    private ProductPriceIndex priceIndex;
+
+    @Mock
+    private ProductSuggester suggester;
+
     @InjectMocks
     private ProductService service;
 
@@ -112,6 +140,54 @@ class ProductServiceTest {
         verifyNoInteractions(repo, mapper);
     }
 
+    @Test
+    void getAll_servesTheCatalogSnapshot_whenCurrent() {
+        ProductCatalog.View view = mock(ProductCatalog.View.class);
+        when(catalog.view()).thenReturn(view);
+        when(view.size()).thenReturn(2);
+        when(view.slice("rating", false, 0, 2)).thenReturn(List.of(d1, d2));
+
+        assertThat(service.getAll("rating")).containsExactly(d1, d2);
+        verifyNoInteractions(repo, mapper);
+    }
+
+    @Test
+    void getPage_slicesTheSnapshot_descending() {
+        ProductCatalog.View view = mock(ProductCatalog.View.class);
+        when(catalog.view()).thenReturn(view);
+        when(view.size()).thenReturn(120);
+        when(view.slice("unitPrice", true, 50, 100)).thenReturn(List.of(d2));
+
+        ProductDTO.Page out = service.getPage("unitPrice", "DESC", 1, null);
+
+        assertThat(out.getItems()).containsExactly(d2);
+        assertThat(out.getTotal()).isEqualTo(120);
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void getPage_queriesOnePage_whenSnapshotStale() {
+        Sort expected = Sort.by(Sort.Direction.DESC, "brand", "id");
+        when(repo.findAll(PageRequest.of(0, 2, expected)))
+                .thenReturn(new PageImpl<>(List.of(p2, p1),
+                        PageRequest.of(0, 2, expected), 5));
+        when(mapper.toDto(p1)).thenReturn(d1);
+        when(mapper.toDto(p2)).thenReturn(d2);
+
+        ProductDTO.Page out = service.getPage("brand", "desc", 0, 2);
+
+        assertThat(out.getItems()).containsExactly(d2, d1);
+        assertThat(out.getTotal()).isEqualTo(5);
+    }
+
+    @Test
+    void getPage_rejectsBadSortDirOrPaging() {
+        assertThatThrownBy(() -> service.getPage("nope", null, null, null)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.getPage("id", "up", null, null)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.getPage("id", null, -1, null)).isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(repo, catalog);
+    }
+
     // ---------------------------------------------------------------------
     // getAllStrict(field)
     // ---------------------------------------------------------------------
@@ -198,6 +274,7 @@ class ProductServiceTest {
         verify(mapper).toEntity(input);
         verify(repo).save(toSave);
         verify(mapper).toDto(saved);
+        verify(events).publishEvent(any(ProductChangedEvent.class));
     }
 
     @Test
@@ -340,6 +417,7 @@ class ProductServiceTest {
 
         verify(repo).existsById(1);
         verify(repo).deleteById(1);
+        verify(events).publishEvent(ProductChangedEvent.deleted(1));
     }
 
     @Test
@@ -455,6 +533,33 @@ class ProductServiceTest {
         verifyNoInteractions(repo, mapper);
     }
 
+    @Test
+    void byPricePage_andCount_useThePriceIndex_whenReady() {
+        BigDecimal min = new BigDecimal("100"), max = new BigDecimal("1000");
+        when(priceIndex.isReady()).thenReturn(true);
+        when(priceIndex.count(min, max)).thenReturn(7);
+        when(priceIndex.ids(min, max, 2, 2)).thenReturn(new int[]{2, 1});
+        when(repo.findAllById(List.of(2, 1))).thenReturn(List.of(p1, p2));
+        when(mapper.toDto(p1)).thenReturn(d1);
+        when(mapper.toDto(p2)).thenReturn(d2);
+
+        ProductDTO.Page page = service.byPricePage(min, max, 1, 2);
+
+        assertThat(page.getItems()).containsExactly(d2, d1);
+        assertThat(page.getTotal()).isEqualTo(7);
+        assertThat(service.countByPrice(min, max).getCount()).isEqualTo(7);
+        verify(repo, never()).findByUnitPriceBetween(any(), any());
+    }
+
+    @Test
+    void countByPrice_queriesTheDb_untilTheIndexIsBuilt() {
+        BigDecimal min = new BigDecimal("1"), max = new BigDecimal("2");
+        when(repo.countByUnitPriceBetween(min, max)).thenReturn(3L);
+
+        assertThat(service.countByPrice(min, max).getCount()).isEqualTo(3);
+        assertThatThrownBy(() -> service.countByPrice(max, min)).isInstanceOf(BadRequestException.class);
+    }
+
     // ---------------------------------------------------------------------
     // byName(name)
     // ---------------------------------------------------------------------
@@ -482,4 +587,92 @@ class ProductServiceTest {
         verify(repo).searchByName("nope");
         verifyNoInteractions(mapper);
     }
-}
\ No newline at end of file
+
+    @Test
+    void byName_usesTheNameIndex_inRankOrder_whenReady() {
+        when(nameIndex.isReady()).thenReturn(true);
+        when(nameIndex.search("phone")).thenReturn(List.of(2, 1));
+        when(repo.findAllById(List.of(2, 1))).thenReturn(List.of(p1, p2));
+        when(mapper.toDto(p1)).thenReturn(d1);
+        when(mapper.toDto(p2)).thenReturn(d2);
+
+        assertThat(service.byName("phone")).containsExactly(d2, d1);
+        verify(repo, never()).searchByName(any());
+    }
+
+    @Test
+    void byNamePage_fetchesOnlyThePage() {
+        when(nameIndex.isReady()).thenReturn(true);
+        when(nameIndex.search("phone")).thenReturn(List.of(5, 1, 7));
+        when(repo.findAllById(List.of(1))).thenReturn(List.of(p1));
+        when(mapper.toDto(p1)).thenReturn(d1);
+
+        ProductDTO.Page page = service.byNamePage("phone", 1, 1);
+
+        assertThat(page.getItems()).containsExactly(d1);
+        assertThat(page.getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void byNamePage_farPastTheEnd_isEmpty_notAnOverflow() {
+        when(nameIndex.isReady()).thenReturn(true);
+        when(nameIndex.search("phone")).thenReturn(List.of(5, 1, 7));
+
+        ProductDTO.Page page = service.byNamePage("phone", Integer.MAX_VALUE / 2, 100);
+
+        assertThat(page.getItems()).isEmpty();
+        assertThat(page.getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void byNamePage_rejectsBadPaging() {
+        assertThatThrownBy(() -> service.byNamePage("phone", -1, 10)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.byNamePage("phone", 0, 5_000)).isInstanceOf(BadRequestException.class);
+    }
+
+    // ---------- search ----------
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void search_returnsPage_nextAfter_andFacets() {
+        when(repo.findBy(any(org.springframework.data.jpa.domain.Specification.class), any())).thenReturn(List.of(p1, p2));
+        when(mapper.toDto(p1)).thenReturn(d1);
+        Map<String, Map<String, Long>> facets = Map.of("brand", Map.of("ACME", 1L, "ZETA", 1L));
+        when(facetIndex.counts(any())).thenReturn(new ProductFacetIndex.Counts(7, facets));
+
+        ProductDTO.SearchResult out = service.search(List.of("acme"), null, null, null, null, null, null, 1);
+
+        assertThat(out.getItems()).containsExactly(d1);
+        assertThat(out.getNextAfter()).isEqualTo(1);
+        assertThat(out.getTotal()).isEqualTo(7);
+        assertThat(out.getFacets()).isSameAs(facets);
+        verify(facetIndex).counts(ProductFacetIndex.Filter.of(List.of("acme"), null, null, null, null, null));
+    }
+
+    @Test
+    void search_rejectsBadLimit_andPriceRange() {
+        assertThatThrownBy(() -> service.search(null, null, null, null, null, null, null, 0))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.search(null, null, null, null, new BigDecimal("10"), new BigDecimal("5"), null, null))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(repo, facetIndex);
+    }
+
+    // ---------- suggest ----------
+
+    @Test
+    void suggest_delegatesToTheSuggester_withDefaultLimit() {
+        List<ProductDTO.Suggestion> hits = List.of(new ProductDTO.Suggestion(1, "Phone X", 4));
+        when(suggester.suggest("pho", 10)).thenReturn(hits);
+
+        assertThat(service.suggest("pho", null)).isSameAs(hits);
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void suggest_blankPrefix_isEmpty_badLimit_is400() {
+        assertThat(service.suggest(" ", 5)).isEmpty();
+        assertThatThrownBy(() -> service.suggest("pho", 51)).isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(suggester);
+    }
+}
@@ -0,0 +1,256 @@
+package com.inventory.service;
+
+import com.order.inventory.dto.InventoryDTO;
+import com.order.inventory.exception.BadRequestException;
+import com.order.inventory.exception.NotFoundException;
+import com.order.inventory.repository.InventoryDeltaRepository;
+import com.order.inventory.repository.InventoryRepository;
+import com.order.inventory.service.StockReservationEngine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationEngineTest {
+
+    @Mock
+    private InventoryRepository repo;
+
+    @Mock
+    private InventoryDeltaRepository deltaRepo;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Mock
+    private TransactionTemplate txTemplate;
+
+    private StockReservationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(txTemplate.execute(any()))
+                .thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        engine = new StockReservationEngine(repo, deltaRepo, events, txTemplate, 60_000);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<int[]> flushedRows() {
+        ArgumentCaptor<List<int[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(deltaRepo, atLeastOnce()).apply(rows.capture());
+        return rows.getAllValues().stream().flatMap(List::stream).toList();
+    }
+
+    @Test
+    void reserve_holdsStock_andRejectsOversell() {
+        when(repo.findQuantity(1, 10)).thenReturn(Optional.of(5));
+
+        InventoryDTO.Reservation r = engine.reserve(1, 10, 3);
+
+        assertThat(r.getReservationId()).isNotBlank();
+        assertThat(engine.available(1, 10)).isEqualTo(2);
+        assertThatThrownBy(() -> engine.reserve(1, 10, 3))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Insufficient stock");
+        verify(repo, times(1)).findQuantity(1, 10);
+    }
+
+    @Test
+    void release_returnsStock_andCannotBeRepeated() {
+        when(repo.findQuantity(1, 10)).thenReturn(Optional.of(5));
+        String id = engine.reserve(1, 10, 4).getReservationId();
+
+        engine.release(id);
+
+        assertThat(engine.available(1, 10)).isEqualTo(5);
+        assertThatThrownBy(() -> engine.release(id)).isInstanceOf(NotFoundException.class);
+        engine.flush();
+        verifyNoInteractions(deltaRepo);
+    }
+
+    @Test
+    void commit_isWrittenBehind_inOneBatch() {
+        when(repo.findQuantity(anyInt(), anyInt())).thenReturn(Optional.of(10));
+        engine.commit(engine.reserve(1, 10, 2).getReservationId());
+        engine.commit(engine.reserve(1, 10, 3).getReservationId());
+        engine.commit(engine.reserve(2, 10, 1).getReservationId());
+
+        engine.flush();
+        engine.flush();   // nothing left
+
+        verify(deltaRepo, times(1)).apply(anyList());
+        assertThat(flushedRows()).extracting(r -> r[0], r -> r[1], r -> r[2])
+                .containsExactlyInAnyOrder(tuple(1, 10, -5), tuple(2, 10, -1));
+        assertThat(engine.available(1, 10)).isEqualTo(5);
+    }
+
+    @Test
+    void failedFlush_keepsCommittedUnits_forTheNextFlush() {
+        when(repo.findQuantity(1, 10)).thenReturn(Optional.of(10));
+        when(deltaRepo.apply(anyList()))
+                .thenThrow(new RuntimeException("Connection refused"))
+                .thenReturn(new int[]{1});
+        engine.commit(engine.reserve(1, 10, 2).getReservationId());
+
+        engine.flush();
+        engine.flush();
+
+        List<int[]> rows = flushedRows();
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(1)).containsExactly(1, 10, -2);
+    }
+
+    @Test
+    void failedEvict_keepsTheCell_andItsUnflushedUnits() {
+        when(repo.findQuantity(1, 10)).thenReturn(Optional.of(10));
+        when(deltaRepo.apply(anyList()))
+                .thenThrow(new RuntimeException("Connection refused"))
+                .thenReturn(new int[]{1});
+        engine.commit(engine.reserve(1, 10, 2).getReservationId());
+
+        assertThatThrownBy(() -> engine.evict(1, 10)).hasMessage("Connection refused");
+        engine.flush();
+
+        List<int[]> rows = flushedRows();
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(1)).containsExactly(1, 10, -2);
+        assertThat(engine.available(1, 10)).isEqualTo(8);
+        verify(repo, times(1)).findQuantity(1, 10);
+    }
+
+    @Test
+    void writeBehind_runsInATransaction() {
+        when(repo.findQuantity(1, 10)).thenReturn(Optional.of(10));
+        engine.commit(engine.reserve(1, 10, 2).getReservationId());
+
+        engine.flush();
+
+        verify(txTemplate).execute(any());
+        verify(deltaRepo).apply(anyList());
+    }
+
+    @Test
+    void adjusted_movesAvailableStock_ofLoadedKeysOnly() {
+        when(repo.findQuantity(1, 10)).thenReturn(Optional.of(5));
+        engine.available(1, 10);
+
+        engine.adjusted(1, 10, 20);
+        engine.adjusted(2, 20, 20);   // not loaded: nothing to do
+
+        assertThat(engine.available(1, 10)).isEqualTo(25);
+        verify(repo, never()).findQuantity(2, 20);
+    }
+
+    @Test
+    void take_cannotDipIntoReservedOrUnflushedUnits() {
+        when(repo.findQuantity(1, 10)).thenReturn(Optional.of(10));
+        engine.reserve(1, 10, 4);
+        engine.commit(engine.reserve(1, 10, 3).getReservationId());
+
+        assertThat(engine.take(1, 10, 4)).isFalse();
+        assertThat(engine.take(1, 10, 3)).isTrue();
+        assertThat(engine.available(1, 10)).isZero();
+    }
+
+    @Test
+    void overwrite_keepsOpenReservations_andDropsUnflushedUnits() {
+        when(repo.findQuantity(1, 10)).thenReturn(Optional.of(10));
+        String open = engine.reserve(1, 10, 3).getReservationId();
+        engine.commit(engine.reserve(1, 10, 2).getReservationId());
+        Runnable upsert = mock(Runnable.class);
+
+        engine.overwrite(List.<int[]>of(new int[]{1, 10, 50}, new int[]{2, 20, 7}), upsert);
+
+        verify(upsert).run();
+        assertThat(engine.available(1, 10)).isEqualTo(47);
+        engine.commit(open);   // still valid
+        engine.flush();
+        assertThat(flushedRows()).singleElement().satisfies(r -> assertThat(r).containsExactly(1, 10, -3));
+        verify(repo, never()).findQuantity(2, 20);
+    }
+
+    @Test
+    void failedOverwrite_leavesCellsAlone() {
+        when(repo.findQuantity(1, 10)).thenReturn(Optional.of(10));
+        engine.reserve(1, 10, 3);
+
+        assertThatThrownBy(() -> engine.overwrite(List.<int[]>of(new int[]{1, 10, 50}), () -> {
+            throw new IllegalStateException("deadlock");
+        })).hasMessage("deadlock");
+
+        assertThat(engine.available(1, 10)).isEqualTo(7);
+    }
+
+    @Test
+    void unknownKey_is404() {
+        when(repo.findQuantity(9, 9)).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> engine.reserve(9, 9, 1)).isInstanceOf(NotFoundException.class);
+    }
+
+    /** 64 threads hammering 10 hot SKUs: never oversells, and every committed unit is flushed exactly once. */
+    @Test
+    void concurrentReservations_onHotSkus_neverOversell() throws Exception {
+        int skus = 10, stock = 1_000, threads = 64, attemptsPerThread = 500;
+        when(repo.findQuantity(eq(1), anyInt())).thenReturn(Optional.of(stock));
+        AtomicIntegerArray committed = new AtomicIntegerArray(skus);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    int sku = rnd.nextInt(skus);
+                    String id;
+                    try {
+                        id = engine.reserve(1, sku, 1).getReservationId();
+                    } catch (BadRequestException soldOut) {
+                        continue;
+                    }
+                    if (rnd.nextInt(3) == 0) {
+                        engine.release(id);
+                    } else {
+                        engine.commit(id);
+                        committed.incrementAndGet(sku);
+                    }
+                    if (i % 100 == 0) engine.flush();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        engine.flush();
+
+        int[] flushed = new int[skus];
+        for (int[] row : flushedRows()) flushed[row[1]] -= row[2];
+        for (int sku = 0; sku < skus; sku++) {
+            int available = engine.available(1, sku);
+            assertThat(available).isGreaterThanOrEqualTo(0);
+            assertThat(available + committed.get(sku)).isEqualTo(stock);
+            assertThat(flushed[sku]).isEqualTo(committed.get(sku));
+        }
+    }
+}